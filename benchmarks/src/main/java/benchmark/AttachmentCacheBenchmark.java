@@ -0,0 +1,59 @@
+package benchmark;
+
+import attach.AttachmentCache;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import sqlobjects.SqlUpdateAndQuery.UserDao;
+
+/**
+ * A DAO attached per request on an open handle and used for two primary key lookups,
+ * with handle.attach() and with a warmed AttachmentCache.
+ */
+@State(Scope.Thread)
+public class AttachmentCacheBenchmark {
+    private Jdbi jdbi;
+    private AttachmentCache cache;
+    private Handle handle;
+    private int next;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("attachment_cache");
+        Databases.createUsers(jdbi, 1000);
+        cache = new AttachmentCache(jdbi).warm(UserDao.class);
+        handle = jdbi.open();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        handle.close();
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public String handleAttach()
+    {
+        UserDao dao = handle.attach(UserDao.class);
+        return dao.getName(nextId()) + dao.getName(nextId());
+    }
+
+    @Benchmark
+    public String cacheAttach()
+    {
+        UserDao dao = cache.attach(UserDao.class, handle);
+        return dao.getName(nextId()) + dao.getName(nextId());
+    }
+
+    private long nextId()
+    {
+        next = (next + 1) % 1000;
+        return next;
+    }
+}
@@ -0,0 +1,131 @@
+package benchmark;
+
+import batch.BatchResult;
+import batch.ChunkedBatchWriter;
+import model.User;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.Define;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batches.preparedBatch against Batches.sqlObjectBatch, Batches.chunkedPreparedBatch and a PipelinedBatchWriter.
+ * The PipelinedBatchWriter can only gain against a networked database, run it with Databases.create() pointed at one.
+ *
+ * Every benchmark thread loads into its own table, which is truncated before each operation,
+ * so the primary keys never collide when running with more than one thread.
+ */
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    Jdbi jdbi;
+    List<User> users;
+    ExecutorService binders;
+
+    public interface UserDAO {
+        @SqlBatch("INSERT INTO <table> VALUES(:id, :name)")
+        int[] addUsersInBatch(@Define("table") String table, @BindBean Collection<User> users);
+    }
+
+    @State(Scope.Thread)
+    public static class Table {
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        String name;
+
+        @Setup(Level.Trial)
+        public void create(BatchBenchmark benchmark)
+        {
+            name = "user_" + COUNTER.incrementAndGet();
+            benchmark.jdbi.useHandle(handle ->
+                    handle.execute("create table " + name + " (id int primary key, name varchar(100))"));
+        }
+
+        @Setup(Level.Invocation)
+        public void truncate(BatchBenchmark benchmark)
+        {
+            benchmark.jdbi.useHandle(handle -> handle.execute("truncate table " + name));
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("batch");
+        users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(new User(i, "User:" + i));
+        }
+        binders = Executors.newFixedThreadPool(2);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        binders.shutdown();
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public int[] preparedBatch(Table table)
+    {
+        return jdbi.withHandle(handle -> {
+            PreparedBatch batch = handle.prepareBatch("INSERT INTO " + table.name + "(id, name) VALUES(:id, :name)");
+            for (User user : users) {
+                batch.bind("id", user.getId())
+                        .bind("name", user.getName())
+                        .add();
+            }
+            return batch.execute();
+        });
+    }
+
+    @Benchmark
+    public BatchResult chunkedBatch(Table table)
+    {
+        ChunkedBatchWriter<User> writer = new ChunkedBatchWriter<>(
+                "INSERT INTO " + table.name + "(id, name) VALUES(:id, :name)",
+                (batch, user) -> batch.bind("id", user.getId()).bind("name", user.getName()),
+                1000);
+        return jdbi.withHandle(handle -> writer.write(handle, users.iterator()));
+    }
+
+    @Benchmark
+    public BatchResult chunkedBindBean(Table table)
+    {
+        ChunkedBatchWriter<User> writer = new ChunkedBatchWriter<>(
+                "INSERT INTO " + table.name + "(id, name) VALUES(:id, :name)", PreparedBatch::bindBean, 1000);
+        return jdbi.withHandle(handle -> writer.write(handle, users.iterator()));
+    }
+
+    @Benchmark
+    public long pipelinedBatch(Table table)
+    {
+        PipelinedBatchWriter<User> writer = new PipelinedBatchWriter<>(
+                "INSERT INTO " + table.name + "(id, name) VALUES(:id, :name)", User.class, 1000, binders, 4);
+        return jdbi.withHandle(handle -> writer.write(handle, users.iterator()));
+    }
+
+    @Benchmark
+    public int[] sqlObjectBatch(Table table)
+    {
+        return jdbi.withExtension(UserDAO.class, dao -> dao.addUsersInBatch(table.name, users));
+    }
+}
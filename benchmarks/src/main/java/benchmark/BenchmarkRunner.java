@@ -0,0 +1,40 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks at 1, 8 and 32 threads with the GC profiler,
+ * which adds the allocation rate (gc.alloc.rate.norm is bytes per operation) next to the throughput.
+ *
+ * Pass a regular expression to run a subset, e.g. "MapperBenchmark" or "QueryBenchmark.mapToMap".
+ * Results are written to jmh-result-t{threads}.json.
+ */
+public class BenchmarkRunner {
+    private static final int[] THREADS = {1, 8, 32};
+
+    public static void main(String[] args) throws RunnerException
+    {
+        String include = args.length > 0 ? args[0] : "benchmark\\..*Benchmark.*";
+
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .forks(1)
+                    .warmupIterations(3)
+                    .measurementIterations(5)
+                    .jvmArgsAppend("-Xms4g", "-Xmx4g")
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-t" + threads + ".json")
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package benchmark;
+
+import columnar.ColumnChunk;
+import columnar.ColumnarScanners;
+import columnar.IntColumn;
+import columnar.StringColumn;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queries.getResultSet's mapToMap() against the ColumnarScanners, on a report style scan:
+ * the sum of role_id per city over every row. Run with -prof gc to compare the allocation.
+ */
+@State(Scope.Thread)
+public class ColumnarBenchmark {
+    private static final String SQL = "select id, role_id, city, zip from users";
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"4096"})
+    public int chunkSize;
+
+    private Jdbi jdbi;
+    private Handle handle;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("columnar");
+        Databases.createUsers(jdbi, rows);
+        handle = jdbi.open();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        handle.close();
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public Map<String, Long> mapToMap()
+    {
+        List<Map<String, Object>> result = handle.createQuery(SQL).mapToMap().list();
+        Map<String, Long> sums = new HashMap<>();
+        for (Map<String, Object> row : result) {
+            sums.merge((String) row.get("city"), ((Integer) row.get("role_id")).longValue(), Long::sum);
+        }
+        return sums;
+    }
+
+    @Benchmark
+    public Map<String, Long> columnarChunks()
+    {
+        List<ColumnChunk> chunks = handle.createQuery(SQL).scanResultSet(ColumnarScanners.toChunks(chunkSize));
+        long[] sums = new long[0];
+        StringColumn city = null;
+        for (ColumnChunk chunk : chunks) {
+            city = chunk.stringColumn("city");
+            sums = sumByCode(chunk.intColumn("role_id"), city, sums);
+        }
+        return byValue(city, sums);
+    }
+
+    @Benchmark
+    public Map<String, Long> columnarForEachChunk()
+    {
+        long[][] sums = {new long[0]};
+        StringColumn[] city = new StringColumn[1];
+        handle.createQuery(SQL).scanResultSet(ColumnarScanners.forEachChunk(chunkSize, chunk -> {
+            city[0] = chunk.stringColumn("city");
+            sums[0] = sumByCode(chunk.intColumn("role_id"), city[0], sums[0]);
+        }));
+        return byValue(city[0], sums[0]);
+    }
+
+    private static long[] sumByCode(IntColumn roleId, StringColumn city, long[] sums)
+    {
+        if (sums.length < city.getDictionary().size()) {
+            sums = Arrays.copyOf(sums, city.getDictionary().size());
+        }
+        int[] codes = city.codes();
+        int[] values = roleId.values();
+        for (int row = 0; row < roleId.size(); row++) {
+            sums[codes[row]] += values[row];
+        }
+        return sums;
+    }
+
+    private static Map<String, Long> byValue(StringColumn city, long[] sums)
+    {
+        Map<String, Long> result = new HashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            result.put(city.getDictionary().value(code), sums[code]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded H2 databases shared by the benchmarks.
+ *
+ * Every database is kept alive with DB_CLOSE_DELAY=-1,
+ * so the handles opened per operation do not drop the data in between.
+ */
+final class Databases {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private Databases() {}
+
+    static Jdbi create(String name)
+    {
+        return forUrl(url(name));
+    }
+
+    /**
+     * A new database url, for benchmarks that open several Jdbi instances on the same database.
+     */
+    static String url(String name)
+    {
+        return "jdbc:h2:mem:bench_" + name + "_" + COUNTER.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    static Jdbi forUrl(String url)
+    {
+        Jdbi jdbi = Jdbi.create(url);
+        jdbi.installPlugin(new SqlObjectPlugin());
+        return jdbi;
+    }
+
+    /**
+     * One wide users table covers the columns used by the Queries, mapper and sqlobjects demos.
+     */
+    static void createUsers(Jdbi jdbi, int rows)
+    {
+        jdbi.useHandle(handle -> {
+            handle.execute("create table users (id int primary key, name varchar(100), role_id int, " +
+                    "street varchar(100), city varchar(100), state varchar(100), zip varchar(100))");
+
+            PreparedBatch batch = handle.prepareBatch("insert into users (id, name, role_id, street, city, state, zip) " +
+                    "values (:id, :name, :roleId, :street, :city, :state, :zip)");
+            for (int i = 0; i < rows; i++) {
+                batch.bind("id", i)
+                        .bind("name", "User:" + i)
+                        .bind("roleId", i % 4)
+                        .bind("street", i + " main st")
+                        .bind("city", "cph")
+                        .bind("state", "dk")
+                        .bind("zip", String.valueOf(2000 + i % 500))
+                        .add();
+                if (batch.size() == 10_000) {
+                    batch.execute();
+                }
+            }
+            if (batch.size() > 0) {
+                batch.execute();
+            }
+        });
+    }
+
+    static void dropAll(Jdbi jdbi)
+    {
+        jdbi.useHandle(handle -> handle.execute("drop all objects"));
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import transaction.GroupCommitter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-row insert transactions from 8 threads, committed one by one, and grouped by a GroupCommitter.
+ * The in-memory database has no log to flush, so this measures the commit overhead alone,
+ * on a disk database every saved commit also saves a log flush.
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+public class GroupCommitBenchmark {
+    private final AtomicInteger ids = new AtomicInteger();
+    private Jdbi jdbi;
+    private GroupCommitter committer;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("group_commit");
+        jdbi.useHandle(handle -> handle.execute("create table events (id int primary key, payload varchar(100))"));
+        committer = new GroupCommitter(jdbi, 100, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        committer.close();
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public int perTransaction()
+    {
+        int id = ids.incrementAndGet();
+        return jdbi.inTransaction(handle -> handle.execute("insert into events (id, payload) values (?, ?)", id, "event"));
+    }
+
+    @Benchmark
+    public int grouped()
+    {
+        int id = ids.incrementAndGet();
+        return committer.inTransaction(handle -> handle.execute("insert into events (id, payload) values (?, ?)", id, "event"));
+    }
+}
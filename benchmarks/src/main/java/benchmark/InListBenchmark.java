@@ -0,0 +1,133 @@
+package benchmark;
+
+import binding.InListConfig;
+import binding.InLists;
+import cache.BoundedCache;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.core.statement.StatementCustomizer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Id lookups with IN lists of random length from 1 to maxSize: bindList(), InLists.bindList() padding to
+ * power of two lengths, and InLists.bindIn() with an array from arrayThreshold values on.
+ *
+ * H2 keeps the last 8 statements of a session compiled (QUERY_CACHE_SIZE), which decides the throughput here.
+ * The statementCache counters replay the SQL text of every statement through an LRU of cacheSize,
+ * the size of the prepared statement cache of the PostgreSQL driver, to show the hit rate such a cache would get.
+ */
+@State(Scope.Thread)
+public class InListBenchmark {
+    @Param({"1000"})
+    public int maxSize;
+
+    @Param({"256"})
+    public int cacheSize;
+
+    @Param({"64"})
+    public int arrayThreshold;
+
+    private Jdbi jdbi;
+    private Handle handle;
+    private BoundedCache<String, Boolean> statementCache;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class StatementCache {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void clear()
+        {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("inlist");
+        Databases.createUsers(jdbi, 100_000);
+        jdbi.registerArrayType(Integer.class, "integer");
+        jdbi.getConfig(InListConfig.class).setArrayThreshold(arrayThreshold);
+        statementCache = new BoundedCache<>(cacheSize);
+        handle = jdbi.open();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        handle.close();
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public List<String> bindList(StatementCache cache)
+    {
+        return record(handle.createQuery("select name from users where id in (<ids>)"), cache)
+                .bindList("ids", ids())
+                .mapTo(String.class)
+                .list();
+    }
+
+    @Benchmark
+    public List<String> padded(StatementCache cache)
+    {
+        Query query = record(handle.createQuery("select name from users where id in (<ids>)"), cache);
+        return InLists.bindList(query, "ids", ids())
+                .mapTo(String.class)
+                .list();
+    }
+
+    @Benchmark
+    public List<String> paddedOrArray(StatementCache cache)
+    {
+        Query query = record(handle.createQuery("select name from users where <ids>"), cache);
+        return InLists.bindIn(query, "ids", "id", Integer.class, ids())
+                .mapTo(String.class)
+                .list();
+    }
+
+    private List<Integer> ids()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = 1 + random.nextInt(maxSize);
+        List<Integer> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(random.nextInt(100_000));
+        }
+        return ids;
+    }
+
+    private Query record(Query query, StatementCache cache)
+    {
+        return query.addCustomizer(new StatementCustomizer() {
+            @Override
+            public void beforeExecution(PreparedStatement statement, StatementContext ctx)
+            {
+                if (statementCache.getIfPresent(ctx.getRenderedSql()) != null) {
+                    cache.hits++;
+                } else {
+                    statementCache.putIfAbsent(ctx.getRenderedSql(), Boolean.TRUE);
+                    cache.misses++;
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import metrics.StatementMetrics;
+import metrics.StatementMetricsPlugin;
+import model.User;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The cost of the StatementMetricsPlugin on a primary key lookup,
+ * through the fluent API and through a SqlObject, with and without the plugin installed.
+ */
+@State(Scope.Thread)
+public class InstrumentationBenchmark {
+    private static final int ROWS = 10_000;
+
+    public interface UserDao {
+        @SqlQuery("select id, name from users where id = :id")
+        @RegisterConstructorMapper(User.class)
+        User findById(@Bind("id") int id);
+    }
+
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    private Jdbi jdbi;
+    private Handle handle;
+    private UserDao dao;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("instrumentation");
+        if (instrumented) {
+            jdbi.installPlugin(new StatementMetricsPlugin(new StatementMetrics()));
+        }
+        Databases.createUsers(jdbi, ROWS);
+        handle = jdbi.open();
+        dao = handle.attach(UserDao.class);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        handle.close();
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public String fluentQuery()
+    {
+        return handle.createQuery("select name from users where id = :id")
+                .bind("id", ThreadLocalRandom.current().nextInt(ROWS))
+                .mapTo(String.class)
+                .one();
+    }
+
+    @Benchmark
+    public User sqlObjectQuery()
+    {
+        return dao.findById(ThreadLocalRandom.current().nextInt(ROWS));
+    }
+}
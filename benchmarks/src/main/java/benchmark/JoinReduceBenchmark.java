@@ -0,0 +1,101 @@
+package benchmark;
+
+import join.OneToManyReducer;
+import model.Contact;
+import model.Phone;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.JoinRow;
+import org.jdbi.v3.core.mapper.JoinRowMapper;
+import org.jdbi.v3.core.mapper.reflect.ConstructorMapper;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * mapper.ConstructorMappers.constructorMapper_JoinRowMapper grouped into contacts afterwards,
+ * against the same join folded by a OneToManyReducer. Run with -prof gc to compare the allocation rate.
+ */
+@State(Scope.Benchmark)
+public class JoinReduceBenchmark {
+    private static final String SQL = "select c.id cid, c.name cname, p.id pid, p.name pname, p.number pnumber "
+            + "from contacts c left join phones p on c.id = p.contact_id";
+
+    @Param({"10000", "100000"})
+    public int contacts;
+
+    @Param({"3"})
+    public int phonesPerContact;
+
+    private Jdbi jdbi;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("joinreduce");
+        jdbi.registerRowMapper(ConstructorMapper.factory(Contact.class, "c"));
+        jdbi.registerRowMapper(ConstructorMapper.factory(Phone.class, "p"));
+        jdbi.registerRowMapper(JoinRowMapper.forTypes(Contact.class, Phone.class));
+
+        jdbi.useHandle(handle -> {
+            handle.execute("create table contacts (id int primary key, name varchar(100))");
+            handle.execute("create table phones (id int primary key, contact_id int, name varchar(100), number varchar(100))");
+            handle.execute("create index phones_contact_id on phones (contact_id)");
+
+            PreparedBatch contactBatch = handle.prepareBatch("insert into contacts (id, name) values (?, ?)");
+            PreparedBatch phoneBatch = handle.prepareBatch("insert into phones (id, contact_id, name, number) values (?, ?, ?, ?)");
+            for (int i = 0; i < contacts; i++) {
+                contactBatch.add(i, "Contact:" + i);
+                for (int j = 0; j < phonesPerContact; j++) {
+                    int id = i * phonesPerContact + j;
+                    phoneBatch.add(id, i, "phone" + j, String.valueOf(20_000_000 + id));
+                }
+            }
+            contactBatch.execute();
+            phoneBatch.execute();
+        });
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public List<Contact> joinRows()
+    {
+        return jdbi.withHandle(handle -> {
+            Map<Integer, Contact> byId = new HashMap<>();
+            List<Contact> result = new ArrayList<>();
+            for (JoinRow row : handle.createQuery(SQL).mapTo(JoinRow.class).list()) {
+                Contact contact = byId.get(row.get(Contact.class).getId());
+                if (contact == null) {
+                    contact = row.get(Contact.class);
+                    byId.put(contact.getId(), contact);
+                    result.add(contact);
+                }
+                contact.addPhone(row.get(Phone.class));
+            }
+            return result;
+        });
+    }
+
+    @Benchmark
+    public List<Contact> oneToManyReducer()
+    {
+        return jdbi.withHandle(handle -> handle.createQuery(SQL)
+                .scanResultSet(new OneToManyReducer<>(
+                        "cid", ConstructorMapper.of(Contact.class, "c"),
+                        "pid", ConstructorMapper.of(Phone.class, "p"),
+                        Contact::addPhone)));
+    }
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import bean.ContactBean;
+import bean.PhoneBean;
+import mapper.generated.ColumnPlanCache;
+import mapper.generated.GeneratedBeanMapper;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.JoinRow;
+import org.jdbi.v3.core.mapper.JoinRowMapper;
+import org.jdbi.v3.core.mapper.reflect.BeanMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+/**
+ * mapper.BeanMappers.beanMapper_configColumnNamePrefix: a short contact/phone join, executed over and over.
+ *
+ * With a plan cache of size 1 the contact and phone plans evict each other, so every execution
+ * matches the column names again; with 1000 every execution after the first is a cache hit.
+ *
+ * Each thread keeps its handles open, so opening connections does not drown out the mapping.
+ */
+@State(Scope.Thread)
+public class JoinRowBenchmark {
+    private static final String SQL = "select c.id cid, c.name cname, p.id pid, p.name pname, p.number pnumber "
+            + "from contacts c left join phones p on c.id = p.contact_id where c.id < 10";
+
+    @Param({"1", "1000"})
+    public int planCacheSize;
+
+    private Jdbi reflective;
+    private Handle reflectiveHandle;
+    private Handle generatedHandle;
+
+    @Setup
+    public void setUp()
+    {
+        ColumnPlanCache.setMaximumSize(planCacheSize);
+
+        String url = Databases.url("joinrow");
+        reflective = Databases.forUrl(url);
+        reflective.useHandle(handle -> {
+            handle.execute("create table contacts (id int primary key, name varchar(100))");
+            handle.execute("create table phones (id int primary key, contact_id int, name varchar(100), number varchar(100))");
+            for (int i = 0; i < 1000; i++) {
+                handle.execute("insert into contacts (id, name) values (?, ?)", i, "Contact:" + i);
+                handle.execute("insert into phones (id, contact_id, name, number) values (?, ?, ?, ?)", i, i, "home" + i, "2333" + i);
+            }
+        });
+        reflective.registerRowMapper(BeanMapper.factory(ContactBean.class, "c"));
+        reflective.registerRowMapper(BeanMapper.factory(PhoneBean.class, "p"));
+        reflective.registerRowMapper(JoinRowMapper.forTypes(ContactBean.class, PhoneBean.class));
+
+        Jdbi generated = Databases.forUrl(url);
+        generated.registerRowMapper(GeneratedBeanMapper.factory(ContactBean.class, "c"));
+        generated.registerRowMapper(GeneratedBeanMapper.factory(PhoneBean.class, "p"));
+        generated.registerRowMapper(JoinRowMapper.forTypes(ContactBean.class, PhoneBean.class));
+
+        reflectiveHandle = reflective.open();
+        generatedHandle = generated.open();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        reflectiveHandle.close();
+        generatedHandle.close();
+        Databases.dropAll(reflective);
+        ColumnPlanCache.setMaximumSize(1000);
+    }
+
+    @Benchmark
+    public List<JoinRow> beanMapper()
+    {
+        return reflectiveHandle.select(SQL).mapTo(JoinRow.class).list();
+    }
+
+    @Benchmark
+    public List<JoinRow> generatedBeanMapper()
+    {
+        return generatedHandle.select(SQL).mapTo(JoinRow.class).list();
+    }
+}
@@ -0,0 +1,161 @@
+package benchmark;
+
+import bean.UserBean;
+import mapper.generated.GeneratedBeanMapper;
+import mapper.generated.GeneratedConstructorMapper;
+import mapper.generated.GeneratedFieldMapper;
+import model.User;
+import model.UserTestNested;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.mapper.reflect.BeanMapper;
+import org.jdbi.v3.core.mapper.reflect.ConstructorMapper;
+import org.jdbi.v3.core.mapper.reflect.FieldMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The reflective mappers from mapper.BeanMappers, mapper.ConstructorMappers and mapper.FieldMappers,
+ * on the flat (id, name) shape and on the shape with the @Nested address,
+ * against the method handle mappers from mapper.generated.
+ */
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private static final String FLAT = "select id, name from users";
+    private static final String NESTED = "select id, name, street, city, state, zip from users";
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private Jdbi jdbi;
+    private final RowMapper<UserBean> generatedBeanMapper = GeneratedBeanMapper.of(UserBean.class);
+    private final RowMapper<User> generatedConstructorMapper = GeneratedConstructorMapper.of(User.class);
+    private final RowMapper<UserTestNested> generatedConstructorMapperNested = GeneratedConstructorMapper.of(UserTestNested.class);
+    private final RowMapper<model.fieldmapper.User> generatedFieldMapper = GeneratedFieldMapper.of(model.fieldmapper.User.class);
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("mapper");
+        jdbi.registerRowMapper(BeanMapper.factory(UserBean.class));
+        jdbi.registerRowMapper(ConstructorMapper.factory(User.class));
+        jdbi.registerRowMapper(ConstructorMapper.factory(UserTestNested.class));
+        jdbi.registerRowMapper(FieldMapper.factory(model.fieldmapper.User.class));
+        Databases.createUsers(jdbi, rows);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public void handWrittenRowMapper(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(FLAT)
+                .map((rs, ctx) -> new User(rs.getInt("id"), rs.getString("name")))
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void beanMapper(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(FLAT)
+                .mapTo(UserBean.class)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void beanMapperNested(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(NESTED)
+                .mapTo(UserBean.class)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void constructorMapper(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(FLAT)
+                .mapTo(User.class)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void fieldMapper(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(FLAT)
+                .mapTo(model.fieldmapper.User.class)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void fieldMapperNested(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(NESTED)
+                .mapTo(model.fieldmapper.User.class)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void constructorMapperNested(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(NESTED)
+                .mapTo(UserTestNested.class)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void generatedBeanMapper(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(FLAT)
+                .map(generatedBeanMapper)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void generatedBeanMapperNested(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(NESTED)
+                .map(generatedBeanMapper)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void generatedConstructorMapper(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(FLAT)
+                .map(generatedConstructorMapper)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void generatedConstructorMapperNested(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(NESTED)
+                .map(generatedConstructorMapperNested)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void generatedFieldMapper(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(FLAT)
+                .map(generatedFieldMapper)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void generatedFieldMapperNested(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery(NESTED)
+                .map(generatedFieldMapper)
+                .forEach(bh::consume));
+    }
+}
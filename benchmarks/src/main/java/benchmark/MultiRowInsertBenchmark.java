@@ -0,0 +1,128 @@
+package benchmark;
+
+import batch.MultiRowInsert;
+import model.User;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-row inserts at several widths against a PreparedBatch and plain JDBC addBatch().
+ */
+@State(Scope.Benchmark)
+public class MultiRowInsertBenchmark {
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"10", "100", "1000"})
+    public int width;
+
+    Jdbi jdbi;
+    List<User> users;
+
+    @State(Scope.Thread)
+    public static class Table {
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        String name;
+        MultiRowInsert insert;
+
+        @Setup(Level.Trial)
+        public void create(MultiRowInsertBenchmark benchmark)
+        {
+            name = "user_" + COUNTER.incrementAndGet();
+            insert = MultiRowInsert.of("INSERT INTO " + name + "(id, name) VALUES(:id, :name)", benchmark.width);
+            benchmark.jdbi.useHandle(handle ->
+                    handle.execute("create table " + name + " (id int primary key, name varchar(100))"));
+        }
+
+        @Setup(Level.Invocation)
+        public void truncate(MultiRowInsertBenchmark benchmark)
+        {
+            benchmark.jdbi.useHandle(handle -> handle.execute("truncate table " + name));
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("multirow");
+        users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(new User(i, "User:" + i));
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public int[] multiRowInsert(Table table)
+    {
+        return jdbi.withHandle(handle -> table.insert.execute(handle, users.iterator(),
+                (insert, update, row, user) -> update
+                        .bind(insert.rowPrefix(row) + ".id", user.getId())
+                        .bind(insert.rowPrefix(row) + ".name", user.getName()),
+                update -> {}));
+    }
+
+    //The batch is executed every width rows, so the rows held in memory match the multi-row insert
+    @Benchmark
+    public int preparedBatch(Table table)
+    {
+        return jdbi.withHandle(handle -> {
+            PreparedBatch batch = handle.prepareBatch("INSERT INTO " + table.name + "(id, name) VALUES(:id, :name)");
+            int count = 0;
+            for (User user : users) {
+                batch.bind("id", user.getId())
+                        .bind("name", user.getName())
+                        .add();
+                if (batch.size() == width) {
+                    count += batch.execute().length;
+                }
+            }
+            return count + (batch.size() > 0 ? batch.execute().length : 0);
+        });
+    }
+
+    @Benchmark
+    public int jdbcBatch(Table table) throws SQLException
+    {
+        return jdbi.withHandle(handle -> {
+            Connection connection = handle.getConnection();
+            int count = 0;
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + table.name + "(id, name) VALUES(?, ?)")) {
+                int pending = 0;
+                for (User user : users) {
+                    statement.setInt(1, user.getId());
+                    statement.setString(2, user.getName());
+                    statement.addBatch();
+                    if (++pending == width) {
+                        count += statement.executeBatch().length;
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    count += statement.executeBatch().length;
+                }
+            }
+            return count;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import paging.KeysetPaginator;
+import paging.Page;
+
+import java.util.List;
+
+/**
+ * Fetching one page of the admin style user listing at a given depth, with OFFSET against the KeysetPaginator.
+ * OFFSET reads and skips every row before the page, a keyset page starts at the last key with an index range scan.
+ *
+ * H2 reuses the result of a query run again with the same parameters on unchanged tables,
+ * so each call moves a row further down, in a cycle of 100.
+ */
+@State(Scope.Thread)
+public class PaginationBenchmark {
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"100"})
+    public int pageSize;
+
+    @Param({"0", "10000", "500000"})
+    public int depth;
+
+    private Jdbi jdbi;
+    private Handle handle;
+    private KeysetPaginator<String, Integer> paginator;
+    private int call;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("pagination");
+        Databases.createUsers(jdbi, rows);
+        handle = jdbi.open();
+        paginator = KeysetPaginator.forQuery(handle, "select id, name from users where <keyset>", "id", Integer.class,
+                (rs, ctx) -> rs.getString("name"), pageSize);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        handle.close();
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public List<String> offset()
+    {
+        return handle.createQuery("select name from users order by id limit :limit offset :offset")
+                .bind("limit", pageSize)
+                .bind("offset", nextDepth())
+                .mapTo(String.class)
+                .list();
+    }
+
+    @Benchmark
+    public Page<String, Integer> keyset()
+    {
+        //the ids start at 0, so the page after key depth - 1 is the one OFFSET depth returns
+        return paginator.page(nextDepth() - 1);
+    }
+
+    private int nextDepth()
+    {
+        call = (call + 1) % 100;
+        return depth + call;
+    }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import batch.ChunkedBatchWriter;
+import batch.LoadResult;
+import batch.ParallelBulkLoader;
+import model.User;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batches.parallelBulkLoad with 1 to 8 loader threads, run from a single benchmark thread.
+ */
+@State(Scope.Benchmark)
+@Threads(1)
+public class ParallelLoadBenchmark {
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    Jdbi jdbi;
+    List<User> users;
+    ParallelBulkLoader<User> loader;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("parallel");
+        jdbi.useHandle(handle -> handle.execute("create table user (id int primary key, name varchar(100))"));
+        users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(new User(i, "User:" + i));
+        }
+
+        ChunkedBatchWriter<User> writer = new ChunkedBatchWriter<>(
+                "INSERT INTO user(id, name) VALUES(:id, :name)",
+                (batch, user) -> batch.bind("id", user.getId()).bind("name", user.getName()),
+                1000);
+        loader = new ParallelBulkLoader<>(jdbi, writer, parallelism, 10_000);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate()
+    {
+        jdbi.useHandle(handle -> handle.execute("truncate table user"));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public LoadResult parallelLoad()
+    {
+        return loader.load(users.iterator());
+    }
+}
@@ -0,0 +1,246 @@
+package benchmark;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.argument.Argument;
+import org.jdbi.v3.core.argument.Arguments;
+import org.jdbi.v3.core.statement.ParsedParameters;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.core.statement.SqlStatements;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes beans through a PreparedBatch in chunks, like batch.ChunkedBatchWriter, in two stages:
+ * the executor reads the bean properties named in the SQL and turns them into jdbi Arguments,
+ * while the calling thread executes the chunk before on the handle.
+ *
+ *     ExecutorService binders = Executors.newFixedThreadPool(2);
+ *     PipelinedBatchWriter<User> writer = new PipelinedBatchWriter<>(
+ *             "INSERT INTO user(id, name) VALUES(:id, :name)", User.class, 1000, binders, 4);
+ *     writer.write(handle, users.iterator());
+ *
+ * With bindBean() jdbi calls the getters and looks up the argument factories inside execute(),
+ * on the thread that holds the connection. Here that work runs ahead on the executor,
+ * and the calling thread only sets the parameters of the statement and waits for the driver.
+ * The stages are connected by a bounded queue of queueDepth chunks, so the bound rows held in memory stay bounded
+ * however far the executor gets ahead. The rows are still written on one handle, in their order,
+ * so no more connections are used. Call this inside handle.useTransaction() to get all-or-nothing.
+ *
+ * The executor belongs to the caller, who shares it between writes and shuts it down.
+ * Without one the properties are bound inline, on the calling thread, one chunk at a time.
+ * The overlap only pays off when the database is across a network and there is a spare core for the executor,
+ * against an embedded database on one core it is slower than a ChunkedBatchWriter binding with bindBean().
+ * It lives with BatchBenchmark until that shows it winning against a networked database.
+ *
+ * The argument factory for each property is resolved once per write, from the configuration of the handle.
+ * Only plain bean properties can be bound, :name and not :address.city.
+ */
+public class PipelinedBatchWriter<T> {
+    private final String sql;
+    private final Class<T> beanType;
+    private final int chunkSize;
+    private final Executor executor;
+    private final int queueDepth;
+
+    /**
+     * Binds the properties inline, on the calling thread.
+     */
+    public PipelinedBatchWriter(String sql, Class<T> beanType, int chunkSize) {
+        this(sql, beanType, chunkSize, null, 1);
+    }
+
+    /**
+     * @param executor binds the chunks ahead of the calling thread, or null to bind them inline
+     */
+    public PipelinedBatchWriter(String sql, Class<T> beanType, int chunkSize, Executor executor, int queueDepth) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1, was " + chunkSize);
+        }
+        if (queueDepth < 1) {
+            throw new IllegalArgumentException("queueDepth must be at least 1, was " + queueDepth);
+        }
+        this.sql = sql;
+        this.beanType = beanType;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        //bound inline a chunk is only bound when it is executed, binding more ahead would just hold them in memory
+        this.queueDepth = executor == null ? 1 : queueDepth;
+    }
+
+    public long write(Handle handle, Stream<T> rows)
+    {
+        try (Stream<T> stream = rows) {
+            return write(handle, stream.iterator());
+        }
+    }
+
+    /**
+     * Writes all rows on the given handle. The rows are read on the calling thread.
+     *
+     * @return the rows modified, as counted by the driver
+     */
+    public long write(Handle handle, Iterator<T> rows)
+    {
+        PreparedBatch batch = handle.prepareBatch(sql);
+        List<Property> properties = properties(handle, batch);
+        Deque<CompletableFuture<Argument[][]>> queue = new ArrayDeque<>(queueDepth);
+        long rowsModified = 0;
+
+        try {
+            while (true) {
+                while (queue.size() < queueDepth && rows.hasNext()) {
+                    List<T> chunk = new ArrayList<>(chunkSize);
+                    while (chunk.size() < chunkSize && rows.hasNext()) {
+                        chunk.add(rows.next());
+                    }
+                    queue.add(executor == null
+                            ? CompletableFuture.completedFuture(bind(chunk, properties))
+                            : CompletableFuture.supplyAsync(() -> bind(chunk, properties), executor));
+                }
+                CompletableFuture<Argument[][]> next = queue.poll();
+                if (next == null) {
+                    return rowsModified;
+                }
+                //execute() clears the bound parameter sets, so one PreparedBatch is reused for every chunk
+                for (Argument[] row : join(next)) {
+                    for (int i = 0; i < row.length; i++) {
+                        batch.bind(properties.get(i).name, row[i]);
+                    }
+                    batch.add();
+                }
+                for (int count : batch.execute()) {
+                    rowsModified += Math.max(count, 0);
+                }
+            }
+        } finally {
+            queue.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Argument[][] bind(List<T> chunk, List<Property> properties)
+    {
+        Argument[][] rows = new Argument[chunk.size()][];
+        for (int r = 0; r < rows.length; r++) {
+            T bean = chunk.get(r);
+            Argument[] row = new Argument[properties.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = properties.get(i).argument(bean);
+            }
+            rows[r] = row;
+        }
+        return rows;
+    }
+
+    private static Argument[][] join(CompletableFuture<Argument[][]> future)
+    {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The bean properties of the named parameters of the statement, in the order they first appear.
+     */
+    private List<Property> properties(Handle handle, PreparedBatch batch)
+    {
+        ParsedParameters parameters = handle.getConfig(SqlStatements.class).getSqlParser()
+                .parse(sql, batch.getContext())
+                .getParameters();
+        if (parameters.isPositional()) {
+            throw new IllegalArgumentException("Bind the bean properties by name, not by position: " + sql);
+        }
+
+        PropertyDescriptor[] descriptors;
+        try {
+            descriptors = Introspector.getBeanInfo(beanType).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("Can not introspect " + beanType, e);
+        }
+        Arguments arguments = handle.getConfig(Arguments.class);
+        List<Property> properties = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(parameters.getParameterNames())) {
+            PropertyDescriptor descriptor = null;
+            for (PropertyDescriptor candidate : descriptors) {
+                if (candidate.getName().equals(name) && candidate.getReadMethod() != null) {
+                    descriptor = candidate;
+                    break;
+                }
+            }
+            if (descriptor == null) {
+                throw new IllegalArgumentException(beanType.getName() + " has no readable property " + name);
+            }
+            properties.add(new Property(name, descriptor.getReadMethod(), arguments));
+        }
+        return properties;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    private static final class Property {
+        final String name;
+        final Method getter;
+        final Function<Object, Argument> argument;
+
+        Property(String name, Method getter, Arguments arguments) {
+            this.name = name;
+            this.getter = getter;
+            Type type = getter.getGenericReturnType();
+            //the factories that can not prepare a type up front are asked per value, one binder at a time
+            this.argument = arguments.prepareFor(type).orElseGet(() -> value -> {
+                synchronized (arguments) {
+                    return arguments.findFor(type, value).orElseThrow(() ->
+                            new IllegalArgumentException("No argument factory for " + type + " of property " + name));
+                }
+            });
+        }
+
+        Argument argument(Object bean)
+        {
+            try {
+                return argument.apply(getter.invoke(bean));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can not read property " + name, e);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException("Reading property " + name + " failed", e.getCause());
+            }
+        }
+    }
+}
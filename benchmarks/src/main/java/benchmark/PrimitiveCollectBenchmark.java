@@ -0,0 +1,88 @@
+package benchmark;
+
+import collect.IntIntMap;
+import collect.IntObjectMap;
+import collect.PrimitiveCollectorFactory;
+import collect.PrimitiveScanners;
+import model.User;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.generic.GenericType;
+import org.jdbi.v3.core.mapper.reflect.ConstructorMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+
+/**
+ * mapper.MapEntryMapping.mapEntry's setMapKeyColumn("id") into a Map<Integer, ...>,
+ * against the primitive keyed maps of package collect, filled by collectInto() and by PrimitiveScanners.
+ * Run with -prof gc to compare the allocation per lookup table.
+ */
+@State(Scope.Benchmark)
+public class PrimitiveCollectBenchmark {
+    private static final String USERS = "select id, name from users";
+    private static final String ROLES = "select id, role_id from users";
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private Jdbi jdbi;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("primitive");
+        jdbi.registerRowMapper(ConstructorMapper.factory(User.class));
+        jdbi.registerCollector(new PrimitiveCollectorFactory());
+        Databases.createUsers(jdbi, rows);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public Map<Integer, User> hashMap()
+    {
+        return jdbi.withHandle(handle -> handle.createQuery(USERS)
+                .setMapKeyColumn("id")
+                .collectInto(new GenericType<Map<Integer, User>>() {}));
+    }
+
+    @Benchmark
+    public IntObjectMap<User> intObjectMapCollector()
+    {
+        return jdbi.withHandle(handle -> handle.createQuery(USERS)
+                .setMapKeyColumn("id")
+                .collectInto(new GenericType<IntObjectMap<User>>() {}));
+    }
+
+    @Benchmark
+    public IntObjectMap<User> intObjectMapScanner()
+    {
+        return jdbi.withHandle(handle -> handle.createQuery(USERS)
+                .scanResultSet(PrimitiveScanners.intObjectMap("id", ConstructorMapper.of(User.class))));
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> hashMapIntInt()
+    {
+        return jdbi.withHandle(handle -> handle.createQuery(ROLES)
+                .setMapKeyColumn("id")
+                .setMapValueColumn("role_id")
+                .collectInto(new GenericType<Map<Integer, Integer>>() {}));
+    }
+
+    @Benchmark
+    public IntIntMap intIntMapScanner()
+    {
+        return jdbi.withHandle(handle -> handle.createQuery(ROLES)
+                .scanResultSet(PrimitiveScanners.intIntMap("id", "role_id")));
+    }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Queries.getResultSet (mapToMap) against the typed alternatives of the other Queries demos.
+ *
+ * Rows are handed to the Blackhole one by one instead of being collected with list(),
+ * so the numbers show the mapping cost rather than the cost of holding a million results.
+ */
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private Jdbi jdbi;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("query");
+        Databases.createUsers(jdbi, rows);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public void mapToMap(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery("SELECT id, name FROM users ORDER BY id ASC")
+                .mapToMap()
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void mapToString(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery("SELECT name FROM users ORDER BY id ASC")
+                .mapTo(String.class)
+                .forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void streamResults(Blackhole bh)
+    {
+        jdbi.useHandle(handle -> handle.createQuery("SELECT name FROM users")
+                .mapTo(String.class)
+                .useStream(stream -> stream.forEach(bh::consume)));
+    }
+
+    @Benchmark
+    public String findOneById()
+    {
+        return jdbi.withHandle(handle -> handle.select("select name from users where id = ?", rows / 2)
+                .mapTo(String.class)
+                .one());
+    }
+}
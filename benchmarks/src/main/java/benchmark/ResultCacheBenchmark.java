@@ -0,0 +1,85 @@
+package benchmark;
+
+import cache.ResultCache;
+import cache.ResultCachePlugin;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import sqlobjects.SqlUpdateAndQuery;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reference data lookups through the @Cached SqlUpdateAndQuery.UserDao.getName, with and without the ResultCachePlugin,
+ * over a hot set of ids. The write benchmark renames one user every writeEvery lookups, invalidating the users table.
+ */
+@State(Scope.Thread)
+public class ResultCacheBenchmark {
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int hotIds;
+
+    @Param({"100"})
+    public int writeEvery;
+
+    private Jdbi plainJdbi;
+    private Jdbi cachedJdbi;
+    private Handle plainHandle;
+    private Handle cachedHandle;
+    private SqlUpdateAndQuery.UserDao plain;
+    private SqlUpdateAndQuery.UserDao cached;
+    private int calls;
+
+    @Setup
+    public void setUp()
+    {
+        String url = Databases.url("resultcache");
+        plainJdbi = Databases.forUrl(url);
+        Databases.createUsers(plainJdbi, rows);
+        cachedJdbi = Databases.forUrl(url);
+        cachedJdbi.installPlugin(new ResultCachePlugin(new ResultCache(10_000, Duration.ofMinutes(5))));
+
+        plainHandle = plainJdbi.open();
+        cachedHandle = cachedJdbi.open();
+        plain = plainHandle.attach(SqlUpdateAndQuery.UserDao.class);
+        cached = cachedHandle.attach(SqlUpdateAndQuery.UserDao.class);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        plainHandle.close();
+        cachedHandle.close();
+        Databases.dropAll(plainJdbi);
+    }
+
+    @Benchmark
+    public String uncached()
+    {
+        return plain.getName(ThreadLocalRandom.current().nextInt(hotIds));
+    }
+
+    @Benchmark
+    public String cached()
+    {
+        return cached.getName(ThreadLocalRandom.current().nextInt(hotIds));
+    }
+
+    @Benchmark
+    public String cachedWithWrites()
+    {
+        int id = ThreadLocalRandom.current().nextInt(hotIds);
+        if (++calls % writeEvery == 0) {
+            cached.rename("User:" + id, id);
+        }
+        return cached.getName(id);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import sqlobjects.SqlUpdateAndQuery;
+import sqlobjects.UseRegisterBeanMapper;
+import sqlobjects.UseRegisterFieldMapper;
+import sqlobjects.UseRegisterRowMapper;
+
+import java.util.stream.Stream;
+
+/**
+ * The sqlobjects DAOs, attached to a fresh handle per operation the same way the demos do it.
+ */
+@State(Scope.Benchmark)
+public class SqlObjectBenchmark {
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private Jdbi jdbi;
+
+    @Setup
+    public void setUp()
+    {
+        jdbi = Databases.create("sqlobject");
+        Databases.createUsers(jdbi, rows);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        Databases.dropAll(jdbi);
+    }
+
+    @Benchmark
+    public String getName()
+    {
+        return jdbi.withExtension(SqlUpdateAndQuery.UserDao.class, dao -> dao.getName(rows / 2));
+    }
+
+    @Benchmark
+    public Object findName()
+    {
+        return jdbi.withExtension(SqlUpdateAndQuery.UserDao.class, dao -> dao.findName(rows / 2));
+    }
+
+    @Benchmark
+    public void listNames(Blackhole bh)
+    {
+        jdbi.useExtension(SqlUpdateAndQuery.UserDao.class, dao -> dao.listNames().forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void getNamesAsStream(Blackhole bh)
+    {
+        jdbi.useExtension(SqlUpdateAndQuery.UserDao.class, dao -> {
+            try (Stream<String> names = dao.getNamesAsStream()) {
+                names.forEach(bh::consume);
+            }
+        });
+    }
+
+    @Benchmark
+    public void registerBeanMapperList(Blackhole bh)
+    {
+        jdbi.useExtension(UseRegisterBeanMapper.UserDao.class, dao -> dao.list().forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void registerFieldMapperList(Blackhole bh)
+    {
+        jdbi.useExtension(UseRegisterFieldMapper.UserDao.class, dao -> dao.list().forEach(bh::consume));
+    }
+
+    @Benchmark
+    public void registerRowMapperList(Blackhole bh)
+    {
+        jdbi.useExtension(UseRegisterRowMapper.UserDao.class, dao -> dao.list().forEach(bh::consume));
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import statement.CachingStatementBuilderFactory;
+import statement.StatementCacheStats;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Primary key lookups cycling through a number of distinct statements on one handle,
+ * prepared per call, and with a CachingStatementBuilderFactory.
+ * With more statements than H2's own QUERY_CACHE_SIZE of 8, every plain call parses and plans its SQL again.
+ */
+@State(Scope.Thread)
+public class StatementCacheBenchmark {
+    private static final String[] COLUMNS = {"name", "role_id", "street", "city", "state", "zip"};
+
+    @Param({"4", "24"})
+    public int statements;
+
+    private Jdbi plainJdbi;
+    private Jdbi cachedJdbi;
+    private CachingStatementBuilderFactory factory;
+    private Handle plain;
+    private Handle cached;
+    private String[] sql;
+    private int next;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long hits;
+        public long misses;
+    }
+
+    @Setup
+    public void setUp()
+    {
+        String url = Databases.url("statement_cache");
+        plainJdbi = Databases.forUrl(url);
+        Databases.createUsers(plainJdbi, 1000);
+        cachedJdbi = Databases.forUrl(url);
+        factory = new CachingStatementBuilderFactory(64);
+        cachedJdbi.setStatementBuilderFactory(factory);
+
+        sql = new String[statements];
+        for (int i = 0; i < statements; i++) {
+            sql[i] = "select " + COLUMNS[i % COLUMNS.length] + " from users where id = :id and role_id >= " + (i / COLUMNS.length - 10);
+        }
+        plain = plainJdbi.open();
+        cached = cachedJdbi.open();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        plain.close();
+        cached.close();
+        Databases.dropAll(plainJdbi);
+    }
+
+    @Benchmark
+    public Optional<String> plain()
+    {
+        return lookup(plain);
+    }
+
+    @Benchmark
+    public Optional<String> cached(Counters counters)
+    {
+        StatementCacheStats stats = factory.getStats();
+        long hits = stats.getHits();
+        Optional<String> value = lookup(cached);
+        if (stats.getHits() > hits) {
+            counters.hits++;
+        } else {
+            counters.misses++;
+        }
+        return value;
+    }
+
+    private Optional<String> lookup(Handle handle)
+    {
+        next = (next + 1) % statements;
+        return handle.createQuery(sql[next])
+                .bind("id", ThreadLocalRandom.current().nextInt(1000))
+                .mapTo(String.class)
+                .findFirst();
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import cache.EvictionPolicy;
+import cache.TemplateCache;
+import cache.TemplateCachePlugin;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The dynamic table lookup of Templating.templating, a primary key lookup in one of a few tables
+ * whose name and parameter are defined per call, with and without the TemplateCachePlugin.
+ */
+@State(Scope.Thread)
+public class TemplateCacheBenchmark {
+    private static final String SQL = "select id, name, role_id, street, city, state, zip from <TABLE> " +
+            "where <column> = :<attr> and role_id between :minRole and :maxRole order by id";
+
+    @Param({"4"})
+    public int tables;
+
+    @Param({"lru", "fifo"})
+    public String policy;
+
+    private Jdbi plainJdbi;
+    private Jdbi cachedJdbi;
+    private Handle plain;
+    private Handle cached;
+
+    @Setup
+    public void setUp()
+    {
+        String url = Databases.url("template");
+        plainJdbi = Databases.forUrl(url);
+        Databases.createUsers(plainJdbi, 1000);
+        plainJdbi.useHandle(handle -> {
+            for (int i = 0; i < tables; i++) {
+                handle.execute("create table users_" + i + " as select * from users");
+            }
+        });
+        cachedJdbi = Databases.forUrl(url);
+        cachedJdbi.installPlugin(new TemplateCachePlugin(
+                new TemplateCache(1000, "fifo".equals(policy) ? EvictionPolicy.fifo() : EvictionPolicy.lru())));
+
+        plain = plainJdbi.open();
+        cached = cachedJdbi.open();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        plain.close();
+        cached.close();
+        Databases.dropAll(plainJdbi);
+    }
+
+    @Benchmark
+    public Optional<String> plain()
+    {
+        return lookup(plain);
+    }
+
+    @Benchmark
+    public Optional<String> cached()
+    {
+        return lookup(cached);
+    }
+
+    private Optional<String> lookup(Handle handle)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return handle.createQuery(SQL)
+                .define("TABLE", "users_" + random.nextInt(tables))
+                .define("column", "id")
+                .define("attr", "id")
+                .bind("id", random.nextInt(1000))
+                .bind("minRole", 0)
+                .bind("maxRole", 3)
+                .map((rs, ctx) -> rs.getString("name"))
+                .findFirst();
+    }
+}
@@ -1,5 +1,8 @@
+import binding.InListConfig;
+import binding.InLists;
 import model.Contact;
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
 
 import java.util.*;
 
@@ -120,6 +123,45 @@ public class Arguments {
         assert names.containsAll(Arrays.asList("hao", "hau"));
     }
 
+    /**
+     * bindList() renders one parameter per value, so each list length is a new statement for the statement caches.
+     * InLists pads the lists to power of two lengths, and can switch long lists to one array parameter.
+     */
+    public void bindMultipleValuesatOnce_bucketed()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_bindMultipleValuesatOnce_bucketed");
+        jdbi.registerArrayType(String.class, "varchar");
+        jdbi.getConfig(InListConfig.class).setArrayThreshold(64);
+
+        jdbi.useHandle(handle -> {
+            handle.execute("create table contacts (id int primary key, name varchar(100))");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 1, "hao");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 2, "hau");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 3, "hai");
+
+            // -> "SELECT name FROM contacts WHERE name in (:__listOfNames_0, ..., :__listOfNames_3)", "hai" bound twice
+            Query query = handle.createQuery("SELECT name FROM contacts WHERE name in (<listOfNames>)");
+            List<String> names = InLists.bindList(query, "listOfNames", "hao", "hau", "hai")
+                    .mapTo(String.class)
+                    .list();
+            System.out.println(names);
+            assert names.size() == 3;
+
+            // -> "SELECT name FROM contacts WHERE name = any(:names)" from 64 names on
+            List<String> manyNames = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                manyNames.add("name" + i);
+            }
+            manyNames.add("hao");
+            query = handle.createQuery("SELECT name FROM contacts WHERE <names>");
+            names = InLists.bindIn(query, "names", "name", String.class, manyNames)
+                    .mapTo(String.class)
+                    .list();
+            System.out.println(names);
+            assert names.equals(Collections.singletonList("hao"));
+        });
+    }
+
     /**
      * You can bind multiple arguments from properties of a Java Bean
      */
@@ -206,6 +248,7 @@ public class Arguments {
 
         argumentsDemo.bindMultipleArgumentsByMap();
         argumentsDemo.bindMultipleValuesatOnce();
+        argumentsDemo.bindMultipleValuesatOnce_bucketed();
         argumentsDemo.bindMultipleArgumentsViaBean();
         argumentsDemo.bindAnObjectPublicFields();
         argumentsDemo.bindPublicParameterlessMethods();
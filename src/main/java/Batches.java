@@ -1,3 +1,8 @@
+import batch.BatchResult;
+import batch.ChunkedBatchWriter;
+import batch.LoadResult;
+import batch.ParallelBulkLoader;
+import batch.SqlMultiRowInsert;
 import model.User;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.statement.Batch;
@@ -6,11 +11,26 @@ import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import pool.JdbiFactory;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class Batches {
+    private final JdbiFactory jdbiFactory;
+
+    public Batches()
+    {
+        this(JdbiFactory.shared());
+    }
+
+    public Batches(JdbiFactory jdbiFactory)
+    {
+        this.jdbiFactory = jdbiFactory;
+    }
+
     /**
      * A Batch sends many commands to the server in bulk.
      *
@@ -18,7 +38,7 @@ public class Batches {
      */
     public void createBatch()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_createBatch");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_createBatch");
         jdbi.useHandle(handle -> {
             handle.execute("create table fruit (id int primary key, name varchar(100))");
             Batch batch = handle.createBatch();
@@ -44,7 +64,7 @@ public class Batches {
      */
     public void preparedBatch()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_preparedBatch");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_preparedBatch");
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
 
@@ -66,18 +86,80 @@ public class Batches {
         System.out.println();
     }
 
+    /**
+     * For bulk imports, a ChunkedBatchWriter executes the PreparedBatch every N rows (or M bytes)
+     * instead of keeping every argument set in memory until the end.
+     *
+     * The rows can come from an Iterator or a Stream, so they do not have to be loaded up front either.
+     */
+    public void chunkedPreparedBatch()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_chunkedPreparedBatch");
+        jdbi.useHandle(handle -> {
+            handle.execute("create table user (id int primary key, name varchar(100))");
+
+            ChunkedBatchWriter<User> writer = new ChunkedBatchWriter<>(
+                    "INSERT INTO user(id, name) VALUES(:id, :name)",
+                    PreparedBatch::bindBean,
+                    1000,
+                    64 * 1024,
+                    user -> 4 + 2 * user.getName().length());
+
+            BatchResult result = handle.inTransaction(h -> writer.write(h,
+                    IntStream.range(0, 100_000).mapToObj(i -> new User(i, "User:" + i))));
+            System.out.println(result);
+
+            System.out.println(handle.select("select count(1) from user").mapTo(Integer.class).one());
+        });
+    }
+
+    /**
+     * A ParallelBulkLoader spreads the rows over several handles, one thread and one transaction per partition.
+     *
+     * Failed partitions are rolled back and reported, the others are committed.
+     * With ordered commits the load stops at the first failure, and only the partitions before it are committed.
+     */
+    public void parallelBulkLoad()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_parallelBulkLoad");
+        jdbi.useHandle(handle -> handle.execute("create table user (id int primary key, name varchar(100))"));
+
+        ChunkedBatchWriter<User> writer = new ChunkedBatchWriter<>(
+                "INSERT INTO user(id, name) VALUES(:id, :name)", PreparedBatch::bindBean, 1000);
+
+        ParallelBulkLoader<User> loader = new ParallelBulkLoader<>(jdbi, writer, jdbiFactory.getMaximumPoolSize(), 10_000);
+        LoadResult result = loader.load(IntStream.range(0, 200_000).mapToObj(i -> new User(i, "User:" + i)));
+        System.out.println(result);
+
+        jdbi.useHandle(handle -> handle.execute("delete from user"));
+
+        //id 25_000 is inserted twice, which fails the third partition
+        ParallelBulkLoader<User> ordered = new ParallelBulkLoader<>(jdbi, writer, jdbiFactory.getMaximumPoolSize(), 10_000, true);
+        LoadResult orderedResult = ordered.load(IntStream.range(0, 200_000)
+                .mapToObj(i -> new User(i == 25_001 ? 25_000 : i, "User:" + i)));
+        System.out.println(orderedResult);
+        System.out.println(orderedResult.getFailures().get(0));
+
+        int count = jdbi.withHandle(handle -> handle.select("select count(1) from user").mapTo(Integer.class).one());
+        System.out.println(count);
+    }
+
     public interface UserDAO {
         //SqlObject also supports batch inserts
         @SqlBatch("INSERT INTO user VALUES(:id, :name)")
         int[] addUsersInBatch(@BindBean Collection<User> users);
 
+        //Same insert, sent as INSERT ... VALUES (...), (...), ... with up to 100 rows per statement
+        @SqlMultiRowInsert(value = "INSERT INTO user VALUES(:id, :name)", width = 100)
+        int[] addUsersMultiRow(@BindBean Collection<User> users);
+
         @SqlQuery("SELECT count(1) FROM user")
         int count();
     }
 
     public void sqlObjectBatch()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_sqlObjectBatch");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_sqlObjectBatch");
         jdbi.installPlugin(new SqlObjectPlugin());
 
         jdbi.useHandle(handle -> {
@@ -94,10 +176,39 @@ public class Batches {
         });
     }
 
+    /**
+     * A PreparedBatch still executes the insert once per argument set.
+     * A multi-row insert sends width rows per statement, the leftover rows go in one shorter statement.
+     */
+    public void multiRowInsert()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_multiRowInsert");
+        jdbi.installPlugin(new SqlObjectPlugin());
+
+        jdbi.useHandle(handle -> {
+            handle.execute("create table user (id int primary key, name varchar(100))");
+
+            UserDAO userDAO = handle.attach(UserDAO.class);
+
+            //250 rows: two statements of 100 rows, and one of 50
+            int[] rowsModified = userDAO.addUsersMultiRow(IntStream.range(0, 250)
+                    .mapToObj(i -> new User(i, "User:" + i))
+                    .collect(Collectors.toList()));
+
+            System.out.println(rowsModified.length);
+            System.out.println(userDAO.count());
+        });
+    }
+
     public static void main(String[] args) {
         Batches batches = new Batches();
         batches.createBatch();
         batches.preparedBatch();
+        batches.chunkedPreparedBatch();
+        batches.parallelBulkLoad();
         batches.sqlObjectBatch();
+        batches.multiRowInsert();
+
+        JdbiFactory.shared().close();
     }
 }
@@ -1,17 +1,54 @@
+import async.AsyncJdbi;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import pool.JdbiFactory;
+import routing.RoutingJdbi;
+import statement.CachingStatementBuilderFactory;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class Handler
 {
+    public interface ContactDao {
+        @SqlUpdate("insert into contacts (id, name) values (:id, :name)")
+        void insert(@Bind("id") int id, @Bind("name") String name);
+
+        @SqlQuery("select name from contacts where id = :id")
+        Optional<String> findName(@Bind("id") int id);
+    }
+
+    private final JdbiFactory jdbiFactory;
+
+    public Handler()
+    {
+        this(JdbiFactory.shared());
+    }
+
+    /**
+     * The pooled Jdbi instances are configured once in the JdbiFactory and passed in,
+     * instead of every demo calling Jdbi.create() and opening a raw connection per handle.
+     */
+    public Handler(JdbiFactory jdbiFactory)
+    {
+        this.jdbiFactory = jdbiFactory;
+    }
+
     /**
      * If your operation does not need to return a result, use Jdbi.useHandle(HandleConsumer):
      */
     public void useHandle()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_useHandle");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_useHandle");
         jdbi.useHandle(handle ->
             handle.execute("create table contacts (id int primary key, name varchar(100))"));
     }
@@ -22,7 +59,7 @@ public class Handler
      */
     public List<String> withHandle()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_withHandle");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_withHandle");
         List<String> names = jdbi.withHandle(handle -> {
             handle.execute("create table contacts (id int primary key, name varchar(100))");
             handle.execute("insert into contacts (id, name) values (?, ?)", 1, "Alice");
@@ -46,7 +83,7 @@ public class Handler
     public void openHandle()
     {
         List<String> names;
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_withHandle");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_openHandle");
         try (Handle handle = jdbi.open()) {
             handle.execute("create table contacts (id int primary key, name varchar(100))");
             handle.execute("insert into contacts (id, name) values (?, ?)", 1, "Alice");
@@ -59,12 +96,99 @@ public class Handler
         assert names.contains("Alice");
     }
 
-    public static void main(String[] args) {
+    /**
+     * The pooled Jdbi keeps the prepared statements of each handle open, see PoolSettings.statementCacheSize,
+     * so repeating the same SQL on a handle skips preparing it again.
+     */
+    public void statementCache()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_statementCache");
+        CachingStatementBuilderFactory statements = (CachingStatementBuilderFactory) jdbi.getStatementBuilderFactory();
+
+        jdbi.useHandle(handle -> {
+            handle.execute("create table contacts (id int primary key, name varchar(100))");
+            for (int i = 0; i < 100; i++) {
+                //prepared once, then taken from the cache 99 times
+                handle.execute("insert into contacts (id, name) values (?, ?)", i, "Contact:" + i);
+            }
+
+            //DDL closes the cached statements, the next insert is prepared against the new table
+            handle.execute("alter table contacts add column email varchar(100)");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 100, "Alice");
+        });
+        System.out.println(statements.getStats());
+    }
+
+    /**
+     * withHandleAsync() runs the callback on a virtual thread, or on a bounded pool before JDK 21,
+     * so many lookups can be fanned out without a platform thread each.
+     * Only as many run at once as the pool has connections, the rest wait without holding one.
+     */
+    public void withHandleAsync()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_withHandleAsync");
+        jdbi.useHandle(handle -> {
+            handle.execute("create table contacts (id int primary key, name varchar(100))");
+            for (int i = 0; i < 1000; i++) {
+                handle.execute("insert into contacts (id, name) values (?, ?)", i, "Contact:" + i);
+            }
+        });
+
+        try (AsyncJdbi async = AsyncJdbi.create(jdbi, jdbiFactory.getMaximumPoolSize())) {
+            List<CompletableFuture<String>> lookups = IntStream.range(0, 1000)
+                    .mapToObj(id -> async.withHandleAsync(handle -> handle.select("select name from contacts where id = ?", id)
+                            .mapTo(String.class)
+                            .one()))
+                    .collect(Collectors.toList());
+
+            List<String> names = lookups.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            System.out.println(async + " " + names.size() + " " + names.get(999));
+            assert names.get(999).equals("Contact:999");
+        }
+    }
+
+    /**
+     * A RoutingJdbi sends @SqlQuery methods to the replicas, and everything else to the primary.
+     * Here separate H2 databases stand in for the replicas, and replication is done by hand.
+     */
+    public void readWriteSplit() throws InterruptedException
+    {
+        Jdbi primary = jdbiFactory.forDatabase("test_readWriteSplit_primary");
+        List<Jdbi> replicas = Arrays.asList(jdbiFactory.forDatabase("test_readWriteSplit_replica1"),
+                jdbiFactory.forDatabase("test_readWriteSplit_replica2"));
+        RoutingJdbi routing = new RoutingJdbi(primary, replicas)
+                .installPlugin(new SqlObjectPlugin())
+                .setPinWindow(Duration.ofMillis(100));
+        primary.useHandle(handle -> handle.execute("create table contacts (id int primary key, name varchar(100))"));
+        replicas.forEach(replica -> replica.useHandle(handle ->
+                handle.execute("create table contacts (id int primary key, name varchar(100))")));
+
+        ContactDao dao = routing.onDemand(ContactDao.class);
+        dao.insert(1, "Alice");
+        //within the pin window, this thread reads its own write from the primary
+        System.out.println(dao.findName(1));
+
+        //after it, reads go to a replica, which has not caught up yet
+        Thread.sleep(150);
+        System.out.println(dao.findName(1));
+
+        replicas.forEach(replica -> replica.useHandle(handle ->
+                handle.execute("insert into contacts (id, name) values (?, ?)", 1, "Alice")));
+        System.out.println(dao.findName(1) + " " + dao.findName(1));
+        System.out.println(routing.getStats());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
         Handler handlerDemo = new Handler();
         handlerDemo.useHandle();
         List<String> names = handlerDemo.withHandle();
         names.stream().forEach(n -> System.out.println(n));
 
         handlerDemo.openHandle();
+        handlerDemo.statementCache();
+        handlerDemo.withHandleAsync();
+        handlerDemo.readWriteSplit();
+
+        JdbiFactory.shared().close();
     }
 }
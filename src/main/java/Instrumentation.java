@@ -0,0 +1,103 @@
+import metrics.SqlFingerprint;
+import metrics.StatementMetrics;
+import metrics.StatementMetricsPlugin;
+import model.User;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import pool.JdbiFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The StatementMetricsPlugin records a latency histogram per statement and per SqlObject method,
+ * and logs statements slower than a threshold, without their bound values.
+ */
+public class Instrumentation {
+    public interface UserDao {
+        @SqlUpdate("create table user (id int primary key, name varchar(100))")
+        void createTable();
+
+        @SqlBatch("insert into user (id, name) values (:id, :name)")
+        int[] insertAll(@BindBean List<User> users);
+
+        @SqlQuery("select * from user where id = :id")
+        @RegisterConstructorMapper(User.class)
+        Optional<User> findById(@Bind("id") int id);
+
+        @SqlQuery("select * from user where name like :pattern")
+        @RegisterConstructorMapper(User.class)
+        List<User> findByName(@Bind("pattern") String pattern);
+
+        @SqlUpdate("update user set name = :name where id = :id")
+        int rename(@Bind("id") int id, @Bind("name") String name);
+    }
+
+    private final JdbiFactory jdbiFactory;
+
+    public Instrumentation()
+    {
+        this(JdbiFactory.shared());
+    }
+
+    public Instrumentation(JdbiFactory jdbiFactory)
+    {
+        this.jdbiFactory = jdbiFactory;
+    }
+
+    public void statementMetrics()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_statementMetrics");
+        StatementMetrics metrics = new StatementMetrics().setSlowThreshold(Duration.ofMillis(50));
+        jdbi.installPlugin(new SqlObjectPlugin());
+        //install before attaching the first SqlObject, so its methods are timed too
+        jdbi.installPlugin(new StatementMetricsPlugin(metrics));
+
+        jdbi.useHandle(handle -> {
+            UserDao dao = handle.attach(UserDao.class);
+            dao.createTable();
+            dao.insertAll(IntStream.range(0, 1000)
+                    .mapToObj(i -> new User(i, "User:" + i))
+                    .collect(Collectors.toList()));
+
+            for (int i = 0; i < 1000; i++) {
+                dao.findById(i);
+            }
+            dao.findByName("User:1%");
+            dao.rename(1, "Alice");
+
+            //values concatenated into the SQL still share one fingerprint
+            for (int i = 0; i < 100; i++) {
+                handle.createQuery("select name from user where id = " + i).mapTo(String.class).one();
+            }
+            handle.createQuery("select count(*) from user where id in (<ids>)")
+                    .bindList("ids", 1, 2, 3)
+                    .mapTo(int.class)
+                    .one();
+
+            //a statement over the threshold goes to the slow query log, "metrics.slow"
+            handle.execute("create alias sleep for \"java.lang.Thread.sleep\"");
+            handle.execute("call sleep(?)", 60);
+        });
+
+        System.out.println(metrics.report());
+        System.out.println(metrics.getMethod("UserDao.insertAll").getBatchSizeHistogram().getMaxValue());
+        System.out.println(metrics.getStatement(SqlFingerprint.of("select name from user where id = 0")));
+    }
+
+    public static void main(String[] args) {
+        Instrumentation instrumentation = new Instrumentation();
+        instrumentation.statementMetrics();
+
+        JdbiFactory.shared().close();
+    }
+}
@@ -1,4 +1,16 @@
+import columnar.ColumnChunk;
+import columnar.ColumnarScanners;
+import columnar.IntColumn;
+import columnar.StringColumn;
 import org.jdbi.v3.core.Jdbi;
+import paging.KeysetPaginator;
+import pool.JdbiFactory;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import streaming.QueryPublisher;
+import streaming.StreamingConfig;
+import streaming.StreamingCustomizer;
+import streaming.StreamingStats;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -6,13 +18,26 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Queries {
+    private final JdbiFactory jdbiFactory;
+
+    public Queries()
+    {
+        this(JdbiFactory.shared());
+    }
+
+    public Queries(JdbiFactory jdbiFactory)
+    {
+        this.jdbiFactory = jdbiFactory;
+    }
 
     public void getResultSet()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_getResultSet");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_getResultSet");
 
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
@@ -30,6 +55,44 @@ public class Queries {
         });
     }
 
+    /**
+     * mapToMap() allocates a LinkedHashMap per row, with a boxed value and an entry per column.
+     * For scans of many rows, ColumnarScanners reads the rows into chunks of primitive arrays per column,
+     * with repeated strings stored once in a dictionary, and NULLs in a bitmap.
+     */
+    public void getResultSet_columnar()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_getResultSet_columnar");
+
+        jdbi.useHandle(handle -> {
+            handle.execute("create table user (id int primary key, name varchar(100), city varchar(100))");
+            handle.execute("insert into user (id, name, city) values (?, ?, ?)", 1, "Alice", "cph");
+            handle.execute("insert into user (id, name, city) values (?, ?, ?)", 2, "Bob", "cph");
+            handle.execute("insert into user (id, name, city) values (?, ?, ?)", 3, "Carl", null);
+
+            List<ColumnChunk> chunks = handle.createQuery("SELECT id, name, city FROM user ORDER BY id ASC")
+                    .scanResultSet(ColumnarScanners.toChunks(2));
+            System.out.println(chunks);
+
+            IntColumn ids = chunks.get(0).intColumn("id");
+            StringColumn cities = chunks.get(0).stringColumn("city");
+            System.out.println(ids.get(1) + " " + cities.get(1) + " " + cities.getDictionary().values());
+            System.out.println(chunks.get(1).column("city").isNull(0));
+
+            //a reused chunk keeps the heap flat, however many rows are scanned
+            long rows = handle.createQuery("SELECT id FROM user")
+                    .scanResultSet(ColumnarScanners.forEachChunk(1024, chunk -> {
+                        int[] values = chunk.intColumn("id").values();
+                        long sum = 0;
+                        for (int row = 0; row < chunk.size(); row++) {
+                            sum += values[row];
+                        }
+                        System.out.println(sum);
+                    }));
+            System.out.println(rows);
+        });
+    }
+
     /**
      * Call one() when you expect the result to contain exactly one row.
      * Returns null only if the returned row maps to null.
@@ -37,7 +100,7 @@ public class Queries {
      */
     public void exactlyOneRow()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_exactlyOneRow");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_exactlyOneRow");
 
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
@@ -72,7 +135,7 @@ public class Queries {
      */
     public void findOne()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_findOne");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_findOne");
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
             handle.execute("insert into user (id, name) values (?, ?)", 1, "Alice");
@@ -94,7 +157,7 @@ public class Queries {
      */
     public void first()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_first");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_first");
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
             handle.execute("insert into user (id, name) values (?, ?)", 1, "Alice");
@@ -115,7 +178,7 @@ public class Queries {
      */
     public void findFirst()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_findFirst");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_findFirst");
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
             handle.execute("insert into user (id, name) values (?, ?)", 1, "Alice");
@@ -136,7 +199,7 @@ public class Queries {
      */
     public void multipleResultRowsReturnInList()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_multipleResultRowsReturnInList");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_multipleResultRowsReturnInList");
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
             handle.execute("insert into user (id, name) values (?, ?)", 1, "Alice");
@@ -152,12 +215,34 @@ public class Queries {
         });
     }
 
+    /**
+     * Pages by the last key seen instead of with OFFSET, so every page is an index range scan.
+     * The paginator fills in the <keyset> condition, the order by and the limit.
+     */
+    public void keysetPagination()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_keysetPagination");
+        jdbi.useHandle(handle -> {
+            handle.execute("create table user (id int primary key, name varchar(100))");
+            for (int i = 1; i <= 10; i++) {
+                handle.execute("insert into user (id, name) values (?, ?)", i, "User:" + i);
+            }
+
+            KeysetPaginator<String, Integer> names = KeysetPaginator.forQuery(handle,
+                    "select id, name from user where name like 'User:%' and <keyset>", "id", Integer.class,
+                    (rs, ctx) -> rs.getString("name"), KeysetPaginator.Order.DESC, 3);
+            names.pages().forEach(page -> System.out.println(page + " " + page.getItems()));
+
+            assert names.stream().count() == 10;
+        });
+    }
+
     /**
      * For other collections, use collect() with a collector
      */
     public void collectAsSet()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_collectAsSet");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_collectAsSet");
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
             handle.execute("insert into user (id, name) values (?, ?)", 1, "Alice");
@@ -175,7 +260,7 @@ public class Queries {
 
     public void streamResults()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_streamResults");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_streamResults");
         jdbi.useHandle(handle -> {
             handle.execute("create table user (id int primary key, name varchar(100))");
             handle.execute("insert into user (id, name) values (?, ?)", 1, "Alice");
@@ -193,12 +278,84 @@ public class Queries {
                     .mapTo(String.class)
                     .stream()
                     .forEach(name -> System.out.println(name));
+
+            //get the config before the statements, so they report to the same stats
+            StreamingStats stats = handle.getConfig(StreamingConfig.class).getStats();
+            //fetches 1000 rows per round trip instead of reading the whole result on execute()
+            try (Stream<String> names = handle.createQuery("select name from user")
+                    .addCustomizer(StreamingCustomizer.withFetchSize(1000))
+                    .mapTo(String.class)
+                    .stream()) {
+                names.forEach(name -> System.out.println(name));
+            }
+            System.out.println(stats);
         });
     }
 
+    /**
+     * A QueryPublisher emits the rows as the subscriber requests them, on a thread of its own.
+     * The handle and the cursor stay open between requests, and are closed on completion, error or cancel().
+     */
+    public void publishResults()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_publishResults");
+        jdbi.useHandle(handle -> {
+            handle.execute("create table user (id int primary key, name varchar(100))");
+            for (int i = 1; i <= 10; i++) {
+                handle.execute("insert into user (id, name) values (?, ?)", i, "User:" + i);
+            }
+        });
+
+        QueryPublisher<String> names = QueryPublisher.of(jdbi, handle -> handle.createQuery("select name from user order by id")
+                .addCustomizer(StreamingCustomizer.withFetchSize(2))
+                .mapTo(String.class));
+
+        //asks for 2 rows at a time, and cancels after 5, like a sink that has had enough
+        CompletableFuture<Integer> received = new CompletableFuture<>();
+        names.subscribe(new Subscriber<String>() {
+            private Subscription subscription;
+            private int count;
+
+            @Override
+            public void onSubscribe(Subscription subscription)
+            {
+                this.subscription = subscription;
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(String name)
+            {
+                System.out.println(name);
+                count++;
+                if (count == 5) {
+                    subscription.cancel();
+                    received.complete(count);
+                } else if (count % 2 == 0) {
+                    subscription.request(2);
+                }
+            }
+
+            @Override
+            public void onError(Throwable e)
+            {
+                received.completeExceptionally(e);
+            }
+
+            @Override
+            public void onComplete()
+            {
+                received.complete(count);
+            }
+        });
+
+        System.out.println(received.join());
+        assert received.join() == 5;
+    }
+
     public void mapToOtherDataTypes()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_mapToOtherDataTypes");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_mapToOtherDataTypes");
         jdbi.useHandle(handle -> {
             Timestamp now = new Timestamp(System.currentTimeMillis());
             handle.execute("create table user (id int primary key, name varchar(100), started timestamp)");
@@ -219,15 +376,20 @@ public class Queries {
         Queries demo = new Queries();
 
         demo.getResultSet();
+        demo.getResultSet_columnar();
         demo.exactlyOneRow();
         demo.findOne();
         demo.first();
         demo.findFirst();
 
         demo.multipleResultRowsReturnInList();
+        demo.keysetPagination();
         demo.collectAsSet();
         demo.streamResults();
+        demo.publishResults();
 
         demo.mapToOtherDataTypes();
+
+        JdbiFactory.shared().close();
     }
 }
@@ -1,3 +1,6 @@
+import cache.EvictionPolicy;
+import cache.TemplateCache;
+import cache.TemplateCachePlugin;
 import org.jdbi.v3.core.Jdbi;
 
 import java.util.List;
@@ -42,8 +45,38 @@ public class Templating {
         });
     }
 
+    /**
+     * The TemplateCachePlugin renders each template, and parses its parameters, once per combination of defined values.
+     */
+    public void templating_cached()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_templating_cached");
+        TemplateCache cache = new TemplateCache(1000, EvictionPolicy.lru());
+        jdbi.installPlugin(new TemplateCachePlugin(cache));
+
+        jdbi.useHandle(handle -> {
+            handle.execute("create table user (id int primary key, name varchar(100))");
+            handle.execute("insert into user (id, name) values (?, ?)", 1, "Alice");
+            handle.execute("create table contact (id int primary key, name varchar(100))");
+            handle.execute("insert into contact (id, name) values (?, ?)", 1, "Robin");
+
+            for (int i = 0; i < 100; i++) {
+                String table = i % 2 == 0 ? "user" : "contact";
+                handle.createQuery("select * from <TABLE> where name = :<attr>")
+                        .define("TABLE", table)
+                        .define("attr", "name")
+                        .bind("name", "Alice")
+                        .mapToMap().list();
+            }
+            //one entry per table for the query, each rendered and parsed once, next to those of the statements above
+            System.out.println(cache);
+            System.out.println(cache.getHitRate());
+        });
+    }
+
     public static void main(String[] args) {
         Templating templating = new Templating();
         templating.templating();
+        templating.templating_cached();
     }
 }
@@ -1,8 +1,19 @@
+import async.AsyncJdbi;
 import model.User;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.mapper.reflect.ConstructorMapper;
-
+import pool.JdbiFactory;
+import transaction.GroupCommitter;
+import transaction.RetryPolicy;
+import transaction.RetryingTransactionHandler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * jdbi provides full support for JDBC transactions.
@@ -11,10 +22,21 @@ import java.util.Optional;
  * inTransaction allows you to return a result, and useTransaction has no return value.
  */
 public class Transactions {
+    private final JdbiFactory jdbiFactory;
+
+    public Transactions()
+    {
+        this(JdbiFactory.shared());
+    }
+
+    public Transactions(JdbiFactory jdbiFactory)
+    {
+        this.jdbiFactory = jdbiFactory;
+    }
 
     public void inTransaction()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_inTransaction");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_inTransaction");
 
         //inTransaction allows you to return a result
         jdbi.useHandle(handle -> {
@@ -38,7 +60,7 @@ public class Transactions {
 
     public void useTransaction()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_useTransaction");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_useTransaction");
 
         //useTransaction has no return value
         jdbi.useHandle(handle -> {
@@ -62,7 +84,7 @@ public class Transactions {
 
     public void commitRollback()
     {
-        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_commitRollback");
+        Jdbi jdbi = jdbiFactory.forDatabase("test_commitRollback");
 
         jdbi.useHandle(handle -> {
             handle.registerRowMapper(ConstructorMapper.factory(User.class));
@@ -92,11 +114,80 @@ public class Transactions {
         });
     }
 
+    /**
+     * Many threads committing tiny transactions each pay for a commit, and a log flush on a disk database.
+     * A GroupCommitter runs the transactions submitted at about the same time in one physical transaction,
+     * each under a savepoint, so a failing one is rolled back alone.
+     */
+    public void groupCommit()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_groupCommit");
+        jdbi.useHandle(handle -> handle.execute("create table user (id int primary key, name varchar(100))"));
+
+        List<CompletableFuture<Integer>> inserts = new ArrayList<>();
+        try (GroupCommitter committer = new GroupCommitter(jdbi, 50, 5, TimeUnit.MILLISECONDS)) {
+            for (int i = 0; i < 200; i++) {
+                //id 10 is inserted twice, only the second insert fails
+                int id = i == 100 ? 10 : i;
+                inserts.add(committer.submit(handle ->
+                        handle.execute("insert into user (id, name) values (?, ?)", id, "User:" + id)));
+            }
+            CompletableFuture.allOf(inserts.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+            System.out.println(committer);
+        }
+
+        System.out.println(inserts.get(100).isCompletedExceptionally());
+        int users = jdbi.withHandle(handle -> handle.createQuery("select count(*) from user").mapTo(int.class).one());
+        System.out.println(users);
+        assert users == 199;
+    }
+
+    /**
+     * Transfers between two accounts, locking them in random order, deadlock each other now and then.
+     * The RetryingTransactionHandler runs a transaction that failed on a deadlock, a serialization failure
+     * or a lock timeout again, after a random backoff, so the transfers complete instead of failing.
+     */
+    public void retryTransientFailures()
+    {
+        Jdbi jdbi = jdbiFactory.forDatabase("test_retryTransientFailures");
+        RetryingTransactionHandler retrying = new RetryingTransactionHandler(jdbi.getTransactionHandler(),
+                new RetryPolicy().setMaxAttempts(10).setInitialBackoff(Duration.ofMillis(1)));
+        jdbi.setTransactionHandler(retrying);
+
+        jdbi.useHandle(handle -> {
+            handle.execute("create table account (id int primary key, balance int)");
+            handle.execute("insert into account (id, balance) values (1, 1000), (2, 1000)");
+        });
+
+        //4 at a time, more would mostly deadlock, and use up the RetryBudget
+        try (AsyncJdbi async = AsyncJdbi.create(jdbi, 4)) {
+            List<CompletableFuture<Void>> transfers = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                transfers.add(async.useHandleAsync(handle -> handle.useTransaction(h -> {
+                    boolean forward = ThreadLocalRandom.current().nextBoolean();
+                    h.execute("update account set balance = balance - 1 where id = ?", forward ? 1 : 2);
+                    h.execute("update account set balance = balance + 1 where id = ?", forward ? 2 : 1);
+                })));
+            }
+            CompletableFuture.allOf(transfers.toArray(new CompletableFuture<?>[0])).join();
+        }
+
+        System.out.println(retrying.getStats() + " " + retrying.getBudget());
+        //still 2000, a deadlocked transfer is rolled back as a whole before it runs again
+        int total = jdbi.withHandle(handle -> handle.createQuery("select sum(balance) from account").mapTo(int.class).one());
+        System.out.println(total);
+        assert total == 2000;
+    }
+
     public static void main(String[] args) {
         Transactions t = new Transactions();
         t.inTransaction();
         t.useTransaction();
 
         t.commitRollback();
+        t.groupCommit();
+        t.retryTransientFailures();
+
+        JdbiFactory.shared().close();
     }
 }
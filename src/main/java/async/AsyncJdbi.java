@@ -0,0 +1,179 @@
+package async;
+
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.HandleConsumer;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.extension.ExtensionCallback;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs Jdbi handle callbacks off the calling thread, and returns their results as CompletableFutures:
+ *
+ *     AsyncJdbi async = AsyncJdbi.create(jdbi, jdbiFactory.getMaximumPoolSize());
+ *     CompletableFuture<String> name = async.withHandleAsync(handle -> ...);
+ *
+ * On JDK 21+ every callback gets its own virtual thread, so thousands of callbacks waiting on the database
+ * cost a few kilobytes each instead of a platform thread each. On older JVMs they run on a fixed pool
+ * of maxConcurrency platform threads.
+ *
+ * Either way at most maxConcurrency callbacks hold a handle at the same time, the others wait on a semaphore
+ * without taking a connection. Keep maxConcurrency at or below the size of the connection pool behind the Jdbi,
+ * so callbacks never queue inside the pool, where they would time out after connectionTimeoutMs.
+ * It also caps the carrier threads pinned by the synchronized blocks inside H2 and HikariCP.
+ */
+public class AsyncJdbi implements AutoCloseable {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private final Jdbi jdbi;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final boolean virtualThreads;
+
+    public AsyncJdbi(Jdbi jdbi, ExecutorService executor, int maxConcurrency) {
+        this(jdbi, executor, maxConcurrency, false);
+    }
+
+    private AsyncJdbi(Jdbi jdbi, ExecutorService executor, int maxConcurrency, boolean virtualThreads) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1, was " + maxConcurrency);
+        }
+        this.jdbi = jdbi;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Runs the callbacks on virtual threads when the JVM supports them, otherwise on maxConcurrency daemon threads.
+     */
+    public static AsyncJdbi create(Jdbi jdbi, int maxConcurrency)
+    {
+        ExecutorService executor = VirtualThreads.newExecutor();
+        if (executor != null) {
+            return new AsyncJdbi(jdbi, executor, maxConcurrency, true);
+        }
+        return new AsyncJdbi(jdbi, boundedPool(maxConcurrency), maxConcurrency, false);
+    }
+
+    private static ExecutorService boundedPool(int threads)
+    {
+        if (threads < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1, was " + threads);
+        }
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jdbi-async-" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T, X extends Exception> CompletableFuture<T> withHandleAsync(HandleCallback<T, X> callback)
+    {
+        return submit(() -> jdbi.withHandle(callback));
+    }
+
+    public <X extends Exception> CompletableFuture<Void> useHandleAsync(HandleConsumer<X> consumer)
+    {
+        return submit(() -> {
+            jdbi.useHandle(consumer);
+            return null;
+        });
+    }
+
+    public <T, X extends Exception> CompletableFuture<T> inTransactionAsync(HandleCallback<T, X> callback)
+    {
+        return submit(() -> jdbi.inTransaction(callback));
+    }
+
+    /**
+     * Runs the callback with an on-demand SqlObject, e.g. withExtensionAsync(UserDao.class, dao -> dao.findById(1)).
+     */
+    public <T, E, X extends Exception> CompletableFuture<T> withExtensionAsync(Class<E> extensionType,
+                                                                             ExtensionCallback<T, E, X> callback)
+    {
+        return submit(() -> jdbi.withExtension(extensionType, callback));
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> work)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(work, future));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new IllegalStateException("AsyncJdbi is closed", e));
+        }
+        return future;
+    }
+
+    /*
+    The permit is taken on the executor thread rather than the caller's,
+    so submitting never blocks, and a waiting virtual thread costs no more than its stack.
+     */
+    private <T> void run(Callable<T> work, CompletableFuture<T> future)
+    {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return;
+        }
+        T result;
+        try {
+            result = work.call();
+        } catch (Throwable e) {
+            permits.release();
+            future.completeExceptionally(e);
+            return;
+        }
+        //released before completing, so dependent stages run with the permit already back
+        permits.release();
+        future.complete(result);
+    }
+
+    public Jdbi getJdbi() {
+        return jdbi;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Callbacks holding a handle right now.
+     */
+    public int getActive() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Stops accepting callbacks, the ones already submitted still run.
+     */
+    @Override
+    public void close()
+    {
+        executor.shutdown();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(AsyncJdbi maxConcurrency:" + maxConcurrency +
+                ", virtualThreads:" + virtualThreads +
+                ", active:" + getActive() +
+                ")";
+    }
+}
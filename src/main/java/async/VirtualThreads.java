@@ -0,0 +1,47 @@
+package async;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads for the Java 8 build, looked up reflectively so the same classes run on any JVM.
+ * On JDK 21+ the multi-release jar replaces this class with src/main/java21/async/VirtualThreads.java,
+ * which calls Executors.newVirtualThreadPerTaskExecutor() directly.
+ */
+final class VirtualThreads {
+    private static final MethodHandle NEW_EXECUTOR = lookup();
+
+    private VirtualThreads() {}
+
+    /**
+     * A new executor starting a virtual thread per task, or null when the JVM has no virtual threads.
+     */
+    static ExecutorService newExecutor()
+    {
+        if (NEW_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke();
+        } catch (UnsupportedOperationException e) {
+            //JDK 19 and 20 have the method, but it throws without --enable-preview
+            return null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor", e);
+        }
+    }
+
+    private static MethodHandle lookup()
+    {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            //before JDK 19
+            return null;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package attach;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.extension.Extensions;
+import org.jdbi.v3.core.extension.HandleSupplier;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Attaches SqlObjects to handles without building them again for every handle:
+ *
+ *     AttachmentCache daos = new AttachmentCache(jdbi).warm(UserDao.class, ContactPhoneDao.class);
+ *     try (Handle handle = jdbi.open()) {
+ *         UserDao userDao = daos.attach(UserDao.class, handle);
+ *     }
+ *
+ * handle.attach() copies the configuration of the handle for every SqlObject,
+ * and again for every method on its first call, to apply the @Register... and other configuring annotations.
+ * The cache builds one SqlObject per interface instead, once, and shares it between every handle and thread,
+ * so those copies are made once per method for the lifetime of the Jdbi.
+ * attach() and onDemand() only hand out a small proxy that binds the calling thread to a handle during each call.
+ * warm() builds the SqlObjects up front, at startup, so the first request does not scan their annotations.
+ *
+ * The shared SqlObjects see the configuration of the Jdbi when they were built.
+ * Mappers and other configuration registered on the Jdbi afterwards, or on a single handle,
+ * are not seen by their methods, so configure the Jdbi before creating the cache.
+ */
+public class AttachmentCache {
+    private final Jdbi jdbi;
+    private final CurrentHandleSupplier current;
+    private final HandleSupplierCapture capture = new HandleSupplierCapture();
+    private final Map<Class<?>, Object> extensions = new ConcurrentHashMap<>();
+
+    public AttachmentCache(Jdbi jdbi) {
+        this.jdbi = jdbi;
+        this.current = new CurrentHandleSupplier(jdbi);
+        jdbi.registerExtension(capture);
+    }
+
+    /**
+     * Builds the SqlObjects of the interfaces now, instead of on their first attach.
+     */
+    public AttachmentCache warm(Class<?>... extensionTypes)
+    {
+        for (Class<?> extensionType : extensionTypes) {
+            extension(extensionType);
+        }
+        return this;
+    }
+
+    /**
+     * The SqlObject, running its methods on the handle.
+     * Like handle.attach() it must only be used while the handle is open.
+     */
+    public <E> E attach(Class<E> extensionType, Handle handle)
+    {
+        HandleSupplier supplier = capture.capture(handle);
+        return bind(extensionType, call -> current.withBound(supplier, call), handle);
+    }
+
+    /**
+     * The SqlObject, running every call on a handle of its own, like jdbi.onDemand().
+     * A call made while another call of the cache runs on this thread, as from a default method, joins its handle.
+     * The handle is closed when the call returns, so methods returning a Stream or an Iterator can not be used.
+     */
+    public <E> E onDemand(Class<E> extensionType)
+    {
+        return bind(extensionType, this::onDemandCall, null);
+    }
+
+    private Object onDemandCall(Callable<Object> call) throws Exception
+    {
+        if (current.isBound()) {
+            return call.call();
+        }
+        try (Handle handle = jdbi.open()) {
+            return current.withBound(capture.capture(handle), call);
+        }
+    }
+
+    private <E> E bind(Class<E> extensionType, Binding binding, Handle handle)
+    {
+        Object target = extension(extensionType);
+        Object proxy = Proxy.newProxyInstance(extensionType.getClassLoader(), new Class<?>[]{extensionType},
+                (self, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return objectMethod(extensionType, handle, self, method, args);
+                    }
+                    try {
+                        return binding.call(() -> method.invoke(target, args));
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        return extensionType.cast(proxy);
+    }
+
+    private Object extension(Class<?> extensionType)
+    {
+        return extensions.computeIfAbsent(extensionType, type -> {
+            try {
+                //built unbound, so it takes the configuration of the Jdbi and not of the handle the first attach is on
+                return current.withBound(null, () -> jdbi.getConfig(Extensions.class).findFor(type, current)
+                        .orElseThrow(() -> new IllegalArgumentException(type + " is not an extension type, " +
+                                "is the SqlObjectPlugin installed?")));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Can not build " + type, e);
+            }
+        });
+    }
+
+    private static Object objectMethod(Class<?> extensionType, Handle handle, Object self, Method method,
+                                       Object[] args)
+    {
+        switch (method.getName()) {
+            case "equals":
+                return self == args[0];
+            case "hashCode":
+                return System.identityHashCode(self);
+            default:
+                return "AttachmentCache " + extensionType.getName() + (handle == null ? " on demand" : " on " + handle);
+        }
+    }
+
+    /**
+     * The interfaces built so far.
+     */
+    public Set<Class<?>> getCachedTypes() {
+        return Collections.unmodifiableSet(extensions.keySet());
+    }
+
+    @FunctionalInterface
+    private interface Binding {
+        Object call(Callable<Object> call) throws Exception;
+    }
+}
@@ -0,0 +1,80 @@
+package attach;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.config.ConfigRegistry;
+import org.jdbi.v3.core.extension.ExtensionMethod;
+import org.jdbi.v3.core.extension.HandleSupplier;
+
+import java.util.concurrent.Callable;
+
+/**
+ * The HandleSupplier of the shared extensions of an AttachmentCache,
+ * it delegates to the supplier of the handle the calling thread is bound to.
+ */
+class CurrentHandleSupplier implements HandleSupplier {
+    private final Jdbi jdbi;
+    private final ThreadLocal<HandleSupplier> bound = new ThreadLocal<>();
+
+    CurrentHandleSupplier(Jdbi jdbi) {
+        this.jdbi = jdbi;
+    }
+
+    /**
+     * Runs the call with this thread bound to the supplier, restoring the previous binding afterwards.
+     */
+    <V> V withBound(HandleSupplier supplier, Callable<V> call) throws Exception
+    {
+        HandleSupplier previous = bound.get();
+        bound.set(supplier);
+        try {
+            return call.call();
+        } finally {
+            if (previous == null) {
+                bound.remove();
+            } else {
+                bound.set(previous);
+            }
+        }
+    }
+
+    boolean isBound()
+    {
+        return bound.get() != null;
+    }
+
+    private HandleSupplier current()
+    {
+        HandleSupplier supplier = bound.get();
+        if (supplier == null) {
+            throw new IllegalStateException("No handle is bound to this thread, " +
+                    "call the extensions of an AttachmentCache through attach() or onDemand()");
+        }
+        return supplier;
+    }
+
+    @Override
+    public Handle getHandle()
+    {
+        return current().getHandle();
+    }
+
+    @Override
+    public Jdbi getJdbi()
+    {
+        return jdbi;
+    }
+
+    @Override
+    public ConfigRegistry getConfig()
+    {
+        HandleSupplier supplier = bound.get();
+        return supplier == null ? jdbi.getConfig() : supplier.getConfig();
+    }
+
+    @Override
+    public <V> V invokeInContext(ExtensionMethod extensionMethod, ConfigRegistry config, Callable<V> task) throws Exception
+    {
+        return current().invokeInContext(extensionMethod, config, task);
+    }
+}
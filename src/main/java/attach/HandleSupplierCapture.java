@@ -0,0 +1,38 @@
+package attach;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.extension.ExtensionFactory;
+import org.jdbi.v3.core.extension.Extensions;
+import org.jdbi.v3.core.extension.HandleSupplier;
+
+/**
+ * Hands out the HandleSupplier jdbi itself passes to extensions attached to a handle.
+ * Only that supplier can run a call with the configuration of a SqlObject method, see HandleSupplier.invokeInContext().
+ */
+class HandleSupplierCapture implements ExtensionFactory {
+    interface Captured {
+        HandleSupplier get();
+    }
+
+    @Override
+    public boolean accepts(Class<?> extensionType)
+    {
+        return extensionType == Captured.class;
+    }
+
+    @Override
+    public <E> E attach(Class<E> extensionType, HandleSupplier handleSupplier)
+    {
+        Captured captured = () -> handleSupplier;
+        return extensionType.cast(captured);
+    }
+
+    HandleSupplier capture(Handle handle)
+    {
+        //handles opened before the factory was registered on the Jdbi have a copy of the configuration without it
+        if (!handle.getConfig(Extensions.class).hasExtensionFor(Captured.class)) {
+            handle.registerExtension(this);
+        }
+        return handle.attach(Captured.class).get();
+    }
+}
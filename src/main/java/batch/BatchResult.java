@@ -0,0 +1,78 @@
+package batch;
+
+import java.sql.Statement;
+
+/**
+ * Aggregated outcome of a chunked batch write.
+ *
+ * Instead of one int per row, the counts of every flushed chunk are summed up,
+ * so the result stays the same size no matter how many rows were written.
+ */
+public class BatchResult {
+    private long rows;
+    private long rowsModified;
+    private long rowsWithoutCount;
+    private int batches;
+    private int largestBatch;
+
+    /**
+     * Adds the counts returned by one PreparedBatch.execute().
+     * Drivers that rewrite batches may answer Statement.SUCCESS_NO_INFO instead of a count.
+     */
+    void add(int[] counts)
+    {
+        rows += counts.length;
+        batches++;
+        largestBatch = Math.max(largestBatch, counts.length);
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                rowsWithoutCount++;
+            } else {
+                rowsModified += count;
+            }
+        }
+    }
+
+    /**
+     * Adds the counts of another result, e.g. of one partition of a parallel load.
+     */
+    void add(BatchResult other)
+    {
+        rows += other.rows;
+        rowsModified += other.rowsModified;
+        rowsWithoutCount += other.rowsWithoutCount;
+        batches += other.batches;
+        largestBatch = Math.max(largestBatch, other.largestBatch);
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getRowsModified() {
+        return rowsModified;
+    }
+
+    public long getRowsWithoutCount() {
+        return rowsWithoutCount;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public int getLargestBatch() {
+        return largestBatch;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(BatchResult rows:" + rows +
+                ", rowsModified:" + rowsModified +
+                ", rowsWithoutCount:" + rowsWithoutCount +
+                ", batches:" + batches +
+                ", largestBatch:" + largestBatch +
+                ")";
+    }
+}
@@ -0,0 +1,98 @@
+package batch;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.statement.PreparedBatch;
+
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Streams rows into a PreparedBatch and flushes it every maxRows rows, or every maxBytes estimated bytes.
+ *
+ * A plain PreparedBatch keeps every bound parameter set in memory until execute() is called.
+ * The writer executes the batch as soon as a chunk is full, and only keeps the aggregated counts,
+ * so the heap used by a bulk import stays flat however many rows are written.
+ *
+ * The binder binds one row, the writer calls add() on the batch:
+ *
+ *     new ChunkedBatchWriter<User>("INSERT INTO user(id, name) VALUES(:id, :name)", PreparedBatch::bindBean, 1000)
+ *             .write(handle, users.iterator());
+ */
+public class ChunkedBatchWriter<T> {
+    private final String sql;
+    private final BiConsumer<PreparedBatch, T> binder;
+    private final int maxRows;
+    private final long maxBytes;
+    private final ToLongFunction<? super T> rowSize;
+
+    public ChunkedBatchWriter(String sql, BiConsumer<PreparedBatch, T> binder, int maxRows) {
+        this(sql, binder, maxRows, Long.MAX_VALUE, row -> 0);
+    }
+
+    /**
+     * @param rowSize estimates the bytes one row adds to the batch, e.g. the sum of its string lengths
+     */
+    public ChunkedBatchWriter(String sql, BiConsumer<PreparedBatch, T> binder,
+                              int maxRows, long maxBytes, ToLongFunction<? super T> rowSize) {
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("maxRows must be at least 1, was " + maxRows);
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be at least 1, was " + maxBytes);
+        }
+        this.sql = sql;
+        this.binder = binder;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.rowSize = rowSize;
+    }
+
+    public BatchResult write(Handle handle, Stream<T> rows)
+    {
+        try (Stream<T> stream = rows) {
+            return write(handle, stream.iterator());
+        }
+    }
+
+    /**
+     * Writes all rows on the given handle.
+     * The chunks are not wrapped in a transaction, call this inside handle.useTransaction() to get all-or-nothing.
+     */
+    public BatchResult write(Handle handle, Iterator<T> rows)
+    {
+        BatchResult result = new BatchResult();
+        //execute() clears the bound parameter sets, so one PreparedBatch is reused for every chunk
+        PreparedBatch batch = handle.prepareBatch(sql);
+        long bytes = 0;
+
+        while (rows.hasNext()) {
+            T row = rows.next();
+            binder.accept(batch, row);
+            batch.add();
+            bytes += rowSize.applyAsLong(row);
+
+            if (batch.size() >= maxRows || bytes >= maxBytes) {
+                result.add(batch.execute());
+                bytes = 0;
+            }
+        }
+        if (batch.size() > 0) {
+            result.add(batch.execute());
+        }
+        return result;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
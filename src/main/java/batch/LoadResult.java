@@ -0,0 +1,44 @@
+package batch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a ParallelBulkLoader run: the counts of the committed partitions, and the failed ones.
+ */
+public class LoadResult {
+    private final BatchResult committed;
+    private final int partitions;
+    private final List<PartitionFailure> failures;
+
+    LoadResult(BatchResult committed, int partitions, List<PartitionFailure> failures) {
+        this.committed = committed;
+        this.partitions = partitions;
+        this.failures = failures;
+    }
+
+    public BatchResult getCommitted() {
+        return committed;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public List<PartitionFailure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(LoadResult committed:" + committed +
+                ", partitions:" + partitions +
+                ", failures:" + failures.size() +
+                ")";
+    }
+}
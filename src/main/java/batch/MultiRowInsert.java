@@ -0,0 +1,281 @@
+package batch;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.statement.Update;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Rewrites a single row INSERT ... VALUES (...) into statements that insert up to width rows at once:
+ *
+ *     INSERT INTO user VALUES(:id, :name)
+ *     -> INSERT INTO user VALUES(:r0.id, :r0.name), (:r1.id, :r1.name), ...
+ *
+ * A PreparedBatch sends one parameter set per row, and the server still executes the insert once per row.
+ * A multi-row insert is one statement per width rows, which cuts the per-row overhead on both sides.
+ *
+ * Named parameters of row i are renamed to "r{i}.{name}", which is what Update.bindBean("r{i}", bean) binds.
+ * Parameters listed as constants keep their name, and are bound once per statement.
+ * Positional parameters are repeated per row, row i uses the positions position(i, 0) ... position(i, n - 1).
+ *
+ * Mind the driver limits on parameters per statement (e.g. 32767 for PostgreSQL) when picking the width.
+ */
+public class MultiRowInsert {
+    /**
+     * Binds the values of one row. The row is the position of the value inside the current statement.
+     */
+    @FunctionalInterface
+    public interface RowBinder<T> {
+        void bind(MultiRowInsert insert, Update update, int row, T value);
+    }
+
+    private final String head;
+    private final List<String> tupleText;
+    private final List<String> tupleParameters;
+    private final String tail;
+    private final boolean positional;
+    private final int width;
+    private final Set<String> constants;
+    private final String fullWidthSql;
+
+    private MultiRowInsert(String head, List<String> tupleText, List<String> tupleParameters, String tail,
+                           boolean positional, int width, Set<String> constants) {
+        this.head = head;
+        this.tupleText = tupleText;
+        this.tupleParameters = tupleParameters;
+        this.tail = tail;
+        this.positional = positional;
+        this.width = width;
+        this.constants = constants;
+        this.fullWidthSql = render(width);
+    }
+
+    /**
+     * @param insertSql a single row insert, with either named or positional parameters in its VALUES tuple
+     * @param width the maximum number of rows per statement
+     */
+    public static MultiRowInsert of(String insertSql, int width)
+    {
+        return of(insertSql, width, Collections.emptySet());
+    }
+
+    public static MultiRowInsert of(String insertSql, int width, Set<String> constants)
+    {
+        if (width < 1) {
+            throw new IllegalArgumentException("width must be at least 1, was " + width);
+        }
+
+        int values = indexOfValues(insertSql);
+        int open = insertSql.indexOf('(', values);
+        if (values < 0 || open < 0 || !insertSql.substring(values + "values".length(), open).trim().isEmpty()) {
+            throw new IllegalArgumentException("Expected INSERT ... VALUES (...), got: " + insertSql);
+        }
+        int close = indexOfClosingParenthesis(insertSql, open);
+
+        List<String> text = new ArrayList<>();
+        List<String> parameters = new ArrayList<>();
+        boolean named = false;
+        boolean positional = false;
+
+        StringBuilder literal = new StringBuilder();
+        int i = open;
+        while (i <= close) {
+            char c = insertSql.charAt(i);
+            if (c == '\'') {
+                int end = insertSql.indexOf('\'', i + 1);
+                literal.append(insertSql, i, end + 1);
+                i = end + 1;
+            } else if (c == '?') {
+                positional = true;
+                text.add(literal.toString());
+                parameters.add(null);
+                literal.setLength(0);
+                i++;
+            } else if (c == ':' && insertSql.charAt(i + 1) == ':') {
+                //a cast like ::text, not a parameter
+                literal.append("::");
+                i += 2;
+            } else if (c == ':' && isNameStart(insertSql.charAt(i + 1))) {
+                int end = i + 1;
+                while (isNamePart(insertSql.charAt(end))) {
+                    end++;
+                }
+                named = true;
+                text.add(literal.toString());
+                parameters.add(insertSql.substring(i + 1, end));
+                literal.setLength(0);
+                i = end;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        text.add(literal.toString());
+
+        if (named && positional) {
+            throw new IllegalArgumentException("Mixing named and positional parameters is not allowed: " + insertSql);
+        }
+
+        return new MultiRowInsert(insertSql.substring(0, open), text, parameters, insertSql.substring(close + 1),
+                positional, width, new HashSet<>(constants));
+    }
+
+    /**
+     * Binds every bean with Update.bindBean("r{i}", bean), for named parameters without constants.
+     */
+    public int[] executeBeans(Handle handle, Iterable<?> beans)
+    {
+        return execute(handle, beans.iterator(),
+                (insert, update, row, bean) -> update.bindBean(insert.rowPrefix(row), bean),
+                update -> {});
+    }
+
+    /**
+     * Executes full width statements while there are enough rows, then one statement for the leftover rows.
+     *
+     * An INSERT ... VALUES either inserts all of its rows or fails,
+     * so when a statement reports one modified row per row, every row gets a count of 1.
+     * Otherwise (e.g. with ON CONFLICT DO NOTHING) the rows of that statement get Statement.SUCCESS_NO_INFO,
+     * the same answer drivers give when they rewrite batches themselves.
+     *
+     * @param constants binds the parameters that are not part of a row, once per statement
+     * @return one count per row, like PreparedBatch.execute()
+     */
+    public <T> int[] execute(Handle handle, Iterator<T> rows, RowBinder<? super T> binder, Consumer<Update> constants)
+    {
+        int[] counts = new int[width];
+        int written = 0;
+        List<T> chunk = new ArrayList<>(width);
+
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == width || !rows.hasNext()) {
+                if (written + chunk.size() > counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(counts.length * 2, written + chunk.size()));
+                }
+                int modified = executeChunk(handle, chunk, binder, constants);
+                Arrays.fill(counts, written, written + chunk.size(),
+                        modified == chunk.size() ? 1 : Statement.SUCCESS_NO_INFO);
+                written += chunk.size();
+                chunk.clear();
+            }
+        }
+        return Arrays.copyOf(counts, written);
+    }
+
+    private <T> int executeChunk(Handle handle, List<T> chunk, RowBinder<? super T> binder, Consumer<Update> constants)
+    {
+        Update update = handle.createUpdate(chunk.size() == width ? fullWidthSql : render(chunk.size()));
+        constants.accept(update);
+        for (int row = 0; row < chunk.size(); row++) {
+            binder.bind(this, update, row, chunk.get(row));
+        }
+        return update.execute();
+    }
+
+    String render(int rows)
+    {
+        StringBuilder sql = new StringBuilder(head);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            for (int i = 0; i < tupleParameters.size(); i++) {
+                sql.append(tupleText.get(i));
+                String name = tupleParameters.get(i);
+                if (name == null) {
+                    sql.append('?');
+                } else if (constants.contains(name)) {
+                    sql.append(':').append(name);
+                } else {
+                    sql.append(':').append(rowPrefix(row)).append('.').append(name);
+                }
+            }
+            sql.append(tupleText.get(tupleParameters.size()));
+        }
+        return sql.append(tail).toString();
+    }
+
+    /**
+     * The prefix of the named parameters of the given row, "r{row}".
+     */
+    public String rowPrefix(int row)
+    {
+        return "r" + row;
+    }
+
+    /**
+     * The position of a positional parameter of the given row.
+     */
+    public int position(int row, int parameter)
+    {
+        return row * tupleParameters.size() + parameter;
+    }
+
+    public boolean isPositional() {
+        return positional;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * The parameters of the VALUES tuple, in order. Positional parameters are null.
+     */
+    public List<String> getTupleParameters() {
+        return Collections.unmodifiableList(tupleParameters);
+    }
+
+    private static int indexOfValues(String sql)
+    {
+        String lower = sql.toLowerCase();
+        int from = 0;
+        int index;
+        while ((index = lower.indexOf("values", from)) >= 0) {
+            boolean wordStart = index == 0 || !isNamePart(lower.charAt(index - 1));
+            int end = index + "values".length();
+            boolean wordEnd = end == lower.length() || !isNamePart(lower.charAt(end));
+            if (wordStart && wordEnd) {
+                return index;
+            }
+            from = end;
+        }
+        return -1;
+    }
+
+    private static int indexOfClosingParenthesis(String sql, int open)
+    {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = open; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '(') {
+                depth++;
+            } else if (!quoted && c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unbalanced parentheses in VALUES: " + sql);
+    }
+
+    private static boolean isNameStart(char c)
+    {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isNamePart(char c)
+    {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+    }
+}
@@ -0,0 +1,158 @@
+package batch;
+
+import org.jdbi.v3.core.Jdbi;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Splits the input into partitions of partitionSize rows, and writes them on parallelism threads.
+ * Every partition gets its own handle and its own transaction, and is written with a ChunkedBatchWriter.
+ *
+ * A partition either commits or rolls back as a whole.
+ * The failed partitions are collected in the LoadResult, the load carries on with the others.
+ *
+ * By default the partitions commit in whatever order they finish.
+ * With orderedCommits, a partition waits for the partition before it to commit before committing itself,
+ * so the committed rows are always a prefix of the input, and the load stops at the first failure.
+ *
+ * The input is read on the calling thread, and at most 2 * parallelism partitions are held in memory.
+ * Keep parallelism at or below the size of the connection pool behind the Jdbi.
+ */
+public class ParallelBulkLoader<T> {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private final Jdbi jdbi;
+    private final ChunkedBatchWriter<T> writer;
+    private final int parallelism;
+    private final int partitionSize;
+    private final boolean orderedCommits;
+
+    public ParallelBulkLoader(Jdbi jdbi, ChunkedBatchWriter<T> writer, int parallelism, int partitionSize) {
+        this(jdbi, writer, parallelism, partitionSize, false);
+    }
+
+    public ParallelBulkLoader(Jdbi jdbi, ChunkedBatchWriter<T> writer, int parallelism, int partitionSize,
+                              boolean orderedCommits) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1, was " + parallelism);
+        }
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException("partitionSize must be at least 1, was " + partitionSize);
+        }
+        this.jdbi = jdbi;
+        this.writer = writer;
+        this.parallelism = parallelism;
+        this.partitionSize = partitionSize;
+        this.orderedCommits = orderedCommits;
+    }
+
+    public LoadResult load(Stream<T> rows)
+    {
+        try (Stream<T> stream = rows) {
+            return load(stream.iterator());
+        }
+    }
+
+    public LoadResult load(Iterator<T> rows)
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-load-" + THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(2 * parallelism);
+        AtomicBoolean failed = new AtomicBoolean();
+
+        List<CompletableFuture<BatchResult>> futures = new ArrayList<>();
+        List<Long> firstRows = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        CompletableFuture<?> previous = CompletableFuture.completedFuture(null);
+        long read = 0;
+
+        try {
+            while (rows.hasNext() && !(orderedCommits && failed.get())) {
+                List<T> partition = new ArrayList<>(partitionSize);
+                while (partition.size() < partitionSize && rows.hasNext()) {
+                    partition.add(rows.next());
+                }
+                acquire(inFlight);
+
+                CompletableFuture<?> before = previous;
+                CompletableFuture<BatchResult> future = CompletableFuture.supplyAsync(() -> write(partition, before), executor);
+                future.whenComplete((result, e) -> {
+                    inFlight.release();
+                    if (e != null) {
+                        failed.set(true);
+                    }
+                });
+
+                futures.add(future);
+                firstRows.add(read);
+                sizes.add(partition.size());
+                read += partition.size();
+                previous = future;
+            }
+
+            BatchResult committed = new BatchResult();
+            List<PartitionFailure> failures = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    committed.add(futures.get(i).join());
+                } catch (CompletionException e) {
+                    failures.add(new PartitionFailure(i, firstRows.get(i), sizes.get(i), e.getCause()));
+                }
+            }
+            return new LoadResult(committed, futures.size(), failures);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private BatchResult write(List<T> partition, CompletableFuture<?> previous)
+    {
+        return jdbi.inTransaction(handle -> {
+            BatchResult result = writer.write(handle, partition.iterator());
+            if (orderedCommits) {
+                try {
+                    previous.join();
+                } catch (CompletionException e) {
+                    //throwing rolls this partition back as well
+                    throw new IllegalStateException("Rolled back, a previous partition failed", e.getCause());
+                }
+            }
+            return result;
+        });
+    }
+
+    private static void acquire(Semaphore semaphore)
+    {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a partition to finish", e);
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getPartitionSize() {
+        return partitionSize;
+    }
+
+    public boolean isOrderedCommits() {
+        return orderedCommits;
+    }
+}
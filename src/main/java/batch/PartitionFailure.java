@@ -0,0 +1,47 @@
+package batch;
+
+/**
+ * A partition of a ParallelBulkLoader run that was rolled back.
+ */
+public class PartitionFailure {
+    private final int partition;
+    private final long firstRow;
+    private final int rows;
+    private final Throwable cause;
+
+    PartitionFailure(int partition, long firstRow, int rows, Throwable cause) {
+        this.partition = partition;
+        this.firstRow = firstRow;
+        this.rows = rows;
+        this.cause = cause;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    /**
+     * The position of the first row of the partition in the input.
+     */
+    public long getFirstRow() {
+        return firstRow;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public Throwable getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(PartitionFailure partition:" + partition +
+                ", firstRow:" + firstRow +
+                ", rows:" + rows +
+                ", cause:" + cause +
+                ")";
+    }
+}
@@ -0,0 +1,34 @@
+package batch;
+
+import org.jdbi.v3.sqlobject.SqlOperation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opt-in alternative to @SqlBatch for inserts: the rows are sent as multi-row
+ * INSERT ... VALUES (...), (...), ... statements of up to width rows, see MultiRowInsert.
+ *
+ * Parameters are bound the same way as with @SqlBatch:
+ * iterables, iterators and arrays are iterated in lockstep, one element per row,
+ * every other parameter is a constant bound with @Bind.
+ * Row parameters use @BindBean (with or without prefix), @Bind, or no annotation for positional SQL.
+ *
+ * The method may return int[] (one count per row) or void.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@SqlOperation(SqlMultiRowInsertHandler.class)
+public @interface SqlMultiRowInsert {
+    /**
+     * A single row INSERT ... VALUES (...) statement.
+     */
+    String value();
+
+    /**
+     * The maximum number of rows per statement.
+     */
+    int width() default 100;
+}
@@ -0,0 +1,194 @@
+package batch;
+
+import org.jdbi.v3.core.extension.HandleSupplier;
+import org.jdbi.v3.core.statement.Update;
+import org.jdbi.v3.sqlobject.Handler;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Runs @SqlMultiRowInsert methods.
+ *
+ * Only @Bind and @BindBean are honoured on the parameters,
+ * other statement customizing annotations are not applied to the rewritten statements.
+ */
+public class SqlMultiRowInsertHandler implements Handler {
+    private enum Role { BEAN, NAMED, POSITIONAL }
+
+    private final MultiRowInsert insert;
+    private final Method method;
+    private final List<Integer> rowParameters = new ArrayList<>();
+    private final List<Role> rowRoles = new ArrayList<>();
+    private final List<String> rowNames = new ArrayList<>();
+    private final List<Integer> constantParameters = new ArrayList<>();
+    private final List<String> constantNames = new ArrayList<>();
+
+    public SqlMultiRowInsertHandler(Class<?> sqlObjectType, Method method) {
+        this.method = method;
+        SqlMultiRowInsert annotation = method.getAnnotation(SqlMultiRowInsert.class);
+
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            Class<?> type = parameter.getType();
+            boolean iterated = Iterable.class.isAssignableFrom(type) || Iterator.class.isAssignableFrom(type) || type.isArray();
+
+            if (iterated) {
+                rowParameters.add(i);
+                if (parameter.isAnnotationPresent(BindBean.class)) {
+                    rowRoles.add(Role.BEAN);
+                    rowNames.add(parameter.getAnnotation(BindBean.class).value());
+                } else if (parameter.isAnnotationPresent(Bind.class)) {
+                    rowRoles.add(Role.NAMED);
+                    rowNames.add(bindName(parameter));
+                } else {
+                    rowRoles.add(Role.POSITIONAL);
+                    rowNames.add(null);
+                }
+            } else {
+                if (!parameter.isAnnotationPresent(Bind.class)) {
+                    throw new IllegalStateException("Constant parameter " + i + " of " + describe()
+                            + " needs @Bind, only the row parameters can be positional");
+                }
+                constantParameters.add(i);
+                constantNames.add(bindName(parameter));
+            }
+        }
+
+        if (rowParameters.isEmpty()) {
+            throw new IllegalStateException(describe() + " has no Iterable, Iterator or array parameter to insert");
+        }
+        if (method.getReturnType() != int[].class && method.getReturnType() != void.class) {
+            throw new IllegalStateException(describe() + " must return int[] or void");
+        }
+
+        this.insert = MultiRowInsert.of(annotation.value(), annotation.width(), new HashSet<>(constantNames));
+
+        boolean positionalRows = rowRoles.contains(Role.POSITIONAL);
+        if (positionalRows != insert.isPositional()
+                || (positionalRows && (rowRoles.size() != insert.getTupleParameters().size() || !constantNames.isEmpty()))) {
+            throw new IllegalStateException(describe() + ": positional SQL needs exactly one unannotated row parameter "
+                    + "per ?, and named SQL needs @Bind or @BindBean on every row parameter");
+        }
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args, HandleSupplier handleSupplier)
+    {
+        List<Iterator<?>> iterators = new ArrayList<>(rowParameters.size());
+        for (int index : rowParameters) {
+            iterators.add(iterator(args[index]));
+        }
+
+        int[] counts = insert.execute(handleSupplier.getHandle(), new Zip(iterators), this::bindRow,
+                update -> {
+                    for (int i = 0; i < constantParameters.size(); i++) {
+                        update.bind(constantNames.get(i), args[constantParameters.get(i)]);
+                    }
+                });
+
+        return method.getReturnType() == void.class ? null : counts;
+    }
+
+    private void bindRow(MultiRowInsert insert, Update update, int row, Object[] values)
+    {
+        for (int i = 0; i < values.length; i++) {
+            String name = rowNames.get(i);
+            switch (rowRoles.get(i)) {
+                case BEAN:
+                    update.bindBean(name.isEmpty() ? insert.rowPrefix(row) : insert.rowPrefix(row) + "." + name, values[i]);
+                    break;
+                case NAMED:
+                    update.bind(insert.rowPrefix(row) + "." + name, values[i]);
+                    break;
+                default:
+                    update.bind(insert.position(row, i), values[i]);
+            }
+        }
+    }
+
+    private String bindName(Parameter parameter)
+    {
+        String name = parameter.getAnnotation(Bind.class).value();
+        if (Bind.NO_VALUE.equals(name)) {
+            if (!parameter.isNamePresent()) {
+                throw new IllegalStateException("@Bind on " + describe()
+                        + " needs a name, or compile with -parameters");
+            }
+            return parameter.getName();
+        }
+        return name;
+    }
+
+    private String describe()
+    {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+
+    private static Iterator<?> iterator(Object value)
+    {
+        if (value instanceof Iterable) {
+            return ((Iterable<?>) value).iterator();
+        }
+        if (value instanceof Iterator) {
+            return (Iterator<?>) value;
+        }
+        return new Iterator<Object>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < Array.getLength(value);
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return Array.get(value, index++);
+            }
+        };
+    }
+
+    /**
+     * Walks the row parameters in lockstep, like @SqlBatch does.
+     */
+    private static class Zip implements Iterator<Object[]> {
+        private final List<Iterator<?>> iterators;
+
+        Zip(List<Iterator<?>> iterators) {
+            this.iterators = iterators;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean first = iterators.get(0).hasNext();
+            for (Iterator<?> iterator : iterators) {
+                if (iterator.hasNext() != first) {
+                    throw new IllegalArgumentException("The row parameters of a multi-row insert must have the same size");
+                }
+            }
+            return first;
+        }
+
+        @Override
+        public Object[] next() {
+            Object[] row = new Object[iterators.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = iterators.get(i).next();
+            }
+            return row;
+        }
+    }
+}
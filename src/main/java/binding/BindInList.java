@@ -0,0 +1,75 @@
+package binding;
+
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizerFactory;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizingAnnotation;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementParameterCustomizer;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binds a collection, iterable or array parameter of a SqlObject method with InLists:
+ *
+ *     @SqlQuery("select name from contacts where name in (<names>)")
+ *     List<String> findAll(@BindInList("names") List<String> names);
+ *
+ * With a column, {@code <names>} is the whole predicate, see InLists.bindIn():
+ *
+ *     @SqlQuery("select name from contacts where <names>")
+ *     List<String> findAll(@BindInList(value = "names", column = "name", elementType = String.class) List<String> names);
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+@SqlStatementCustomizingAnnotation(BindInList.Factory.class)
+public @interface BindInList {
+    String value();
+
+    String column() default "";
+
+    /**
+     * The element type of the SQL array long lists are bound as, when a column is given.
+     */
+    Class<?> elementType() default Object.class;
+
+    class Factory implements SqlStatementCustomizerFactory {
+        @Override
+        public SqlStatementParameterCustomizer createForParameter(Annotation annotation, Class<?> sqlObjectType,
+                                                                  Method method, Parameter param, int index, Type type)
+        {
+            BindInList bind = (BindInList) annotation;
+            String key = bind.value();
+            if (bind.column().isEmpty()) {
+                return (statement, arg) -> InLists.apply(statement, key, toCollection(arg));
+            }
+            return (statement, arg) -> InLists.apply(statement, key, bind.column(), bind.elementType(), toCollection(arg));
+        }
+
+        private static Collection<?> toCollection(Object arg)
+        {
+            if (arg instanceof Collection) {
+                return (Collection<?>) arg;
+            }
+            List<Object> values = new ArrayList<>();
+            if (arg instanceof Iterable) {
+                ((Iterable<?>) arg).forEach(values::add);
+            } else if (arg != null && arg.getClass().isArray()) {
+                for (int i = 0; i < Array.getLength(arg); i++) {
+                    values.add(Array.get(arg, i));
+                }
+            } else if (arg != null) {
+                throw new IllegalArgumentException("@BindInList needs a collection, iterable or array, was " + arg.getClass());
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package binding;
+
+import org.jdbi.v3.core.config.JdbiConfig;
+
+/**
+ * When InLists.bindIn switches from a padded list of parameters to a single array parameter.
+ */
+public class InListConfig implements JdbiConfig<InListConfig> {
+    private int arrayThreshold;
+
+    public InListConfig() {
+        arrayThreshold = Integer.MAX_VALUE;
+    }
+
+    private InListConfig(InListConfig that) {
+        this.arrayThreshold = that.arrayThreshold;
+    }
+
+    public int getArrayThreshold() {
+        return arrayThreshold;
+    }
+
+    /**
+     * Lists of at least this many values are bound as one SQL array, with = any(?).
+     * The database must support it (H2, PostgreSQL), and the element type needs a registered array type,
+     * see Jdbi.registerArrayType(). Off by default.
+     */
+    public InListConfig setArrayThreshold(int arrayThreshold) {
+        if (arrayThreshold < 1) {
+            throw new IllegalArgumentException("arrayThreshold must be at least 1, was " + arrayThreshold);
+        }
+        this.arrayThreshold = arrayThreshold;
+        return this;
+    }
+
+    @Override
+    public InListConfig createCopy()
+    {
+        return new InListConfig(this);
+    }
+}
@@ -0,0 +1,113 @@
+package binding;
+
+import org.jdbi.v3.core.statement.SqlStatement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binds IN lists so the SQL text only takes a few shapes, whatever the length of the lists.
+ *
+ * bindList() renders one parameter per value, so every list length is a different statement to the driver's
+ * and the database's statement caches, and each new length is parsed and planned again. Here lists are padded
+ * to the next power of two by repeating their last value, which does not change what IN matches:
+ * lists of 1 to 1000 values take 11 shapes instead of 1000.
+ *
+ *     Query query = handle.createQuery("select name from contacts where name in (<names>)");
+ *     List<String> found = InLists.bindList(query, "names", names).mapTo(String.class).list();
+ *
+ * bindIn() renders the whole predicate, which lets long lists switch to a single array parameter, see InListConfig:
+ *
+ *     Query query = handle.createQuery("select name from contacts where <names>");
+ *     InLists.bindIn(query, "names", "name", String.class, names);
+ *     -> where name in (:names_0, :names_1)   or   where name = any(:names)
+ */
+public final class InLists {
+    private InLists() {
+    }
+
+    /**
+     * The padded length of a list of the given size: the next power of two, at least 1.
+     */
+    public static int bucket(int size)
+    {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Like SqlStatement.bindList(key, values), with the values padded to bucket(size).
+     * An empty list renders (null), which matches nothing.
+     */
+    public static <S extends SqlStatement<S>> S bindList(S statement, String key, Collection<?> values)
+    {
+        apply(statement, key, values);
+        return statement;
+    }
+
+    public static <S extends SqlStatement<S>> S bindList(S statement, String key, Object... values)
+    {
+        return bindList(statement, key, Arrays.asList(values));
+    }
+
+    /**
+     * Defines {@code <key>} as the predicate "column in (...)" over the padded values,
+     * or as "column = any(:key)" with the values bound as an array of elementType,
+     * when there are at least InListConfig.arrayThreshold of them.
+     * An empty list renders 1 = 0.
+     */
+    public static <S extends SqlStatement<S>> S bindIn(S statement, String key, String column,
+                                                      Class<?> elementType, Collection<?> values)
+    {
+        apply(statement, key, column, elementType, values);
+        return statement;
+    }
+
+    static void apply(SqlStatement<?> statement, String key, Collection<?> values)
+    {
+        if (values.isEmpty()) {
+            statement.define(key, "null");
+            return;
+        }
+        statement.bindList(key, pad(values));
+    }
+
+    static void apply(SqlStatement<?> statement, String key, String column, Class<?> elementType, Collection<?> values)
+    {
+        if (values.isEmpty()) {
+            statement.define(key, "1 = 0");
+            return;
+        }
+        if (values.size() >= statement.getConfig(InListConfig.class).getArrayThreshold()) {
+            statement.define(key, column + " = any(:" + key + ")");
+            statement.bindArray(key, elementType, values);
+            return;
+        }
+
+        List<Object> padded = pad(values);
+        StringBuilder predicate = new StringBuilder(column.length() + padded.size() * (key.length() + 6));
+        predicate.append(column).append(" in (");
+        for (int i = 0; i < padded.size(); i++) {
+            String name = key + "_" + i;
+            if (i > 0) {
+                predicate.append(", ");
+            }
+            predicate.append(':').append(name);
+            statement.bind(name, padded.get(i));
+        }
+        statement.define(key, predicate.append(')').toString());
+    }
+
+    private static List<Object> pad(Collection<?> values)
+    {
+        int bucket = bucket(values.size());
+        List<Object> padded = new ArrayList<>(bucket);
+        padded.addAll(values);
+        Object last = padded.get(padded.size() - 1);
+        while (padded.size() < bucket) {
+            padded.add(last);
+        }
+        return padded;
+    }
+}
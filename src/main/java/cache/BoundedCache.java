@@ -0,0 +1,164 @@
+package cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A size bounded cache with hit, miss and eviction counters, least recently used by default,
+ * or with any other EvictionPolicy.
+ *
+ * The loader runs outside of the lock, so two threads missing the same key at once may both load it,
+ * the first value stored wins. That is fine for the plans and parsed statements cached here,
+ * which are pure functions of their key.
+ */
+public class BoundedCache<K, V> {
+    private final int maximumSize;
+    private final Map<K, V> entries = new HashMap<>();
+    private final EvictionPolicy<? super K> policy;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maximumSize) {
+        this(maximumSize, EvictionPolicy.lru());
+    }
+
+    /**
+     * @param policy a new policy, that is not shared with any other cache
+     */
+    public BoundedCache(int maximumSize, EvictionPolicy<? super K> policy) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1, was " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.policy = policy;
+    }
+
+    /**
+     * The cached value of the key, loading and storing it on a miss.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader)
+    {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        return putIfAbsent(key, loader.apply(key));
+    }
+
+    /**
+     * Stores the value unless the key is already cached, and returns the cached value.
+     */
+    public V putIfAbsent(K key, V value)
+    {
+        synchronized (entries) {
+            V cached = entries.putIfAbsent(key, value);
+            if (cached != null) {
+                return cached;
+            }
+            policy.onInsert(key);
+            if (entries.size() > maximumSize) {
+                //the policy only returns keys it was given
+                @SuppressWarnings("unchecked")
+                K victim = (K) policy.victim();
+                entries.remove(victim);
+                policy.onRemove(victim);
+                evictions.increment();
+            }
+            return value;
+        }
+    }
+
+    public V getIfPresent(K key)
+    {
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+            if (value != null) {
+                policy.onAccess(key);
+            }
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * The cached value of the key, without counting a hit or miss, or telling the eviction policy.
+     */
+    public V peek(K key)
+    {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    public void invalidate(K key)
+    {
+        synchronized (entries) {
+            if (entries.remove(key) != null) {
+                policy.onRemove(key);
+            }
+        }
+    }
+
+    public void invalidateAll()
+    {
+        synchronized (entries) {
+            entries.clear();
+            policy.clear();
+        }
+    }
+
+    public int size()
+    {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public EvictionPolicy<? super K> getPolicy() {
+        return policy;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate()
+    {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(BoundedCache size:" + size() +
+                ", maximumSize:" + maximumSize +
+                ", policy:" + policy +
+                ", hits:" + getHits() +
+                ", misses:" + getMisses() +
+                ", evictions:" + getEvictions() +
+                ")";
+    }
+}
@@ -0,0 +1,92 @@
+package cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hits and misses of the cached results of one SqlObject method.
+ * A miss is counted when the result was not cached, had expired, or was invalidated by a write to one of its tables.
+ */
+public class CacheStats {
+    private final String name;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    CacheStats(String name) {
+        this.name = name;
+    }
+
+    void recordHit()
+    {
+        hits.increment();
+    }
+
+    void recordMiss(boolean stale)
+    {
+        misses.increment();
+        if (stale) {
+            this.stale.increment();
+        }
+    }
+
+    void recordBypass()
+    {
+        bypassed.increment();
+    }
+
+    /**
+     * The SqlObject method as Type.method.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Misses on an entry that was cached, but expired or was invalidated.
+     */
+    public long getStale() {
+        return stale.sum();
+    }
+
+    /**
+     * Calls inside a transaction, which go to the database without reading or filling the cache.
+     */
+    public long getBypassed() {
+        return bypassed.sum();
+    }
+
+    public double getHitRate()
+    {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    void reset()
+    {
+        hits.reset();
+        misses.reset();
+        stale.reset();
+        bypassed.reset();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(CacheStats name:" + name +
+                ", hits:" + getHits() +
+                ", misses:" + getMisses() +
+                ", stale:" + getStale() +
+                ", bypassed:" + getBypassed() +
+                ")";
+    }
+}
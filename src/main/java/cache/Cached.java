@@ -0,0 +1,33 @@
+package cache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the results of a @SqlQuery method by its arguments, when the Jdbi has the ResultCachePlugin installed:
+ *
+ *     @SqlQuery("select name from users where id = ?")
+ *     @Cached(ttl = 10, unit = TimeUnit.MINUTES)
+ *     String getName(long id);
+ *
+ * The arguments are the key, so they must have equals() and hashCode().
+ * Cached results are shared between callers, collections are returned unmodifiable.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+    /**
+     * How long a result stays cached, -1 uses the default time to live of the ResultCache.
+     */
+    long ttl() default -1;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * The tables whose writes invalidate the results, by default the tables the query reads from.
+     */
+    String[] tables() default {};
+}
@@ -0,0 +1,35 @@
+package cache;
+
+import org.jdbi.v3.core.statement.DefinedAttributeTemplateEngine;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.core.statement.TemplateEngine;
+
+/**
+ * Renders each template once per combination of attribute values, through the TemplateEngine it wraps.
+ */
+class CachingTemplateEngine implements TemplateEngine {
+    private final TemplateEngine delegate;
+    private final TemplateCache cache;
+    private final boolean referencedOnly;
+
+    CachingTemplateEngine(TemplateEngine delegate, TemplateCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.referencedOnly = delegate instanceof DefinedAttributeTemplateEngine;
+    }
+
+    @Override
+    public String render(String template, StatementContext ctx)
+    {
+        TemplateCache.Key key = cache.key(template, ctx, referencedOnly);
+        TemplateCache.Rendered rendered = cache.get(key);
+        if (rendered != null) {
+            return rendered.sql;
+        }
+        return cache.put(key, delegate.render(template, ctx)).sql;
+    }
+
+    boolean isReferencedOnly() {
+        return referencedOnly;
+    }
+}
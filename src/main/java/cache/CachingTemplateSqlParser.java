@@ -0,0 +1,49 @@
+package cache;
+
+import org.jdbi.v3.core.statement.ParsedSql;
+import org.jdbi.v3.core.statement.SqlParser;
+import org.jdbi.v3.core.statement.StatementContext;
+
+/**
+ * Parses the parameters of a rendered template once, and keeps them with the rendered SQL in the TemplateCache.
+ *
+ * Jdbi parses right after rendering, with the template still in the StatementContext,
+ * so the entry is found by the same key, without hashing the rendered SQL.
+ */
+class CachingTemplateSqlParser implements SqlParser {
+    private final SqlParser delegate;
+    private final CachingTemplateEngine engine;
+    private final TemplateCache cache;
+
+    CachingTemplateSqlParser(SqlParser delegate, CachingTemplateEngine engine, TemplateCache cache) {
+        this.delegate = delegate;
+        this.engine = engine;
+        this.cache = cache;
+    }
+
+    @Override
+    public ParsedSql parse(String sql, StatementContext ctx)
+    {
+        String template = ctx.getRawSql();
+        if (template == null) {
+            return delegate.parse(sql, ctx);
+        }
+        TemplateCache.Rendered rendered = cache.peek(cache.key(template, ctx, engine.isReferencedOnly()));
+        //the SQL may not come from the template, e.g. for a statement rendered by another engine
+        if (rendered == null || !rendered.sql.equals(sql)) {
+            return delegate.parse(sql, ctx);
+        }
+        ParsedSql parsed = rendered.parsed;
+        if (parsed == null) {
+            parsed = delegate.parse(sql, ctx);
+            rendered.parsed = parsed;
+        }
+        return parsed;
+    }
+
+    @Override
+    public String nameParameter(String rawName, StatementContext ctx)
+    {
+        return delegate.nameParameter(rawName, ctx);
+    }
+}
@@ -0,0 +1,91 @@
+package cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Chooses the entry a BoundedCache evicts when it grows over its maximum size.
+ *
+ * The cache calls the policy under its lock, so an implementation needs no synchronization of its own,
+ * but it must be cheap: onAccess() runs on every hit.
+ */
+public interface EvictionPolicy<K> {
+    void onInsert(K key);
+
+    void onAccess(K key);
+
+    void onRemove(K key);
+
+    /**
+     * The key to evict, of those inserted and not removed.
+     */
+    K victim();
+
+    void clear();
+
+    /**
+     * Evicts the least recently used entry, the default.
+     */
+    static <K> EvictionPolicy<K> lru()
+    {
+        return new Ordered<>(true);
+    }
+
+    /**
+     * Evicts the entry inserted first, whether it is used or not.
+     * Hits cost less than with lru(), which suits caches that mostly hit.
+     */
+    static <K> EvictionPolicy<K> fifo()
+    {
+        return new Ordered<>(false);
+    }
+
+    final class Ordered<K> implements EvictionPolicy<K> {
+        private final boolean accessOrder;
+        private final LinkedHashMap<K, Boolean> order;
+
+        private Ordered(boolean accessOrder) {
+            this.accessOrder = accessOrder;
+            this.order = new LinkedHashMap<>(16, 0.75f, accessOrder);
+        }
+
+        @Override
+        public void onInsert(K key)
+        {
+            order.put(key, Boolean.TRUE);
+        }
+
+        @Override
+        public void onAccess(K key)
+        {
+            if (accessOrder) {
+                order.get(key);
+            }
+        }
+
+        @Override
+        public void onRemove(K key)
+        {
+            order.remove(key);
+        }
+
+        @Override
+        public K victim()
+        {
+            Iterator<K> keys = order.keySet().iterator();
+            return keys.hasNext() ? keys.next() : null;
+        }
+
+        @Override
+        public void clear()
+        {
+            order.clear();
+        }
+
+        @Override
+        public String toString()
+        {
+            return accessOrder ? "lru" : "fifo";
+        }
+    }
+}
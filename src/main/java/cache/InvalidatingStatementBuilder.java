@@ -0,0 +1,104 @@
+package cache;
+
+import org.jdbi.v3.core.statement.StatementBuilder;
+import org.jdbi.v3.core.statement.StatementBuilderFactory;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Wraps the StatementBuilder of every handle, to invalidate the tables written through plain Statements.
+ *
+ * handle.createBatch(), handle.createScript() and @SqlScript run their SQL through a plain Statement,
+ * and do not call the StatementCustomizers, so the TableInvalidator never sees those writes.
+ * Here the SQL added to the Statement is collected, and its tables invalidated once it is executed.
+ */
+class InvalidatingStatementBuilder implements StatementBuilder {
+    private final StatementBuilder delegate;
+    private final TableInvalidator invalidator;
+
+    InvalidatingStatementBuilder(StatementBuilder delegate, TableInvalidator invalidator) {
+        this.delegate = delegate;
+        this.invalidator = invalidator;
+    }
+
+    @Override
+    public Statement create(Connection conn, StatementContext ctx) throws SQLException
+    {
+        Statement statement = delegate.create(conn, ctx);
+        Set<String> written = new LinkedHashSet<>();
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (self, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("addBatch") && args != null && args.length == 1) {
+                        written.addAll(SqlTables.writes((String) args[0]));
+                    } else if (name.equals("clearBatch")) {
+                        written.clear();
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        //a failed batch may have written some of its rows
+                        if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                            invalidator.written(conn, written);
+                            written.clear();
+                        } else if (name.startsWith("execute") && args != null && args[0] instanceof String) {
+                            invalidator.written(conn, SqlTables.writes((String) args[0]));
+                        }
+                    }
+                });
+    }
+
+    @Override
+    public PreparedStatement create(Connection conn, String sql, StatementContext ctx) throws SQLException
+    {
+        return delegate.create(conn, sql, ctx);
+    }
+
+    @Override
+    public CallableStatement createCall(Connection conn, String sql, StatementContext ctx) throws SQLException
+    {
+        return delegate.createCall(conn, sql, ctx);
+    }
+
+    @Override
+    public void close(Connection conn, String sql, Statement stmt) throws SQLException
+    {
+        delegate.close(conn, sql, stmt);
+    }
+
+    @Override
+    public void close(Connection conn)
+    {
+        delegate.close(conn);
+    }
+
+    /**
+     * Wraps the builders of the Jdbi's StatementBuilderFactory.
+     */
+    static class Factory implements StatementBuilderFactory {
+        private final StatementBuilderFactory delegate;
+        private final TableInvalidator invalidator;
+
+        Factory(StatementBuilderFactory delegate, TableInvalidator invalidator) {
+            this.delegate = delegate;
+            this.invalidator = invalidator;
+        }
+
+        @Override
+        public StatementBuilder createStatementBuilder(Connection connection)
+        {
+            return new InvalidatingStatementBuilder(delegate.createStatementBuilder(connection), invalidator);
+        }
+    }
+}
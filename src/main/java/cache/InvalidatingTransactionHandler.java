@@ -0,0 +1,91 @@
+package cache;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.transaction.TransactionHandler;
+import org.jdbi.v3.core.transaction.TransactionIsolationLevel;
+
+import java.sql.SQLException;
+
+/**
+ * Wraps the Jdbi's TransactionHandler, to invalidate the tables written in a transaction once it ends.
+ */
+class InvalidatingTransactionHandler implements TransactionHandler {
+    private final TransactionHandler delegate;
+    private final TableInvalidator invalidator;
+
+    InvalidatingTransactionHandler(TransactionHandler delegate, TableInvalidator invalidator) {
+        this.delegate = delegate;
+        this.invalidator = invalidator;
+    }
+
+    @Override
+    public void begin(Handle handle)
+    {
+        delegate.begin(handle);
+    }
+
+    @Override
+    public void commit(Handle handle)
+    {
+        try {
+            delegate.commit(handle);
+        } finally {
+            invalidator.transactionEnded(handle.getConnection());
+        }
+    }
+
+    @Override
+    public void rollback(Handle handle)
+    {
+        try {
+            delegate.rollback(handle);
+        } finally {
+            invalidator.transactionEnded(handle.getConnection());
+        }
+    }
+
+    @Override
+    public boolean isInTransaction(Handle handle)
+    {
+        return delegate.isInTransaction(handle);
+    }
+
+    @Override
+    public void savepoint(Handle handle, String savepointName)
+    {
+        delegate.savepoint(handle, savepointName);
+    }
+
+    @Override
+    public void rollbackToSavepoint(Handle handle, String savepointName)
+    {
+        delegate.rollbackToSavepoint(handle, savepointName);
+    }
+
+    @Override
+    public void releaseSavepoint(Handle handle, String savepointName)
+    {
+        delegate.releaseSavepoint(handle, savepointName);
+    }
+
+    @Override
+    public <R, X extends Exception> R inTransaction(Handle handle, HandleCallback<R, X> callback) throws X
+    {
+        //the delegate commits or rolls back through handle.commit() and handle.rollback(), which come back here
+        return delegate.inTransaction(handle, callback);
+    }
+
+    @Override
+    public <R, X extends Exception> R inTransaction(Handle handle, TransactionIsolationLevel level,
+                                                    HandleCallback<R, X> callback) throws X
+    {
+        return delegate.inTransaction(handle, level, callback);
+    }
+
+    @Override
+    public TransactionHandler specialize(Handle handle) throws SQLException
+    {
+        return new InvalidatingTransactionHandler(delegate.specialize(handle), invalidator);
+    }
+}
@@ -0,0 +1,252 @@
+package cache;
+
+import org.jdbi.v3.core.Jdbi;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The results cached for @Cached SqlObject methods, by Jdbi, method and arguments, bounded in size and time.
+ * One cache may be shared by the plugins of several Jdbis, e.g. the primary and the replicas of a RoutingJdbi:
+ * each keeps its own results, and a write through any of them invalidates the results of all.
+ *
+ * Writes do not search the cache. Every table has a generation, which a write to the table increments,
+ * and a result is stored with the generations of its tables at the time its query started.
+ * A result whose tables moved on since is stale, and is reloaded the next time it is asked for.
+ * A write that commits while a query runs therefore never leaves the query's older result looking fresh.
+ *
+ * Only writes through the Jdbi the ResultCachePlugin is installed on are seen,
+ * the time to live bounds how long a write by anything else goes unnoticed.
+ */
+public class ResultCache {
+    private final BoundedCache<Key, Entry> entries;
+    private final long defaultTtlNanos;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    //incremented by every write, results of queries with unknown tables depend on it
+    private final AtomicLong anyWrite = new AtomicLong();
+    //incremented by invalidateAll(), every result depends on it
+    private final AtomicLong all = new AtomicLong();
+    private final Map<String, CacheStats> stats = new ConcurrentHashMap<>();
+
+    public ResultCache() {
+        this(10_000, Duration.ofMinutes(5));
+    }
+
+    public ResultCache(int maximumSize, Duration defaultTtl) {
+        if (defaultTtl.isNegative() || defaultTtl.isZero()) {
+            throw new IllegalArgumentException("defaultTtl must be positive, was " + defaultTtl);
+        }
+        this.entries = new BoundedCache<>(maximumSize);
+        this.defaultTtlNanos = defaultTtl.toNanos();
+    }
+
+    public Duration getDefaultTtl() {
+        return Duration.ofNanos(defaultTtlNanos);
+    }
+
+    /**
+     * Marks the cached results that read from the tables as stale.
+     */
+    public void invalidate(Collection<String> tables)
+    {
+        if (tables.isEmpty()) {
+            return;
+        }
+        if (tables.contains(SqlTables.ALL.iterator().next())) {
+            invalidateAll();
+            return;
+        }
+        for (String table : tables) {
+            generation(table.toLowerCase()).incrementAndGet();
+        }
+        anyWrite.incrementAndGet();
+    }
+
+    public void invalidateAll()
+    {
+        all.incrementAndGet();
+        anyWrite.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    /**
+     * The stats of a SqlObject method, named Type.method, or null if it was never called.
+     */
+    public CacheStats getStats(String method)
+    {
+        return stats.get(method);
+    }
+
+    /**
+     * The stats of every cached method, most calls first.
+     */
+    public List<CacheStats> getStats()
+    {
+        List<CacheStats> sorted = new ArrayList<>(stats.values());
+        sorted.sort(Comparator.comparingLong((CacheStats s) -> s.getHits() + s.getMisses()).reversed());
+        return sorted;
+    }
+
+    public void resetStats()
+    {
+        stats.values().forEach(CacheStats::reset);
+    }
+
+    /**
+     * The number of results cached, including stale ones not asked for since, and the evictions by size.
+     */
+    public BoundedCache<?, ?> getEntries() {
+        return entries;
+    }
+
+    /**
+     * A table of hits, misses and hit rates per method.
+     */
+    public String report()
+    {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%10s %10s %10s %10s %8s  %s%n", "hits", "misses", "stale", "bypassed", "hit %", "method"));
+        for (CacheStats method : getStats()) {
+            report.append(String.format("%10d %10d %10d %10d %8.1f  %s%n",
+                    method.getHits(), method.getMisses(), method.getStale(), method.getBypassed(),
+                    method.getHitRate() * 100, method.getName()));
+        }
+        report.append(entries).append(String.format("%n"));
+        return report.toString();
+    }
+
+    CacheStats stats(String name)
+    {
+        return stats.computeIfAbsent(name, CacheStats::new);
+    }
+
+    /**
+     * The cached result of the method call on the Jdbi, loading it on a miss.
+     *
+     * @param tables the tables the result depends on, empty if unknown
+     * @param ttlNanos -1 for the default time to live
+     */
+    Object get(Jdbi jdbi, Method method, Object[] args, String[] tables, long ttlNanos, CacheStats stats,
+               Supplier<Object> loader)
+    {
+        Key key = new Key(jdbi, method, args);
+        long now = System.nanoTime();
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null) {
+            if (entry.isFresh(this, now)) {
+                stats.recordHit();
+                return entry.value;
+            }
+            entries.invalidate(key);
+        }
+        stats.recordMiss(entry != null);
+
+        //the generations before the query, so a write while it runs leaves the result stale
+        long loadedAll = all.get();
+        long[] loadedGenerations = generations(tables);
+        Object value = loader.get();
+        long ttl = ttlNanos < 0 ? defaultTtlNanos : ttlNanos;
+        entries.putIfAbsent(key, new Entry(value, tables, loadedAll, loadedGenerations, now + ttl));
+        return value;
+    }
+
+    private long[] generations(String[] tables)
+    {
+        if (tables.length == 0) {
+            return new long[] {anyWrite.get()};
+        }
+        long[] loaded = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            loaded[i] = generation(tables[i]).get();
+        }
+        return loaded;
+    }
+
+    private AtomicLong generation(String table)
+    {
+        return generations.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(ResultCache entries:" + entries +
+                ", defaultTtl:" + getDefaultTtl() +
+                ", tables:" + generations.keySet() +
+                ")";
+    }
+
+    private static final class Key {
+        private final Jdbi jdbi;
+        private final Method method;
+        private final Object[] args;
+        private final int hash;
+
+        Key(Jdbi jdbi, Method method, Object[] args) {
+            this.jdbi = jdbi;
+            this.method = method;
+            this.args = args == null ? new Object[0] : args.clone();
+            this.hash = 31 * (31 * System.identityHashCode(jdbi) + method.hashCode()) + Arrays.deepHashCode(this.args);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return jdbi == that.jdbi && method.equals(that.method) && Arrays.deepEquals(args, that.args);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final String[] tables;
+        private final long all;
+        private final long[] generations;
+        private final long expiresAtNanos;
+
+        Entry(Object value, String[] tables, long all, long[] generations, long expiresAtNanos) {
+            this.value = value;
+            this.tables = tables;
+            this.all = all;
+            this.generations = generations;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isFresh(ResultCache cache, long now)
+        {
+            if (now - expiresAtNanos >= 0 || cache.all.get() != all) {
+                return false;
+            }
+            if (tables.length == 0) {
+                return cache.anyWrite.get() == generations[0];
+            }
+            for (int i = 0; i < tables.length; i++) {
+                if (cache.generation(tables[i]).get() != generations[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
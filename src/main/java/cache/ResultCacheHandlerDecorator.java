@@ -0,0 +1,96 @@
+package cache;
+
+import org.jdbi.v3.core.result.ResultIterable;
+import org.jdbi.v3.sqlobject.Handler;
+import org.jdbi.v3.sqlobject.HandlerDecorator;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.BaseStream;
+
+/**
+ * Serves @Cached @SqlQuery methods from the ResultCache.
+ *
+ * Calls on a handle inside a transaction bypass the cache, so a result is never read from,
+ * or stored into, the cache while it may depend on writes that are not committed yet.
+ */
+class ResultCacheHandlerDecorator implements HandlerDecorator {
+    private final ResultCache cache;
+
+    ResultCacheHandlerDecorator(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Handler decorateHandler(Handler base, Class<?> sqlObjectType, Method method)
+    {
+        Cached cached = method.getAnnotation(Cached.class);
+        if (cached == null) {
+            return base;
+        }
+        SqlQuery query = method.getAnnotation(SqlQuery.class);
+        if (query == null) {
+            throw new IllegalArgumentException("@Cached needs a @SqlQuery method: " + method);
+        }
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class || BaseStream.class.isAssignableFrom(returnType)
+                || Iterator.class.isAssignableFrom(returnType) || ResultIterable.class.isAssignableFrom(returnType)) {
+            throw new IllegalArgumentException("@Cached cannot cache a result held open on the database: " + method);
+        }
+
+        String name = sqlObjectType.getSimpleName() + "." + method.getName();
+        String[] tables = cached.tables().length > 0
+                ? lowerCase(cached.tables())
+                : SqlTables.reads(query.value()).toArray(new String[0]);
+        long ttlNanos = cached.ttl() < 0 ? -1 : cached.unit().toNanos(cached.ttl());
+
+        return (target, args, handle) -> {
+            CacheStats stats = cache.stats(name);
+            if (handle.getHandle().isInTransaction()) {
+                stats.recordBypass();
+                return base.invoke(target, args, handle);
+            }
+            return cache.get(handle.getJdbi(), method, args, tables, ttlNanos, stats, () -> {
+                try {
+                    return unmodifiable(returnType, base.invoke(target, args, handle));
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        };
+    }
+
+    private static String[] lowerCase(String[] tables)
+    {
+        String[] lower = new String[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            lower[i] = tables[i].toLowerCase();
+        }
+        return lower;
+    }
+
+    private static Object unmodifiable(Class<?> returnType, Object result)
+    {
+        if (returnType == List.class) {
+            return Collections.unmodifiableList((List<?>) result);
+        }
+        if (returnType == Set.class) {
+            return Collections.unmodifiableSet((Set<?>) result);
+        }
+        if (returnType == Map.class) {
+            return Collections.unmodifiableMap((Map<?, ?>) result);
+        }
+        if (returnType == Collection.class) {
+            return Collections.unmodifiableCollection((Collection<?>) result);
+        }
+        return result;
+    }
+}
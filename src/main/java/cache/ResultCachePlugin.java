@@ -0,0 +1,45 @@
+package cache;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.spi.JdbiPlugin;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.sqlobject.HandlerDecorators;
+
+/**
+ * Serves @Cached SqlObject query methods from a ResultCache, and invalidates their results
+ * when a statement run through the Jdbi, a batch, a script or @SqlScript included, writes to a table they read:
+ *
+ *     ResultCache cache = new ResultCache(10_000, Duration.ofMinutes(5));
+ *     jdbi.installPlugin(new ResultCachePlugin(cache));
+ *     ...
+ *     System.out.println(cache.report());
+ *
+ * Install it after setting the TransactionHandler and the StatementBuilderFactory, which it wraps,
+ * and before the first SqlObject is attached, as SqlObject handlers are decorated when they are built.
+ */
+public class ResultCachePlugin implements JdbiPlugin {
+    private final ResultCache cache;
+
+    public ResultCachePlugin() {
+        this(new ResultCache());
+    }
+
+    public ResultCachePlugin(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void customizeJdbi(Jdbi jdbi)
+    {
+        TableInvalidator invalidator = new TableInvalidator(cache);
+        jdbi.getConfig(SqlStatements.class).addCustomizer(invalidator);
+        jdbi.setStatementBuilderFactory(
+                new InvalidatingStatementBuilder.Factory(jdbi.getStatementBuilderFactory(), invalidator));
+        jdbi.setTransactionHandler(new InvalidatingTransactionHandler(jdbi.getTransactionHandler(), invalidator));
+        jdbi.getConfig(HandlerDecorators.class).register(new ResultCacheHandlerDecorator(cache));
+    }
+
+    public ResultCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,122 @@
+package cache;
+
+import metrics.SqlFingerprint;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the tables a statement reads or writes, well enough to invalidate cached results:
+ *
+ *     select ... from users u join roles r on ...  -> reads users, roles
+ *     update users set ...                         -> writes users
+ *
+ * Names are lower cased, without quotes or schema. A statement that may write to tables it does not name,
+ * a call to a procedure, writes ALL. Statements are parsed once, the result is cached by SQL text.
+ */
+public final class SqlTables {
+    /**
+     * Stands for every table, written by statements whose targets are unknown.
+     */
+    public static final Set<String> ALL = Collections.singleton("*");
+
+    private static final String NAME = "((?:\"[^\"]+\"|[\\w$]+)(?:\\.(?:\"[^\"]+\"|[\\w$]+))*)";
+    private static final Pattern READ = Pattern.compile("\\b(?:from|join)\\s+" + NAME);
+    //the next table of a comma separated from list, after the alias of the previous one
+    private static final Pattern NEXT = Pattern.compile("\\G(?:\\s+(?:as\\s+)?[\\w$]+)?\\s*,\\s*" + NAME);
+    private static final Pattern WRITE = Pattern.compile(
+            "^(?:insert\\s+(?:ignore\\s+)?into|replace\\s+into|merge\\s+into|upsert\\s+into|update|delete\\s+from|delete|" +
+                    "truncate\\s+table|truncate|(?:create|drop|alter)\\s+(?:\\w+\\s+)*?table(?:\\s+if\\s+(?:not\\s+)?exists)?)\\s+" + NAME);
+    private static final Pattern INDEX = Pattern.compile("^(?:create|drop|alter)\\b.*?\\bindex\\b.*?\\bon\\s+" + NAME);
+
+    private static final BoundedCache<String, Set<String>> READS = new BoundedCache<>(10_000);
+    private static final BoundedCache<String, Set<String>> WRITES = new BoundedCache<>(10_000);
+
+    private SqlTables() {
+    }
+
+    /**
+     * The tables named after from or join, empty if there are none.
+     */
+    public static Set<String> reads(String sql)
+    {
+        return READS.get(sql, SqlTables::parseReads);
+    }
+
+    /**
+     * The tables the statement writes: empty for queries and statements that change no rows, ALL if unknown.
+     */
+    public static Set<String> writes(String sql)
+    {
+        return WRITES.get(sql, SqlTables::parseWrites);
+    }
+
+    private static Set<String> parseReads(String sql)
+    {
+        Set<String> tables = new LinkedHashSet<>();
+        String statement = SqlFingerprint.of(sql);
+        Matcher matcher = READ.matcher(statement);
+        Matcher next = NEXT.matcher(statement);
+        while (matcher.find()) {
+            //from ( select ... is a subquery, its own from is found next
+            tables.add(tableName(matcher.group(1)));
+            next.region(matcher.end(), statement.length());
+            while (next.find()) {
+                tables.add(tableName(next.group(1)));
+                next.region(next.end(), statement.length());
+            }
+        }
+        return Collections.unmodifiableSet(tables);
+    }
+
+    private static Set<String> parseWrites(String sql)
+    {
+        String statement = SqlFingerprint.of(sql).trim();
+        String keyword = statement.split("[\\s(]", 2)[0];
+        switch (keyword) {
+            case "insert":
+            case "replace":
+            case "merge":
+            case "upsert":
+            case "update":
+            case "delete":
+            case "truncate": {
+                Matcher matcher = WRITE.matcher(statement);
+                return matcher.find() ? Collections.singleton(tableName(matcher.group(1))) : ALL;
+            }
+            case "create":
+            case "drop":
+            case "alter": {
+                Matcher matcher = WRITE.matcher(statement);
+                if (matcher.find()) {
+                    return Collections.singleton(tableName(matcher.group(1)));
+                }
+                matcher = INDEX.matcher(statement);
+                //sequences, aliases, users and the like hold no rows
+                return matcher.find() ? Collections.singleton(tableName(matcher.group(1))) : Collections.emptySet();
+            }
+            case "call":
+            case "exec":
+            case "execute":
+            case "do":
+            case "{call":
+            case "{?":
+                return ALL;
+            default:
+                //select, with, values, set, show, explain, transaction control
+                return Collections.emptySet();
+        }
+    }
+
+    private static String tableName(String name)
+    {
+        String table = name.substring(name.lastIndexOf('.') + 1);
+        if (table.startsWith("\"")) {
+            table = table.substring(1, table.length() - 1);
+        }
+        return table.toLowerCase();
+    }
+}
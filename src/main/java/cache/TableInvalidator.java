@@ -0,0 +1,61 @@
+package cache;
+
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.core.statement.StatementCustomizer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Invalidates the tables written by the prepared statements run through the Jdbi, SqlObject or not.
+ * Batches and scripts do not call StatementCustomizers, their writes are reported by the InvalidatingStatementBuilder.
+ *
+ * A write inside a transaction invalidates its tables right away, and again when the transaction commits or rolls back:
+ * until then other handles still read the old rows, and may cache them under the new generation.
+ */
+class TableInvalidator implements StatementCustomizer {
+    private final ResultCache cache;
+    private final Map<Connection, Set<String>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    TableInvalidator(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void afterExecution(PreparedStatement statement, StatementContext ctx) throws SQLException
+    {
+        written(ctx.getConnection(), SqlTables.writes(ctx.getRenderedSql()));
+    }
+
+    /**
+     * Invalidates the tables a statement on the connection wrote to.
+     */
+    void written(Connection connection, Set<String> tables) throws SQLException
+    {
+        if (tables.isEmpty()) {
+            return;
+        }
+        cache.invalidate(tables);
+
+        if (!connection.getAutoCommit()) {
+            pending.computeIfAbsent(connection, c -> new HashSet<>()).addAll(tables);
+        }
+    }
+
+    /**
+     * Invalidates the tables written in the transaction that just ended on the connection.
+     */
+    void transactionEnded(Connection connection)
+    {
+        Set<String> tables = pending.remove(connection);
+        if (tables != null) {
+            cache.invalidate(tables);
+        }
+    }
+}
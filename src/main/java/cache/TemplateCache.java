@@ -0,0 +1,158 @@
+package cache;
+
+import org.jdbi.v3.core.statement.ParsedSql;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The rendered SQL and parsed parameters of templates, by template and the values of the attributes it uses:
+ *
+ *     select * from <TABLE> where name = :<attr>   with TABLE=contact, attr=name
+ *     -> select * from contact where name = :name  and its parameter name
+ *
+ * With the default template engine only the attributes the template references are part of the key,
+ * so statements that define more attributes than they use still share an entry.
+ * With any other engine every attribute is.
+ */
+public class TemplateCache {
+    private static final Pattern ATTRIBUTE = Pattern.compile("<(\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*)>");
+
+    private final BoundedCache<Key, Rendered> entries;
+    private final BoundedCache<String, String[]> attributeNames;
+
+    public TemplateCache() {
+        this(10_000, EvictionPolicy.lru());
+    }
+
+    /**
+     * @param policy a new policy, e.g. EvictionPolicy.fifo(), that is not shared with any other cache
+     */
+    public TemplateCache(int maximumSize, EvictionPolicy<Object> policy) {
+        this.entries = new BoundedCache<>(maximumSize, policy);
+        this.attributeNames = new BoundedCache<>(maximumSize);
+    }
+
+    /**
+     * The rendered templates, with their hit rate and evictions.
+     */
+    public BoundedCache<?, ?> getEntries() {
+        return entries;
+    }
+
+    public double getHitRate()
+    {
+        return entries.getHitRate();
+    }
+
+    public void invalidateAll()
+    {
+        entries.invalidateAll();
+        attributeNames.invalidateAll();
+    }
+
+    /**
+     * @param referencedOnly whether only the <name> attributes of the template make the key
+     */
+    Key key(String template, StatementContext ctx, boolean referencedOnly)
+    {
+        Map<String, Object> attributes = ctx.getAttributes();
+        if (!referencedOnly) {
+            return new Key(template, new Object[] {new HashMap<>(attributes)});
+        }
+        String[] names = attributeNames.get(template, TemplateCache::referencedAttributes);
+        Object[] values = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Object value = attributes.get(names[i]);
+            //the engine renders String.valueOf(value)
+            values[i] = value == null ? null : String.valueOf(value);
+        }
+        return new Key(template, values);
+    }
+
+    Rendered get(Key key)
+    {
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * The entry of the key without counting a hit, for the parser that runs after the template was rendered.
+     */
+    Rendered peek(Key key)
+    {
+        return entries.peek(key);
+    }
+
+    Rendered put(Key key, String sql)
+    {
+        return entries.putIfAbsent(key, new Rendered(sql));
+    }
+
+    /**
+     * The names in <name> outside of any escape or quote handling, a superset of what the engine renders,
+     * which at worst makes keys more specific than they need to be.
+     */
+    private static String[] referencedAttributes(String template)
+    {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = ATTRIBUTE.matcher(template);
+        while (matcher.find()) {
+            if (!names.contains(matcher.group(1))) {
+                names.add(matcher.group(1));
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(TemplateCache entries:" + entries + ")";
+    }
+
+    static final class Key {
+        private final String template;
+        private final Object[] values;
+        private final int hash;
+
+        Key(String template, Object[] values) {
+            this.template = template;
+            this.values = values;
+            this.hash = 31 * template.hashCode() + Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash && template.equals(that.template) && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+
+    static final class Rendered {
+        final String sql;
+        volatile ParsedSql parsed;
+
+        Rendered(String sql) {
+            this.sql = sql;
+        }
+    }
+}
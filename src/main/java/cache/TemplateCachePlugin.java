@@ -0,0 +1,38 @@
+package cache;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.spi.JdbiPlugin;
+import org.jdbi.v3.core.statement.SqlStatements;
+
+/**
+ * Caches rendered templates and their parsed parameters, for statements whose SQL is built with define():
+ *
+ *     TemplateCache cache = new TemplateCache(10_000, EvictionPolicy.lru());
+ *     jdbi.installPlugin(new TemplateCachePlugin(cache));
+ *
+ * The plugin wraps the TemplateEngine and SqlParser configured at install time, so install it after changing them.
+ */
+public class TemplateCachePlugin implements JdbiPlugin {
+    private final TemplateCache cache;
+
+    public TemplateCachePlugin() {
+        this(new TemplateCache());
+    }
+
+    public TemplateCachePlugin(TemplateCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void customizeJdbi(Jdbi jdbi)
+    {
+        SqlStatements statements = jdbi.getConfig(SqlStatements.class);
+        CachingTemplateEngine engine = new CachingTemplateEngine(statements.getTemplateEngine(), cache);
+        statements.setTemplateEngine(engine);
+        statements.setSqlParser(new CachingTemplateSqlParser(statements.getSqlParser(), engine, cache));
+    }
+
+    public TemplateCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,48 @@
+package collect;
+
+/**
+ * Table sizing and hashing shared by the open addressing maps of this package.
+ */
+final class Hashing {
+    private Hashing() {
+    }
+
+    /**
+     * The power of two table size that holds expectedSize mappings without a resize.
+     */
+    static int capacity(int expectedSize)
+    {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative, was " + expectedSize);
+        }
+        long needed = Math.max(4, (long) expectedSize * 4 / 3 + 1);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed * 2 - 1);
+    }
+
+    //The tables are resized once they are three quarters full
+    static int threshold(int capacity)
+    {
+        return capacity - (capacity >>> 2);
+    }
+
+    /*
+    Ids are mostly dense and ascending. Fibonacci hashing of the whole key would scatter them over the table,
+    one cache miss per insert, so keys are hashed in blocks of 8:
+    the block number is spread by Fibonacci hashing, and consecutive keys stay next to each other inside their block.
+    Strided keys still land in different blocks, which keeps the probe runs short.
+     */
+    static int hash(long key)
+    {
+        long h = (key >>> 3) * 0x9E3779B97F4A7C15L;
+        return ((int) (h ^ (h >>> 32)) << 3) | (int) (key & 7);
+    }
+
+    static int hash(int key)
+    {
+        int h = (key >>> 3) * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) << 3) | (key & 7);
+    }
+}
@@ -0,0 +1,138 @@
+package collect;
+
+/**
+ * A hash map from primitive int keys to primitive int values, with open addressing and linear probing.
+ *
+ * Key 0 marks an empty slot in the table, so a mapping for key 0 is kept in a field of its own.
+ */
+public class IntIntMap {
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int threshold;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize) {
+        int capacity = Hashing.capacity(expectedSize);
+        keys = new int[capacity];
+        values = new int[capacity];
+        threshold = Hashing.threshold(capacity);
+    }
+
+    /**
+     * @return the value of the key, or defaultValue when the key is not mapped
+     */
+    public int get(int key, int defaultValue)
+    {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int mask = keys.length - 1;
+        for (int i = Hashing.hash(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return defaultValue;
+    }
+
+    public void put(int key, int value)
+    {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int i = Hashing.hash(key) & mask;
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            resize();
+        }
+    }
+
+    public boolean containsKey(int key)
+    {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int mask = keys.length - 1;
+        for (int i = Hashing.hash(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits the mappings in table order, which is not the insertion order.
+     */
+    public void forEach(EntryConsumer consumer)
+    {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void resize()
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        threshold = Hashing.threshold(keys.length);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = Hashing.hash(oldKeys[j]) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder s = new StringBuilder("{");
+        forEach((key, value) -> s.append(s.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return s.append('}').toString();
+    }
+}
@@ -0,0 +1,77 @@
+package collect;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A growable list of primitive ints, 4 bytes per element instead of a reference and an Integer.
+ */
+public class IntList {
+    private int[] elements;
+    private int size;
+
+    public IntList() {
+        this(16);
+    }
+
+    public IntList(int initialCapacity) {
+        elements = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(int element)
+    {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = element;
+    }
+
+    public void addAll(IntList other)
+    {
+        if (size + other.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(elements.length * 2, size + other.size));
+        }
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    public int get(int index)
+    {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return elements[index];
+    }
+
+    public void forEach(IntConsumer consumer)
+    {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(elements[i]);
+        }
+    }
+
+    public IntStream stream()
+    {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    public int[] toArray()
+    {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,123 @@
+package collect;
+
+/**
+ * A hash map from primitive int keys to objects, with open addressing and linear probing.
+ *
+ * A HashMap<Integer, V> keeps an Integer and a 32 byte node per mapping on top of its table.
+ * This map keeps one int and one reference per slot, which is less than half the heap for large id tables.
+ * Values must not be null, a null value marks an empty slot.
+ */
+public class IntObjectMap<V> {
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int threshold;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        int capacity = Hashing.capacity(expectedSize);
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = Hashing.threshold(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key)
+    {
+        int mask = keys.length - 1;
+        for (int i = Hashing.hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the previous value of the key, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        int mask = keys.length - 1;
+        int i = Hashing.hash(key) & mask;
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            resize();
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key)
+    {
+        return get(key) != null;
+    }
+
+    /**
+     * Visits the mappings in table order, which is not the insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer)
+    {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void resize()
+    {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        threshold = Hashing.threshold(keys.length);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = Hashing.hash(oldKeys[j]) & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder s = new StringBuilder("{");
+        forEach((key, value) -> s.append(s.length() > 1 ? ", " : "").append(key).append('=').append(value));
+        return s.append('}').toString();
+    }
+}
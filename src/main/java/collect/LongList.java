@@ -0,0 +1,77 @@
+package collect;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * A growable list of primitive longs, 8 bytes per element instead of a reference and a Long.
+ */
+public class LongList {
+    private long[] elements;
+    private int size;
+
+    public LongList() {
+        this(16);
+    }
+
+    public LongList(int initialCapacity) {
+        elements = new long[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(long element)
+    {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = element;
+    }
+
+    public void addAll(LongList other)
+    {
+        if (size + other.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(elements.length * 2, size + other.size));
+        }
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    public long get(int index)
+    {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return elements[index];
+    }
+
+    public void forEach(LongConsumer consumer)
+    {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(elements[i]);
+        }
+    }
+
+    public LongStream stream()
+    {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    public long[] toArray()
+    {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(toArray());
+    }
+}
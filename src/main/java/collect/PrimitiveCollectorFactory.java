@@ -0,0 +1,171 @@
+package collect;
+
+import org.jdbi.v3.core.collector.CollectorFactory;
+import org.jdbi.v3.core.generic.GenericTypes;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collector;
+
+/**
+ * Lets collectInto() and SqlObject methods return the primitive collections of this package:
+ *
+ *     jdbi.registerCollector(new PrimitiveCollectorFactory());
+ *     IntObjectMap<User> users = handle.createQuery("select * from user")
+ *             .setMapKeyColumn("id")
+ *             .collectInto(new GenericType<IntObjectMap<User>>() {});
+ *
+ * or @RegisterCollectorFactory(PrimitiveCollectorFactory.class) and @KeyColumn("id") on a SqlObject method.
+ *
+ * The maps are filled from Map.Entry rows, so the key and value columns are configured like for a Map,
+ * with setMapKeyColumn() / setMapValueColumn() or @KeyColumn / @ValueColumn.
+ * Jdbi still boxes the key of each row, but the box dies young: the collection keeps only primitives.
+ * PrimitiveScanners reads the keys straight from the ResultSet and does not box at all.
+ *
+ * Like the Map collectors of Jdbi, a key that shows up twice is an error.
+ */
+public class PrimitiveCollectorFactory implements CollectorFactory {
+
+    @Override
+    public boolean accepts(Type containerType)
+    {
+        Class<?> erased = GenericTypes.getErasedType(containerType);
+        return erased == IntList.class || erased == LongList.class || erased == IntIntMap.class
+                || erased == IntObjectMap.class || erased == LongObjectMap.class;
+    }
+
+    @Override
+    public Optional<Type> elementType(Type containerType)
+    {
+        Class<?> erased = GenericTypes.getErasedType(containerType);
+        if (erased == IntList.class) {
+            return Optional.of(Integer.class);
+        }
+        if (erased == LongList.class) {
+            return Optional.of(Long.class);
+        }
+        if (erased == IntIntMap.class) {
+            return Optional.of(GenericTypes.parameterizeClass(Map.Entry.class, Integer.class, Integer.class));
+        }
+        if (erased == IntObjectMap.class) {
+            return GenericTypes.findGenericParameter(containerType, IntObjectMap.class)
+                    .map(value -> GenericTypes.parameterizeClass(Map.Entry.class, Integer.class, value));
+        }
+        if (erased == LongObjectMap.class) {
+            return GenericTypes.findGenericParameter(containerType, LongObjectMap.class)
+                    .map(value -> GenericTypes.parameterizeClass(Map.Entry.class, Long.class, value));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Collector<?, ?, ?> build(Type containerType)
+    {
+        Class<?> erased = GenericTypes.getErasedType(containerType);
+        if (erased == IntList.class) {
+            return intList();
+        }
+        if (erased == LongList.class) {
+            return longList();
+        }
+        if (erased == IntIntMap.class) {
+            return intIntMap();
+        }
+        if (erased == IntObjectMap.class) {
+            return intObjectMap();
+        }
+        if (erased == LongObjectMap.class) {
+            return longObjectMap();
+        }
+        throw new IllegalArgumentException("Not a primitive collection: " + containerType);
+    }
+
+    public static Collector<Integer, ?, IntList> intList()
+    {
+        return Collector.of(IntList::new,
+                (list, element) -> list.add(notNull(element, "IntList element")),
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                });
+    }
+
+    public static Collector<Long, ?, LongList> longList()
+    {
+        return Collector.of(LongList::new,
+                (list, element) -> list.add(notNull(element, "LongList element")),
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                });
+    }
+
+    public static Collector<Map.Entry<Integer, Integer>, ?, IntIntMap> intIntMap()
+    {
+        return Collector.of(IntIntMap::new,
+                (map, entry) -> putUnique(map, notNull(entry.getKey(), "IntIntMap key"),
+                        notNull(entry.getValue(), "IntIntMap value")),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                });
+    }
+
+    public static <V> Collector<Map.Entry<Integer, V>, ?, IntObjectMap<V>> intObjectMap()
+    {
+        return Collector.of(IntObjectMap::new,
+                (map, entry) -> putUnique(map, notNull(entry.getKey(), "IntObjectMap key"), entry.getValue()),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                });
+    }
+
+    public static <V> Collector<Map.Entry<Long, V>, ?, LongObjectMap<V>> longObjectMap()
+    {
+        return Collector.of(LongObjectMap::new,
+                (map, entry) -> putUnique(map, notNull(entry.getKey(), "LongObjectMap key"), entry.getValue()),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                });
+    }
+
+    static void putUnique(IntIntMap map, int key, int value)
+    {
+        if (map.containsKey(key)) {
+            throw duplicateKey(key, map.get(key, 0), value);
+        }
+        map.put(key, value);
+    }
+
+    static <V> void putUnique(IntObjectMap<V> map, int key, V value)
+    {
+        V previous = map.put(key, value);
+        if (previous != null) {
+            throw duplicateKey(key, previous, value);
+        }
+    }
+
+    static <V> void putUnique(LongObjectMap<V> map, long key, V value)
+    {
+        V previous = map.put(key, value);
+        if (previous != null) {
+            throw duplicateKey(key, previous, value);
+        }
+    }
+
+    static <T> T notNull(T value, String what)
+    {
+        if (value == null) {
+            throw new IllegalStateException(what + " is null, primitive collections cannot hold SQL NULL");
+        }
+        return value;
+    }
+
+    private static IllegalStateException duplicateKey(Object key, Object previous, Object value)
+    {
+        return new IllegalStateException("Multiple values for key '" + key + "': ['" + previous + "','" + value + "',...]");
+    }
+}
@@ -0,0 +1,132 @@
+package collect;
+
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.result.ResultSetScanner;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fills the primitive collections of this package straight from the ResultSet, with getInt() / getLong():
+ *
+ *     IntObjectMap<User> users = handle.createQuery("select * from user")
+ *             .scanResultSet(PrimitiveScanners.intObjectMap("id", ConstructorMapper.of(User.class)));
+ *
+ * Unlike collectInto() with the PrimitiveCollectorFactory, no Integer key and no Map.Entry is created per row.
+ * SQL NULL in a key or list column is an error, and so is a key that shows up twice.
+ */
+public final class PrimitiveScanners {
+    private PrimitiveScanners() {
+    }
+
+    public static ResultSetScanner<IntList> intList(String column)
+    {
+        return (supplier, ctx) -> {
+            try {
+                ResultSet rs = supplier.get();
+                int index = rs.findColumn(column);
+                IntList list = new IntList();
+                while (rs.next()) {
+                    list.add(rs.getInt(index));
+                    checkNotNull(rs, column);
+                }
+                return list;
+            } finally {
+                ctx.close();
+            }
+        };
+    }
+
+    public static ResultSetScanner<LongList> longList(String column)
+    {
+        return (supplier, ctx) -> {
+            try {
+                ResultSet rs = supplier.get();
+                int index = rs.findColumn(column);
+                LongList list = new LongList();
+                while (rs.next()) {
+                    list.add(rs.getLong(index));
+                    checkNotNull(rs, column);
+                }
+                return list;
+            } finally {
+                ctx.close();
+            }
+        };
+    }
+
+    public static ResultSetScanner<IntIntMap> intIntMap(String keyColumn, String valueColumn)
+    {
+        return (supplier, ctx) -> {
+            try {
+                ResultSet rs = supplier.get();
+                int keyIndex = rs.findColumn(keyColumn);
+                int valueIndex = rs.findColumn(valueColumn);
+                IntIntMap map = new IntIntMap();
+                while (rs.next()) {
+                    int key = rs.getInt(keyIndex);
+                    checkNotNull(rs, keyColumn);
+                    int value = rs.getInt(valueIndex);
+                    checkNotNull(rs, valueColumn);
+                    PrimitiveCollectorFactory.putUnique(map, key, value);
+                }
+                return map;
+            } finally {
+                ctx.close();
+            }
+        };
+    }
+
+    /**
+     * @param mapper maps the value of each row, it is specialized once for the result set
+     */
+    public static <V> ResultSetScanner<IntObjectMap<V>> intObjectMap(String keyColumn, RowMapper<V> mapper)
+    {
+        return (supplier, ctx) -> {
+            try {
+                ResultSet rs = supplier.get();
+                int keyIndex = rs.findColumn(keyColumn);
+                RowMapper<V> values = mapper.specialize(rs, ctx);
+                IntObjectMap<V> map = new IntObjectMap<>();
+                while (rs.next()) {
+                    int key = rs.getInt(keyIndex);
+                    checkNotNull(rs, keyColumn);
+                    PrimitiveCollectorFactory.putUnique(map, key, values.map(rs, ctx));
+                }
+                return map;
+            } finally {
+                ctx.close();
+            }
+        };
+    }
+
+    /**
+     * @param mapper maps the value of each row, it is specialized once for the result set
+     */
+    public static <V> ResultSetScanner<LongObjectMap<V>> longObjectMap(String keyColumn, RowMapper<V> mapper)
+    {
+        return (supplier, ctx) -> {
+            try {
+                ResultSet rs = supplier.get();
+                int keyIndex = rs.findColumn(keyColumn);
+                RowMapper<V> values = mapper.specialize(rs, ctx);
+                LongObjectMap<V> map = new LongObjectMap<>();
+                while (rs.next()) {
+                    long key = rs.getLong(keyIndex);
+                    checkNotNull(rs, keyColumn);
+                    PrimitiveCollectorFactory.putUnique(map, key, values.map(rs, ctx));
+                }
+                return map;
+            } finally {
+                ctx.close();
+            }
+        };
+    }
+
+    private static void checkNotNull(ResultSet rs, String column) throws SQLException
+    {
+        if (rs.wasNull()) {
+            throw new IllegalStateException("Column " + column + " is null, primitive collections cannot hold SQL NULL");
+        }
+    }
+}
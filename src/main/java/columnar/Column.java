@@ -0,0 +1,93 @@
+package columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * One column of a ColumnChunk: the values of up to capacity rows, and a bitmap of the rows that are SQL NULL.
+ *
+ * The typed subclasses keep primitives in one array per column,
+ * where a row of mapToMap() keeps a boxed value, a map entry and a column name reference per column.
+ */
+public abstract class Column {
+    private final String name;
+    private final int sqlType;
+    private final long[] nulls;
+    private int size;
+
+    Column(String name, int sqlType, int capacity) {
+        this.name = name;
+        this.sqlType = sqlType;
+        this.nulls = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * Reads the value of the current row of the result set into the given row of this column.
+     */
+    abstract void read(ResultSet rs, int index, int row) throws SQLException;
+
+    /**
+     * The value of a row, boxed. Prefer the typed get() of the subclass in loops over many rows.
+     */
+    public abstract Object getObject(int row);
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The java.sql.Types type the driver reported for the column.
+     */
+    public int getSqlType() {
+        return sqlType;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row)
+    {
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * True if any row of the chunk is NULL, so loops over columns without nulls can skip isNull().
+     */
+    public boolean hasNulls()
+    {
+        int words = (size + 63) >>> 6;
+        for (int i = 0; i < words; i++) {
+            if (nulls[i] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void setNull(int row)
+    {
+        nulls[row >>> 6] |= 1L << row;
+    }
+
+    void setSize(int size)
+    {
+        this.size = size;
+    }
+
+    /**
+     * Empties the column, so the chunk can be filled again.
+     */
+    void clear()
+    {
+        Arrays.fill(nulls, 0);
+        size = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(" + getClass().getSimpleName() + " name:" + name + ", size:" + size + ")";
+    }
+}
@@ -0,0 +1,157 @@
+package columnar;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Up to capacity rows of a result set, stored column by column.
+ */
+public class ColumnChunk {
+    private final Column[] columns;
+    private final int capacity;
+    private int size;
+
+    ColumnChunk(Column[] columns, int capacity) {
+        this.columns = columns;
+        this.capacity = capacity;
+    }
+
+    /**
+     * One column per result set column, typed by the JDBC type the driver reports.
+     * String columns share the dictionaries, so chunks of the same scan share the codes.
+     */
+    static ColumnChunk create(ResultSetMetaData metaData, int capacity, StringDictionary[] dictionaries) throws SQLException
+    {
+        Column[] columns = new Column[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            String name = metaData.getColumnLabel(i + 1);
+            int sqlType = metaData.getColumnType(i + 1);
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    columns[i] = new IntColumn(name, sqlType, capacity);
+                    break;
+                case Types.BIGINT:
+                    columns[i] = new LongColumn(name, sqlType, capacity);
+                    break;
+                case Types.REAL:
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    columns[i] = new DoubleColumn(name, sqlType, capacity);
+                    break;
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.LONGVARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                case Types.LONGNVARCHAR:
+                    columns[i] = new StringColumn(name, sqlType, capacity, dictionaries[i]);
+                    break;
+                default:
+                    columns[i] = new ObjectColumn(name, sqlType, capacity);
+            }
+        }
+        return new ColumnChunk(columns, capacity);
+    }
+
+    /**
+     * Reads rows from the current position of the result set until the chunk is full or the rows run out.
+     *
+     * @return false if the result set had no more rows
+     */
+    boolean fill(ResultSet rs) throws SQLException
+    {
+        clear();
+        boolean more = true;
+        while (size < capacity && (more = rs.next())) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].read(rs, i + 1, size);
+            }
+            size++;
+        }
+        for (Column column : columns) {
+            column.setSize(size);
+        }
+        return more;
+    }
+
+    private void clear()
+    {
+        for (Column column : columns) {
+            column.clear();
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public List<Column> getColumns()
+    {
+        return Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    public Column column(int index)
+    {
+        return columns[index];
+    }
+
+    /**
+     * The column with the given label, ignoring case.
+     */
+    public Column column(String name)
+    {
+        for (Column column : columns) {
+            if (column.getName().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("No column " + name + " in " + Arrays.toString(columns));
+    }
+
+    public IntColumn intColumn(String name)
+    {
+        return typed(name, IntColumn.class);
+    }
+
+    public LongColumn longColumn(String name)
+    {
+        return typed(name, LongColumn.class);
+    }
+
+    public DoubleColumn doubleColumn(String name)
+    {
+        return typed(name, DoubleColumn.class);
+    }
+
+    public StringColumn stringColumn(String name)
+    {
+        return typed(name, StringColumn.class);
+    }
+
+    private <C extends Column> C typed(String name, Class<C> type)
+    {
+        Column column = column(name);
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException("Column " + name + " is a " + column.getClass().getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        return type.cast(column);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(ColumnChunk size:" + size + ", columns:" + Arrays.toString(columns) + ")";
+    }
+}
@@ -0,0 +1,118 @@
+package columnar;
+
+import org.jdbi.v3.core.result.ResultSetScanner;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads a result set into ColumnChunks of chunkSize rows, for queries that scan many rows of a few columns:
+ *
+ *     long rows = handle.createQuery("select region, amount from sales")
+ *             .scanResultSet(ColumnarScanners.forEachChunk(4096, chunk -> {
+ *                 StringColumn region = chunk.stringColumn("region");
+ *                 DoubleColumn amount = chunk.doubleColumn("amount");
+ *                 for (int row = 0; row < chunk.size(); row++) {
+ *                     totals[region.codes()[row]] += amount.get(row);
+ *                 }
+ *             }));
+ *
+ * forEachChunk() fills one chunk over and over, so the heap used by a scan is one chunk however many rows it reads.
+ * toChunks() keeps every chunk, for results that are used after the scan.
+ */
+public final class ColumnarScanners {
+    public static final int DEFAULT_MAXIMUM_DICTIONARY_SIZE = 1 << 16;
+
+    private ColumnarScanners() {
+    }
+
+    /**
+     * Passes each chunk to the consumer. The chunk and its arrays are reused for the next rows,
+     * so the consumer must copy what it wants to keep.
+     *
+     * @return the number of rows read
+     */
+    public static ResultSetScanner<Long> forEachChunk(int chunkSize, Consumer<? super ColumnChunk> consumer)
+    {
+        return forEachChunk(chunkSize, DEFAULT_MAXIMUM_DICTIONARY_SIZE, consumer);
+    }
+
+    public static ResultSetScanner<Long> forEachChunk(int chunkSize, int maximumDictionarySize, Consumer<? super ColumnChunk> consumer)
+    {
+        checkSizes(chunkSize, maximumDictionarySize);
+        return (supplier, ctx) -> {
+            try {
+                ResultSet rs = supplier.get();
+                ResultSetMetaData metaData = rs.getMetaData();
+                ColumnChunk chunk = ColumnChunk.create(metaData, chunkSize, dictionaries(metaData, maximumDictionarySize));
+                long rows = 0;
+                boolean more = true;
+                while (more) {
+                    more = chunk.fill(rs);
+                    if (chunk.size() > 0) {
+                        consumer.accept(chunk);
+                        rows += chunk.size();
+                    }
+                }
+                return rows;
+            } finally {
+                ctx.close();
+            }
+        };
+    }
+
+    /**
+     * Every row of the result, in chunks of chunkSize rows. String columns share one dictionary across the chunks.
+     */
+    public static ResultSetScanner<List<ColumnChunk>> toChunks(int chunkSize)
+    {
+        return toChunks(chunkSize, DEFAULT_MAXIMUM_DICTIONARY_SIZE);
+    }
+
+    public static ResultSetScanner<List<ColumnChunk>> toChunks(int chunkSize, int maximumDictionarySize)
+    {
+        checkSizes(chunkSize, maximumDictionarySize);
+        return (supplier, ctx) -> {
+            try {
+                ResultSet rs = supplier.get();
+                ResultSetMetaData metaData = rs.getMetaData();
+                StringDictionary[] dictionaries = dictionaries(metaData, maximumDictionarySize);
+                List<ColumnChunk> chunks = new ArrayList<>();
+                boolean more = true;
+                while (more) {
+                    ColumnChunk chunk = ColumnChunk.create(metaData, chunkSize, dictionaries);
+                    more = chunk.fill(rs);
+                    if (chunk.size() > 0) {
+                        chunks.add(chunk);
+                    }
+                }
+                return chunks;
+            } finally {
+                ctx.close();
+            }
+        };
+    }
+
+    private static StringDictionary[] dictionaries(ResultSetMetaData metaData, int maximumSize) throws SQLException
+    {
+        StringDictionary[] dictionaries = new StringDictionary[metaData.getColumnCount()];
+        for (int i = 0; i < dictionaries.length; i++) {
+            dictionaries[i] = new StringDictionary(maximumSize);
+        }
+        return dictionaries;
+    }
+
+    private static void checkSizes(int chunkSize, int maximumDictionarySize)
+    {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1, was " + chunkSize);
+        }
+        if (maximumDictionarySize < 0) {
+            throw new IllegalArgumentException("maximumDictionarySize must not be negative, was " + maximumDictionarySize);
+        }
+    }
+}
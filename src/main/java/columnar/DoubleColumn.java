@@ -0,0 +1,43 @@
+package columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A REAL, FLOAT or DOUBLE column. NULL rows read as 0.0.
+ */
+public class DoubleColumn extends Column {
+    private final double[] values;
+
+    DoubleColumn(String name, int sqlType, int capacity) {
+        super(name, sqlType, capacity);
+        this.values = new double[capacity];
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException
+    {
+        values[row] = rs.getDouble(index);
+        if (rs.wasNull()) {
+            setNull(row);
+        }
+    }
+
+    public double get(int row)
+    {
+        return values[row];
+    }
+
+    /**
+     * The backing array, valid up to size(). It is overwritten when a reused chunk is filled again.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    @Override
+    public Object getObject(int row)
+    {
+        return isNull(row) ? null : values[row];
+    }
+}
@@ -0,0 +1,43 @@
+package columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A TINYINT, SMALLINT or INTEGER column. NULL rows read as 0.
+ */
+public class IntColumn extends Column {
+    private final int[] values;
+
+    IntColumn(String name, int sqlType, int capacity) {
+        super(name, sqlType, capacity);
+        this.values = new int[capacity];
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException
+    {
+        values[row] = rs.getInt(index);
+        if (rs.wasNull()) {
+            setNull(row);
+        }
+    }
+
+    public int get(int row)
+    {
+        return values[row];
+    }
+
+    /**
+     * The backing array, valid up to size(). It is overwritten when a reused chunk is filled again.
+     */
+    public int[] values() {
+        return values;
+    }
+
+    @Override
+    public Object getObject(int row)
+    {
+        return isNull(row) ? null : values[row];
+    }
+}
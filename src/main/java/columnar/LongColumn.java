@@ -0,0 +1,43 @@
+package columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A BIGINT column. NULL rows read as 0.
+ */
+public class LongColumn extends Column {
+    private final long[] values;
+
+    LongColumn(String name, int sqlType, int capacity) {
+        super(name, sqlType, capacity);
+        this.values = new long[capacity];
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException
+    {
+        values[row] = rs.getLong(index);
+        if (rs.wasNull()) {
+            setNull(row);
+        }
+    }
+
+    public long get(int row)
+    {
+        return values[row];
+    }
+
+    /**
+     * The backing array, valid up to size(). It is overwritten when a reused chunk is filled again.
+     */
+    public long[] values() {
+        return values;
+    }
+
+    @Override
+    public Object getObject(int row)
+    {
+        return isNull(row) ? null : values[row];
+    }
+}
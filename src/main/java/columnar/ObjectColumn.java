@@ -0,0 +1,46 @@
+package columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Any other column type (DECIMAL, dates, BOOLEAN, ...), read with getObject().
+ */
+public class ObjectColumn extends Column {
+    private final Object[] values;
+
+    ObjectColumn(String name, int sqlType, int capacity) {
+        super(name, sqlType, capacity);
+        this.values = new Object[capacity];
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException
+    {
+        Object value = rs.getObject(index);
+        values[row] = value;
+        if (value == null) {
+            setNull(row);
+        }
+    }
+
+    public Object get(int row)
+    {
+        return values[row];
+    }
+
+    @Override
+    void clear()
+    {
+        //drop the references, a reused chunk should not keep the previous values alive
+        Arrays.fill(values, 0, size(), null);
+        super.clear();
+    }
+
+    @Override
+    public Object getObject(int row)
+    {
+        return values[row];
+    }
+}
@@ -0,0 +1,100 @@
+package columnar;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * A character column, dictionary encoded: each row keeps the int code of its value in the StringDictionary of the scan,
+ * so a value repeated over millions of rows is stored once.
+ *
+ * When the dictionary fills up, the column switches to plain strings for the rest of the scan,
+ * converting the rows of the current chunk that were already encoded.
+ */
+public class StringColumn extends Column {
+    private final StringDictionary dictionary;
+    private final int[] codes;
+    private String[] values;
+
+    StringColumn(String name, int sqlType, int capacity, StringDictionary dictionary) {
+        super(name, sqlType, capacity);
+        this.dictionary = dictionary;
+        this.codes = new int[capacity];
+        if (dictionary.isFull()) {
+            values = new String[capacity];
+        }
+    }
+
+    @Override
+    void read(ResultSet rs, int index, int row) throws SQLException
+    {
+        String value = rs.getString(index);
+        if (value == null) {
+            setNull(row);
+            if (values != null) {
+                values[row] = null;
+            }
+            return;
+        }
+        if (values == null) {
+            int code = dictionary.code(value);
+            if (code >= 0) {
+                codes[row] = code;
+                return;
+            }
+            decode(row);
+        }
+        values[row] = value;
+    }
+
+    //switches to plain strings, the rows before row were encoded
+    private void decode(int row)
+    {
+        values = new String[codes.length];
+        for (int i = 0; i < row; i++) {
+            values[i] = isNull(i) ? null : dictionary.value(codes[i]);
+        }
+    }
+
+    public String get(int row)
+    {
+        if (isNull(row)) {
+            return null;
+        }
+        return values == null ? dictionary.value(codes[row]) : values[row];
+    }
+
+    /**
+     * True while the rows are stored as codes, see codes() and getDictionary().
+     */
+    public boolean isDictionaryEncoded() {
+        return values == null;
+    }
+
+    /**
+     * The dictionary codes of the rows, valid up to size() while the column is dictionary encoded.
+     * Grouping or filtering on codes avoids comparing strings.
+     */
+    public int[] codes() {
+        return codes;
+    }
+
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    void clear()
+    {
+        if (values != null) {
+            Arrays.fill(values, 0, size(), null);
+        }
+        super.clear();
+    }
+
+    @Override
+    public Object getObject(int row)
+    {
+        return get(row);
+    }
+}
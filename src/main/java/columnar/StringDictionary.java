@@ -0,0 +1,64 @@
+package columnar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The distinct values of one string column, shared by every chunk of a scan, so a code means the same string in all of them.
+ *
+ * Once maximumSize distinct values are seen the dictionary is full,
+ * and the column stores the remaining strings as they are: a column of mostly distinct values gains nothing from a dictionary.
+ */
+public class StringDictionary {
+    private final int maximumSize;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private boolean full;
+
+    StringDictionary(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @return the code of the value, or -1 if the value is new and the dictionary is full
+     */
+    int code(String value)
+    {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (values.size() >= maximumSize) {
+            full = true;
+            return -1;
+        }
+        code = values.size();
+        codes.put(value, code);
+        values.add(value);
+        return code;
+    }
+
+    public String value(int code)
+    {
+        return values.get(code);
+    }
+
+    /**
+     * The distinct values, in the order of their codes.
+     */
+    public List<String> values()
+    {
+        return Collections.unmodifiableList(values);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+}
@@ -0,0 +1,108 @@
+package join;
+
+import collect.LongObjectMap;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.result.ResultSetScanner;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Folds a one-to-many join straight into the parents, one pass over the result set:
+ *
+ *     List<Contact> contacts = handle.createQuery("select c.id c_id, ..., p.id p_id, ... from contacts c left join phones p ...")
+ *             .scanResultSet(new OneToManyReducer<>("c_id", ConstructorMapper.of(Contact.class, "c"),
+ *                     "p_id", ConstructorMapper.of(Phone.class, "p"), Contact::addPhone));
+ *
+ * A parent is mapped the first time its key shows up, and found again by key in a LongObjectMap,
+ * so the rows do not have to be sorted. When they are sorted by parent, consecutive rows skip the lookup.
+ * No JoinRow, Map.Entry or boxed key is allocated per row, only the children themselves.
+ *
+ * Rows with a null child key (the parent side of a left join) add the parent without a child.
+ * The parents are returned in the order they first appear.
+ */
+public class OneToManyReducer<P, C> implements ResultSetScanner<List<P>> {
+    private final String parentKey;
+    private final RowMapper<P> parentMapper;
+    private final String childKey;
+    private final RowMapper<C> childMapper;
+    private final BiConsumer<? super P, ? super C> accumulator;
+
+    /**
+     * @param parentKey the label of the parent key column, an integer type
+     * @param childKey the label of a child column that is null when the row has no child, usually its key
+     * @param accumulator adds a child to its parent, e.g. Contact::addPhone
+     */
+    public OneToManyReducer(String parentKey, RowMapper<P> parentMapper,
+                            String childKey, RowMapper<C> childMapper,
+                            BiConsumer<? super P, ? super C> accumulator) {
+        this.parentKey = parentKey;
+        this.parentMapper = parentMapper;
+        this.childKey = childKey;
+        this.childMapper = childMapper;
+        this.accumulator = accumulator;
+    }
+
+    @Override
+    public List<P> scanResultSet(Supplier<ResultSet> supplier, StatementContext ctx) throws SQLException
+    {
+        try {
+            ResultSet rs = supplier.get();
+            int parentColumn = rs.findColumn(parentKey);
+            int childColumn = rs.findColumn(childKey);
+            boolean integerChildKey = isInteger(rs.getMetaData().getColumnType(childColumn));
+            RowMapper<P> parents = parentMapper.specialize(rs, ctx);
+            RowMapper<C> children = childMapper.specialize(rs, ctx);
+
+            LongObjectMap<P> byKey = new LongObjectMap<>();
+            List<P> result = new ArrayList<>();
+            P last = null;
+            long lastKey = 0;
+
+            while (rs.next()) {
+                long key = rs.getLong(parentColumn);
+                if (rs.wasNull()) {
+                    continue;
+                }
+
+                P parent;
+                if (last != null && key == lastKey) {
+                    parent = last;
+                } else {
+                    parent = byKey.get(key);
+                    if (parent == null) {
+                        parent = parents.map(rs, ctx);
+                        byKey.put(key, parent);
+                        result.add(parent);
+                    }
+                    last = parent;
+                    lastKey = key;
+                }
+
+                //read integer keys as long, so the null check allocates nothing
+                if (integerChildKey) {
+                    rs.getLong(childColumn);
+                } else {
+                    rs.getObject(childColumn);
+                }
+                if (!rs.wasNull()) {
+                    accumulator.accept(parent, children.map(rs, ctx));
+                }
+            }
+            return result;
+        } finally {
+            ctx.close();
+        }
+    }
+
+    private static boolean isInteger(int sqlType)
+    {
+        return sqlType == Types.TINYINT || sqlType == Types.SMALLINT || sqlType == Types.INTEGER || sqlType == Types.BIGINT;
+    }
+}
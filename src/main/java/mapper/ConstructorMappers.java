@@ -1,5 +1,6 @@
 package mapper;
 
+import join.OneToManyReducer;
 import model.Contact;
 import model.Phone;
 import model.User;
@@ -72,6 +73,39 @@ public class ConstructorMappers {
         });
     }
 
+    /**
+     * A OneToManyReducer folds the same join into contacts with their phones,
+     * without a JoinRow per row.
+     */
+    public void constructorMapper_oneToManyReducer()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_constructorMapper_oneToManyReducer");
+        jdbi.useHandle(handle -> {
+            handle.execute("create table contacts (id int primary key, name varchar(100))");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 1, "Alice");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 2, "Bob");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 3, "Carl");
+
+            handle.execute("create table phones (id int primary key, contact_id int, name varchar(100), number varchar(100))");
+            handle.execute("insert into phones (id, contact_id, name, number) values (?, ?, ?, ?)", 1, 1, "home1", "233343434");
+            handle.execute("insert into phones (id, contact_id, name, number) values (?, ?, ?, ?)", 2, 2, "work1", "897646363");
+            handle.execute("insert into phones (id, contact_id, name, number) values (?, ?, ?, ?)", 3, 1, "cell", "233343439");
+
+            //Carl has no phone, and Alice's phones are not next to each other
+            List<Contact> contacts = handle.createQuery("select " +
+                    "c.id cid, c.name cname, " +
+                    "p.id pid, p.name pname, p.number pnumber " +
+                    "from contacts c left join phones p " +
+                    "on c.id = p.contact_id order by p.id")
+                    .scanResultSet(new OneToManyReducer<>(
+                            "cid", ConstructorMapper.of(Contact.class, "c"),
+                            "pid", ConstructorMapper.of(Phone.class, "p"),
+                            Contact::addPhone));
+
+            contacts.forEach(contact -> System.out.println(contact + " with " + contact.getPhones()));
+        });
+    }
+
     public void constructorMapper_nested()
     {
         Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_constructorMapper_nested");
@@ -96,6 +130,7 @@ public class ConstructorMappers {
         mapper.constructorMapper();
 
         mapper.constructorMapper_JoinRowMapper();
+        mapper.constructorMapper_oneToManyReducer();
         mapper.constructorMapper_nested();
     }
 }
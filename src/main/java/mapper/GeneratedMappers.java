@@ -0,0 +1,127 @@
+package mapper;
+
+import bean.ContactBean;
+import bean.PhoneBean;
+import bean.UserBean;
+import mapper.generated.ColumnPlanCache;
+import mapper.generated.GeneratedBeanMapper;
+import mapper.generated.GeneratedConstructorMapper;
+import mapper.generated.GeneratedFieldMapper;
+import model.Contact;
+import model.Phone;
+import model.User;
+import model.UserTestNested;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.mapper.JoinRow;
+import org.jdbi.v3.core.mapper.JoinRowMapper;
+
+import java.util.List;
+
+/**
+ * BeanMapper, FieldMapper and ConstructorMapper match columns by name and set values through reflection,
+ * for every row.
+ *
+ * The generated mappers take the same classes and annotations (@Nested, @ColumnName, prefixes),
+ * but build a method handle per column layout when the result set is opened,
+ * so each row is mapped by calling the getters and setters directly.
+ */
+public class GeneratedMappers {
+
+    public void generatedBeanMapper()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_generatedBeanMapper");
+        jdbi.useHandle(handle -> {
+            //Registered the same way as BeanMapper.factory(UserBean.class)
+            handle.registerRowMapper(GeneratedBeanMapper.factory(UserBean.class));
+
+            handle.execute("create table users (id int primary key, name varchar(100), street varchar(100), city varchar(100), state varchar(100), zip varchar(100))");
+            handle.execute("insert into users (id, name, street, city, state, zip) values (?, ?, ?, ?, ?, ?)", 1, "Alice", "am st", "cph", "dk", "2100");
+            handle.execute("insert into users (id, name, street, city, state, zip) values (?, ?, ?, ?, ?, ?)", 2, "Bob", "prod st", "cph", "dk", "2200");
+
+            //@Nested AddressBean is filled from street, city, state and zip
+            List<UserBean> users = handle
+                    .select("select id, name, street, city, state, zip from users")
+                    .mapTo(UserBean.class)
+                    .list();
+            System.out.println(users);
+
+            //Another column layout gets its own generated mapper, without the address
+            users = handle
+                    .select("select id, name from users")
+                    .mapTo(UserBean.class)
+                    .list();
+            System.out.println(users);
+        });
+    }
+
+    public void generatedMappers_configColumnNamePrefix()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_generatedMappers_configColumnNamePrefix");
+        jdbi.useHandle(handle -> {
+            handle.registerRowMapper(GeneratedBeanMapper.factory(ContactBean.class, "c"));
+            handle.registerRowMapper(GeneratedBeanMapper.factory(PhoneBean.class, "p"));
+            handle.registerRowMapper(JoinRowMapper.forTypes(ContactBean.class, PhoneBean.class));
+
+            handle.registerRowMapper(GeneratedFieldMapper.factory(model.fieldmapper.Contact.class, "c"));
+            handle.registerRowMapper(GeneratedFieldMapper.factory(model.fieldmapper.Phone.class, "p"));
+
+            handle.registerRowMapper(GeneratedConstructorMapper.factory(Contact.class, "c"));
+            handle.registerRowMapper(GeneratedConstructorMapper.factory(Phone.class, "p"));
+
+            handle.execute("create table contacts (id int primary key, name varchar(100))");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 1, "Alice");
+            handle.execute("insert into contacts (id, name) values (?, ?)", 2, "Bob");
+
+            handle.execute("create table phones (id int primary key, contact_id int, name varchar(100), number varchar(100))");
+            handle.execute("insert into phones (id, contact_id, name, number) values (?, ?, ?, ?)", 1, 1, "home1", "233343434");
+            handle.execute("insert into phones (id, contact_id, name, number) values (?, ?, ?, ?)", 2, 2, "work1", "897646363");
+
+            String sql = "select "
+                    + "c.id cid, c.name cname, "
+                    + "p.id pid, p.name pname, p.number pnumber "
+                    + "from contacts c left join phones p on c.id = p.contact_id";
+
+            handle.select(sql)
+                    .mapTo(JoinRow.class)
+                    .forEach(row -> System.out.println(row.get(ContactBean.class) + " and " + row.get(PhoneBean.class)));
+
+            handle.select(sql)
+                    .map(JoinRowMapper.forTypes(model.fieldmapper.Contact.class, model.fieldmapper.Phone.class))
+                    .forEach(row -> System.out.println(row.get(model.fieldmapper.Contact.class) + " and " + row.get(model.fieldmapper.Phone.class)));
+
+            handle.select(sql)
+                    .map(JoinRowMapper.forTypes(Contact.class, Phone.class))
+                    .forEach(row -> System.out.println(row.get(Contact.class) + " and " + row.get(Phone.class)));
+
+            //Column plans are cached by query and result set shape, running the join again only hits the cache
+            handle.select(sql).mapTo(JoinRow.class).list();
+            System.out.println(ColumnPlanCache.getCache());
+        });
+    }
+
+    public void generatedFieldAndConstructorMapper_nested()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_generatedFieldAndConstructorMapper_nested");
+        jdbi.useHandle(handle -> {
+            handle.registerRowMapper(GeneratedFieldMapper.factory(model.fieldmapper.User.class));
+            handle.registerRowMapper(GeneratedConstructorMapper.factory(UserTestNested.class));
+            handle.registerRowMapper(GeneratedConstructorMapper.factory(User.class));
+
+            handle.execute("create table users (id int primary key, name varchar(100), street varchar(100), city varchar(100), state varchar(100), zip varchar(100))");
+            handle.execute("insert into users (id, name, street, city, state, zip) values (?, ?, ?, ?, ?, ?)", 1, "Alice", "am st", "cph", "dk", "2100");
+            handle.execute("insert into users (id, name, street, city, state, zip) values (?, ?, ?, ?, ?, ?)", 2, "Bob", "prod st", "cph", "dk", "2200");
+
+            String sql = "select id, name, street, city, state, zip from users";
+            System.out.println(handle.select(sql).mapTo(model.fieldmapper.User.class).list());
+            System.out.println(handle.select(sql).mapTo(UserTestNested.class).list());
+            System.out.println(handle.select("select id, name from users").mapTo(User.class).list());
+        });
+    }
+
+    public static void main(String[] args) {
+        GeneratedMappers mappers = new GeneratedMappers();
+        mappers.generatedBeanMapper();
+        mappers.generatedMappers_configColumnNamePrefix();
+        mappers.generatedFieldAndConstructorMapper_nested();
+    }
+}
@@ -1,5 +1,10 @@
 package mapper;
 
+import collect.IntIntMap;
+import collect.IntList;
+import collect.IntObjectMap;
+import collect.PrimitiveCollectorFactory;
+import collect.PrimitiveScanners;
 import com.google.common.collect.Multimap;
 import model.mapentry.Phone;
 import model.mapentry.User;
@@ -7,10 +12,31 @@ import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.generic.GenericType;
 import org.jdbi.v3.core.mapper.reflect.ConstructorMapper;
 import org.jdbi.v3.guava.GuavaPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.RegisterCollectorFactory;
+import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
 
 import java.util.Map;
 
 public class MapEntryMapping {
+    @RegisterCollectorFactory(PrimitiveCollectorFactory.class)
+    public interface UserDao {
+        @SqlQuery("select * from user")
+        @KeyColumn("id")
+        @RegisterConstructorMapper(User.class)
+        IntObjectMap<User> getUsersById();
+
+        @SqlQuery("select id, manager_id from user")
+        @KeyColumn("id")
+        @ValueColumn("manager_id")
+        IntIntMap getManagerIds();
+
+        @SqlQuery("select id from user order by id")
+        IntList getIds();
+    }
 
     /**
      * Out of the box, Jdbi registers a RowMapper<Map.Entry<K,V>>.
@@ -111,10 +137,56 @@ public class MapEntryMapping {
         });
     }
 
+    /**
+     * A Map<Integer, User> boxes every key and allocates a HashMap node per row,
+     * which roughly doubles the heap of a lookup table with millions of ids.
+     *
+     * The collections in package collect keep the keys as primitives.
+     * With the PrimitiveCollectorFactory they work like any other container type,
+     * and PrimitiveScanners fills them straight from the ResultSet without boxing at all.
+     */
+    public void mapEntry_primitiveKeys()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_mapEntry_primitiveKeys");
+        jdbi.installPlugin(new SqlObjectPlugin());
+        jdbi.registerCollector(new PrimitiveCollectorFactory());
+
+        jdbi.useHandle(handle -> {
+            handle.execute("create table user (id int primary key, name varchar(100), manager_id int)");
+            handle.execute("insert into user (id, name, manager_id) values (?, ?, ?)", 1, "Alice", 1);
+            handle.execute("insert into user (id, name, manager_id) values (?, ?, ?)", 2, "Bob", 1);
+            handle.execute("insert into user (id, name, manager_id) values (?, ?, ?)", 3, "Carl", 2);
+
+            //same key column configuration as for a Map<Integer, User>
+            IntObjectMap<User> userMap = handle.createQuery("select * from user")
+                    .setMapKeyColumn("id")
+                    .registerRowMapper(ConstructorMapper.factory(User.class))
+                    .collectInto(new GenericType<IntObjectMap<User>>() {});
+            System.out.println(userMap.get(2));
+
+            IntIntMap managers = handle.createQuery("select id, manager_id from user")
+                    .setMapKeyColumn("id")
+                    .setMapValueColumn("manager_id")
+                    .collectInto(IntIntMap.class);
+            System.out.println(managers);
+
+            //no Integer or Map.Entry per row
+            IntObjectMap<User> scanned = handle.createQuery("select * from user")
+                    .scanResultSet(PrimitiveScanners.intObjectMap("id", ConstructorMapper.of(User.class)));
+            System.out.println(scanned);
+
+            UserDao dao = handle.attach(UserDao.class);
+            System.out.println(dao.getUsersById().get(3));
+            System.out.println(dao.getManagerIds().get(3, 0));
+            System.out.println(dao.getIds());
+        });
+    }
+
     public static void main(String[] args) {
         MapEntryMapping mapping = new MapEntryMapping();
         mapping.mapEntry();
         mapping.mapEntry_keyValueColumn();
+        mapping.mapEntry_primitiveKeys();
 
         mapping.mapEntry_GuavaMultimap();
     }
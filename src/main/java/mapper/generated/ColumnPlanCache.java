@@ -0,0 +1,93 @@
+package mapper.generated;
+
+import cache.BoundedCache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The column plans of the generated mappers, shared by all of them.
+ *
+ * A plan is keyed by the mapped type and prefix, the rendered SQL, and the shape of the result set
+ * (the JDBC type of every column). A repeated query finds its plan without reading the column labels,
+ * so the name matching and case folding are done once per query, not once per execution.
+ *
+ * The shape is a cheap guard, not a proof: after renaming a column to one of the same type,
+ * a "select *" would reuse its old plan. Call invalidateAll() after changing the schema.
+ */
+public final class ColumnPlanCache {
+    private static volatile BoundedCache<Key, GeneratedRowMapper.Plan> cache = new BoundedCache<>(1000);
+
+    private ColumnPlanCache() {}
+
+    public static BoundedCache<?, ?> getCache()
+    {
+        return cache;
+    }
+
+    /**
+     * Replaces the cache with an empty one of the given size.
+     */
+    public static void setMaximumSize(int maximumSize)
+    {
+        cache = new BoundedCache<>(maximumSize);
+    }
+
+    public static void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+    static BoundedCache<Key, GeneratedRowMapper.Plan> plans()
+    {
+        return cache;
+    }
+
+    static final class Key {
+        private final Class<?> mapper;
+        private final Class<?> type;
+        private final String prefix;
+        //the rendered SQL, or the column labels when the statement has no SQL text
+        private final Object query;
+        private final int[] shape;
+        private final List<Class<?>> matchers;
+        private final boolean strict;
+        private final int hash;
+
+        Key(Class<?> mapper, Class<?> type, String prefix, Object query, int[] shape, List<Class<?>> matchers, boolean strict) {
+            this.mapper = mapper;
+            this.type = type;
+            this.prefix = prefix;
+            this.query = query;
+            this.shape = shape;
+            this.matchers = matchers;
+            this.strict = strict;
+            this.hash = Objects.hash(mapper, type, prefix, query, Arrays.hashCode(shape), matchers, strict);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash
+                    && strict == key.strict
+                    && mapper == key.mapper
+                    && type == key.type
+                    && prefix.equals(key.prefix)
+                    && query.equals(key.query)
+                    && Arrays.equals(shape, key.shape)
+                    && matchers.equals(key.matchers);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
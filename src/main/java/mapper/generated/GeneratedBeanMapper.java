@@ -0,0 +1,94 @@
+package mapper.generated;
+
+import org.jdbi.v3.core.mapper.Nested;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.mapper.RowMapperFactory;
+import org.jdbi.v3.core.mapper.reflect.ColumnName;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drop-in replacement of BeanMapper: no-arg constructor plus setters, @Nested and @ColumnName on getter or setter.
+ */
+public class GeneratedBeanMapper<T> extends GeneratedRowMapper<T> {
+    private GeneratedBeanMapper(Class<T> type, String prefix) {
+        super(type, prefix);
+    }
+
+    public static RowMapperFactory factory(Class<?> type)
+    {
+        return factory(type, "");
+    }
+
+    public static RowMapperFactory factory(Class<?> type, String prefix)
+    {
+        return RowMapperFactory.of(type, of(type, prefix));
+    }
+
+    public static <T> RowMapper<T> of(Class<T> type)
+    {
+        return of(type, "");
+    }
+
+    public static <T> RowMapper<T> of(Class<T> type, String prefix)
+    {
+        return new GeneratedBeanMapper<>(type, prefix);
+    }
+
+    @Override
+    ObjectReader build(MapperCodegen codegen, Class<?> type, String prefix) throws ReflectiveOperationException
+    {
+        BeanInfo info;
+        try {
+            //the one argument form is cached by the Introspector, getClass() has no setter and is skipped below
+            info = Introspector.getBeanInfo(type);
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("Unable to introspect " + type, e);
+        }
+
+        List<ObjectReader.Value> values = new ArrayList<>();
+        List<Object> setters = new ArrayList<>();
+        for (PropertyDescriptor property : info.getPropertyDescriptors()) {
+            Method setter = property.getWriteMethod();
+            if (setter == null) {
+                continue;
+            }
+
+            ObjectReader.Value value = null;
+            Nested nested = annotation(property, Nested.class);
+            if (nested != null) {
+                ObjectReader reader = build(codegen, setter.getParameterTypes()[0], prefix + nested.value());
+                value = reader == null ? null : ObjectReader.Value.nested(reader);
+            } else {
+                ColumnName columnName = annotation(property, ColumnName.class);
+                int column = codegen.findColumn(prefix + (columnName == null ? property.getName() : columnName.value()));
+                value = column < 0 ? null : codegen.column(column, setter.getGenericParameterTypes()[0]);
+            }
+
+            if (value != null) {
+                values.add(value);
+                setters.add(MapperCodegen.setter(setter, value.kind));
+            }
+        }
+        if (values.isEmpty()) {
+            return null;
+        }
+        return new ObjectReader.Setters(MapperCodegen.constructor(type.getDeclaredConstructor()), values, setters);
+    }
+
+    private static <A extends Annotation> A annotation(PropertyDescriptor property, Class<A> annotationType)
+    {
+        Method getter = property.getReadMethod();
+        if (getter != null && getter.isAnnotationPresent(annotationType)) {
+            return getter.getAnnotation(annotationType);
+        }
+        return property.getWriteMethod().getAnnotation(annotationType);
+    }
+}
@@ -0,0 +1,98 @@
+package mapper.generated;
+
+import org.jdbi.v3.core.mapper.Nested;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.mapper.RowMapperFactory;
+import org.jdbi.v3.core.mapper.reflect.ColumnName;
+import org.jdbi.v3.core.mapper.reflect.JdbiConstructors;
+
+import java.beans.ConstructorProperties;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drop-in replacement of ConstructorMapper. The constructor is picked like ConstructorMapper does,
+ * and its parameters are named by @ColumnName, @ConstructorProperties or the -parameters compiler flag.
+ *
+ * Every parameter needs a column, @Nested parameters need at least one.
+ */
+public class GeneratedConstructorMapper<T> extends GeneratedRowMapper<T> {
+    private GeneratedConstructorMapper(Class<T> type, String prefix) {
+        super(type, prefix);
+    }
+
+    public static RowMapperFactory factory(Class<?> type)
+    {
+        return factory(type, "");
+    }
+
+    public static RowMapperFactory factory(Class<?> type, String prefix)
+    {
+        return RowMapperFactory.of(type, of(type, prefix));
+    }
+
+    public static <T> RowMapper<T> of(Class<T> type)
+    {
+        return of(type, "");
+    }
+
+    public static <T> RowMapper<T> of(Class<T> type, String prefix)
+    {
+        return new GeneratedConstructorMapper<>(type, prefix);
+    }
+
+    @Override
+    ObjectReader build(MapperCodegen codegen, Class<?> type, String prefix) throws ReflectiveOperationException
+    {
+        Constructor<?> constructor = JdbiConstructors.findConstructorFor(type);
+        Parameter[] parameters = constructor.getParameters();
+        ConstructorProperties properties = constructor.getAnnotation(ConstructorProperties.class);
+
+        List<ObjectReader.Value> values = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            ObjectReader.Value value;
+            String name;
+            if (parameter.isAnnotationPresent(Nested.class)) {
+                name = "@Nested " + parameter.getType().getSimpleName();
+                ObjectReader reader = build(codegen, parameter.getType(), prefix + parameter.getAnnotation(Nested.class).value());
+                value = reader == null ? null : ObjectReader.Value.nested(reader);
+            } else {
+                name = name(constructor, parameter, properties, i);
+                int column = codegen.findColumn(prefix + name);
+                value = column < 0 ? null : codegen.column(column, parameter.getParameterizedType());
+            }
+
+            if (value == null) {
+                missing.add(name);
+            }
+            values.add(value);
+        }
+
+        if (missing.size() == parameters.length && parameters.length > 0) {
+            return null;
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Constructor " + constructor + " has no matching columns for " + missing);
+        }
+        return new ObjectReader.Arguments(MapperCodegen.spreader(constructor), values);
+    }
+
+    private static String name(Constructor<?> constructor, Parameter parameter, ConstructorProperties properties, int index)
+    {
+        if (parameter.isAnnotationPresent(ColumnName.class)) {
+            return parameter.getAnnotation(ColumnName.class).value();
+        }
+        if (properties != null) {
+            return properties.value()[index];
+        }
+        if (parameter.isNamePresent()) {
+            return parameter.getName();
+        }
+        throw new IllegalArgumentException("Constructor " + constructor
+                + " needs @ConstructorProperties, @ColumnName or the -parameters compiler flag");
+    }
+}
@@ -0,0 +1,74 @@
+package mapper.generated;
+
+import org.jdbi.v3.core.mapper.Nested;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.mapper.RowMapperFactory;
+import org.jdbi.v3.core.mapper.reflect.ColumnName;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drop-in replacement of FieldMapper: no-arg constructor plus fields of the class and its superclasses,
+ * private ones included, with @Nested and @ColumnName on the field.
+ */
+public class GeneratedFieldMapper<T> extends GeneratedRowMapper<T> {
+    private GeneratedFieldMapper(Class<T> type, String prefix) {
+        super(type, prefix);
+    }
+
+    public static RowMapperFactory factory(Class<?> type)
+    {
+        return factory(type, "");
+    }
+
+    public static RowMapperFactory factory(Class<?> type, String prefix)
+    {
+        return RowMapperFactory.of(type, of(type, prefix));
+    }
+
+    public static <T> RowMapper<T> of(Class<T> type)
+    {
+        return of(type, "");
+    }
+
+    public static <T> RowMapper<T> of(Class<T> type, String prefix)
+    {
+        return new GeneratedFieldMapper<>(type, prefix);
+    }
+
+    @Override
+    ObjectReader build(MapperCodegen codegen, Class<?> type, String prefix) throws ReflectiveOperationException
+    {
+        List<ObjectReader.Value> values = new ArrayList<>();
+        List<Object> setters = new ArrayList<>();
+        for (Class<?> declaring = type; declaring != null && declaring != Object.class; declaring = declaring.getSuperclass()) {
+            for (Field field : declaring.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+
+                ObjectReader.Value value;
+                if (field.isAnnotationPresent(Nested.class)) {
+                    ObjectReader reader = build(codegen, field.getType(), prefix + field.getAnnotation(Nested.class).value());
+                    value = reader == null ? null : ObjectReader.Value.nested(reader);
+                } else {
+                    ColumnName columnName = field.getAnnotation(ColumnName.class);
+                    int column = codegen.findColumn(prefix + (columnName == null ? field.getName() : columnName.value()));
+                    value = column < 0 ? null : codegen.column(column, field.getGenericType());
+                }
+
+                if (value != null) {
+                    values.add(value);
+                    setters.add(MapperCodegen.setter(field, value.kind));
+                }
+            }
+        }
+        if (values.isEmpty()) {
+            return null;
+        }
+        return new ObjectReader.Setters(MapperCodegen.constructor(type.getDeclaredConstructor()), values, setters);
+    }
+}
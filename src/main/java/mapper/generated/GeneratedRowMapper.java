@@ -0,0 +1,113 @@
+package mapper.generated;
+
+import org.jdbi.v3.core.mapper.ColumnMapper;
+import org.jdbi.v3.core.mapper.NoSuchMapperException;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.mapper.reflect.ReflectionMappers;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Base of the generated mappers.
+ *
+ * specialize() looks up the ObjectReader built for the query in the ColumnPlanCache,
+ * building it from the column labels on a miss. Mapping a row then reads the resolved column indexes and calls
+ * the generated setters or constructor, with no name matching and no Method.invoke().
+ * Setters of int, long and double properties are passed the column unboxed, every other value is boxed,
+ * and a constructor is passed all of its arguments boxed in an Object[], see ObjectReader.Arguments.
+ */
+abstract class GeneratedRowMapper<T> implements RowMapper<T> {
+    protected final Class<T> type;
+    protected final String prefix;
+
+    GeneratedRowMapper(Class<T> type, String prefix) {
+        this.type = type;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Builds the reader for the given type, or returns null if none of its columns are in the result set.
+     */
+    abstract ObjectReader build(MapperCodegen codegen, Class<?> type, String prefix) throws ReflectiveOperationException;
+
+    @Override
+    public T map(ResultSet rs, StatementContext ctx) throws SQLException
+    {
+        return specialize(rs, ctx).map(rs, ctx);
+    }
+
+    @Override
+    public RowMapper<T> specialize(ResultSet rs, StatementContext ctx) throws SQLException
+    {
+        ReflectionMappers config = ctx.getConfig(ReflectionMappers.class);
+        ResultSetMetaData metaData = rs.getMetaData();
+        int[] shape = new int[metaData.getColumnCount()];
+        for (int i = 0; i < shape.length; i++) {
+            shape[i] = metaData.getColumnType(i + 1);
+        }
+        String sql = ctx.getRenderedSql();
+        //the matchers are copied with the config of every handle, compare them by class
+        List<Class<?>> matchers = config.getColumnNameMatchers().stream().map(Object::getClass).collect(Collectors.toList());
+
+        ColumnPlanCache.Key key = new ColumnPlanCache.Key(getClass(), type, prefix,
+                sql == null ? columnLabels(metaData) : sql, shape, matchers, config.isStrictMatching());
+        Plan plan = ColumnPlanCache.plans().getIfPresent(key);
+        if (plan == null) {
+            plan = ColumnPlanCache.plans().putIfAbsent(key, plan(columnLabels(metaData), config));
+        }
+
+        ColumnMapper<?>[] mappers = new ColumnMapper<?>[plan.mapperTypes.length];
+        for (int i = 0; i < mappers.length; i++) {
+            Type mapperType = plan.mapperTypes[i];
+            mappers[i] = ctx.findColumnMapperFor(mapperType)
+                    .orElseThrow(() -> new NoSuchMapperException("No column mapper for " + mapperType + " in " + type));
+        }
+
+        ObjectReader reader = plan.reader;
+        return (r, c) -> type.cast(reader.read(r, c, mappers));
+    }
+
+    private Plan plan(List<String> columns, ReflectionMappers config)
+    {
+        MapperCodegen codegen = new MapperCodegen(columns, config.getColumnNameMatchers());
+        ObjectReader reader;
+        try {
+            reader = build(codegen, type, prefix);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unable to generate a mapper for " + type, e);
+        }
+        if (reader == null) {
+            throw new IllegalArgumentException("Mapping " + type + " didn't find any matching columns in " + columns);
+        }
+        if (config.isStrictMatching() && !codegen.unusedColumns().isEmpty()) {
+            throw new IllegalArgumentException("Mapping " + type + " could not match columns " + codegen.unusedColumns());
+        }
+        return new Plan(reader, codegen.getMapperTypes().toArray(new Type[0]));
+    }
+
+    private static List<String> columnLabels(ResultSetMetaData metaData) throws SQLException
+    {
+        List<String> columns = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.add(metaData.getColumnLabel(i));
+        }
+        return columns;
+    }
+
+    static final class Plan {
+        final ObjectReader reader;
+        final Type[] mapperTypes;
+
+        Plan(ObjectReader reader, Type[] mapperTypes) {
+            this.reader = reader;
+            this.mapperTypes = mapperTypes;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package mapper.generated;
+
+import org.jdbi.v3.core.generic.GenericTypes;
+import org.jdbi.v3.core.mapper.reflect.ColumnNameMatcher;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the columns of one result set layout, and generates the accessors the ObjectReaders call.
+ *
+ * Public setters and constructors get a class of their own through LambdaMetafactory,
+ * the same way the compiler implements a method reference like UserBean::setId,
+ * so the JIT sees a plain interface call instead of Method.invoke().
+ * Fields, and members the lambda cannot reach, fall back to a MethodHandle of the exact type.
+ */
+final class MapperCodegen {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    //Generated accessors by constructor, method or field, so a new column plan does not spin new classes
+    private static final Map<Object, Object> ACCESSORS = new ConcurrentHashMap<>();
+
+    private final List<String> columns;
+    private final List<ColumnNameMatcher> matchers;
+    private final BitSet used = new BitSet();
+    private final List<Type> mapperTypes = new ArrayList<>();
+
+    MapperCodegen(List<String> columns, List<ColumnNameMatcher> matchers) {
+        this.columns = columns;
+        this.matchers = matchers;
+    }
+
+    /**
+     * The JDBC index of the column matching the given name, or -1.
+     */
+    int findColumn(String javaName)
+    {
+        for (int i = 0; i < columns.size(); i++) {
+            for (ColumnNameMatcher matcher : matchers) {
+                if (matcher.columnNameMatches(columns.get(i), javaName)) {
+                    used.set(i);
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the column with the ResultSet getter for int, long, double, boolean and String,
+     * and with the registered ColumnMapper for everything else.
+     */
+    ObjectReader.Value column(int column, Type type)
+    {
+        Class<?> raw = GenericTypes.getErasedType(type);
+        if (raw == int.class) {
+            return new ObjectReader.Value(ObjectReader.INT, column, -1, null);
+        } else if (raw == long.class) {
+            return new ObjectReader.Value(ObjectReader.LONG, column, -1, null);
+        } else if (raw == double.class) {
+            return new ObjectReader.Value(ObjectReader.DOUBLE, column, -1, null);
+        } else if (raw == boolean.class) {
+            return new ObjectReader.Value(ObjectReader.BOOLEAN, column, -1, null);
+        } else if (raw == String.class) {
+            return new ObjectReader.Value(ObjectReader.STRING, column, -1, null);
+        }
+        mapperTypes.add(type);
+        return new ObjectReader.Value(ObjectReader.MAPPED, column, mapperTypes.size() - 1, null);
+    }
+
+    static Supplier<?> constructor(Constructor<?> constructor) throws ReflectiveOperationException
+    {
+        return (Supplier<?>) accessor(constructor, () -> generateConstructor(constructor));
+    }
+
+    /**
+     * A ObjIntConsumer, ObjLongConsumer, ObjDoubleConsumer or BiConsumer, depending on the kind of the value.
+     */
+    static Object setter(Method setter, byte kind) throws ReflectiveOperationException
+    {
+        return accessor(setter, () -> generateSetter(setter, kind));
+    }
+
+    static Object setter(Field field, byte kind) throws ReflectiveOperationException
+    {
+        return accessor(field, () -> {
+            field.setAccessible(true);
+            return exact(LOOKUP.unreflectSetter(field), kind);
+        });
+    }
+
+    /**
+     * The constructor as (Object[]) -> Object, for constructors with any number of parameters.
+     */
+    static MethodHandle spreader(Constructor<?> constructor) throws ReflectiveOperationException
+    {
+        //keyed apart from the no-arg Supplier of the same constructor
+        return (MethodHandle) accessor(new SpreaderKey(constructor), () -> {
+            constructor.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+            return handle.asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        });
+    }
+
+    private static Supplier<?> generateConstructor(Constructor<?> constructor) throws ReflectiveOperationException
+    {
+        constructor.setAccessible(true);
+        MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+        if (isPublic(constructor.getDeclaringClass(), constructor.getModifiers())) {
+            return (Supplier<?>) metafactory(Supplier.class, "get", MethodType.methodType(Object.class), handle, handle.type());
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(Object.class));
+        return () -> {
+            try {
+                return (Object) exact.invokeExact();
+            } catch (Throwable e) {
+                throw propagate(e);
+            }
+        };
+    }
+
+    private static Object generateSetter(Method setter, byte kind) throws ReflectiveOperationException
+    {
+        setter.setAccessible(true);
+        MethodHandle handle = LOOKUP.unreflect(setter);
+        if (isPublic(setter.getDeclaringClass(), setter.getModifiers())) {
+            return lambda(handle, kind);
+        }
+        return exact(handle, kind);
+    }
+
+    private interface Generator {
+        Object generate() throws ReflectiveOperationException;
+    }
+
+    private static Object accessor(Object key, Generator generator) throws ReflectiveOperationException
+    {
+        Object accessor = ACCESSORS.get(key);
+        if (accessor == null) {
+            accessor = generator.generate();
+            Object raced = ACCESSORS.putIfAbsent(key, accessor);
+            accessor = raced == null ? accessor : raced;
+        }
+        return accessor;
+    }
+
+    private static Object lambda(MethodHandle setter, byte kind) throws ReflectiveOperationException
+    {
+        MethodType type = setter.type();
+        switch (kind) {
+            case ObjectReader.INT:
+                return metafactory(ObjIntConsumer.class, "accept", MethodType.methodType(void.class, Object.class, int.class), setter, type);
+            case ObjectReader.LONG:
+                return metafactory(ObjLongConsumer.class, "accept", MethodType.methodType(void.class, Object.class, long.class), setter, type);
+            case ObjectReader.DOUBLE:
+                return metafactory(ObjDoubleConsumer.class, "accept", MethodType.methodType(void.class, Object.class, double.class), setter, type);
+            default:
+                return metafactory(BiConsumer.class, "accept", MethodType.methodType(void.class, Object.class, Object.class), setter, type.wrap().changeReturnType(void.class));
+        }
+    }
+
+    private static Object exact(MethodHandle setter, byte kind)
+    {
+        switch (kind) {
+            case ObjectReader.INT: {
+                MethodHandle exact = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+                return (ObjIntConsumer<Object>) (instance, value) -> {
+                    try {
+                        exact.invokeExact(instance, value);
+                    } catch (Throwable e) {
+                        throw propagate(e);
+                    }
+                };
+            }
+            case ObjectReader.LONG: {
+                MethodHandle exact = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+                return (ObjLongConsumer<Object>) (instance, value) -> {
+                    try {
+                        exact.invokeExact(instance, value);
+                    } catch (Throwable e) {
+                        throw propagate(e);
+                    }
+                };
+            }
+            case ObjectReader.DOUBLE: {
+                MethodHandle exact = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+                return (ObjDoubleConsumer<Object>) (instance, value) -> {
+                    try {
+                        exact.invokeExact(instance, value);
+                    } catch (Throwable e) {
+                        throw propagate(e);
+                    }
+                };
+            }
+            default: {
+                MethodHandle exact = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+                return (BiConsumer<Object, Object>) (instance, value) -> {
+                    try {
+                        exact.invokeExact(instance, value);
+                    } catch (Throwable e) {
+                        throw propagate(e);
+                    }
+                };
+            }
+        }
+    }
+
+    private static Object metafactory(Class<?> functionalInterface, String method, MethodType erased,
+                                      MethodHandle implementation, MethodType instantiated) throws ReflectiveOperationException
+    {
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, method, MethodType.methodType(functionalInterface),
+                    erased, implementation, instantiated);
+            return site.getTarget().invoke();
+        } catch (ReflectiveOperationException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isPublic(Class<?> type, int modifiers)
+    {
+        return Modifier.isPublic(type.getModifiers()) && Modifier.isPublic(modifiers);
+    }
+
+    static RuntimeException propagate(Throwable e)
+    {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e);
+    }
+
+    private static final class SpreaderKey {
+        private final Constructor<?> constructor;
+
+        SpreaderKey(Constructor<?> constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SpreaderKey && ((SpreaderKey) o).constructor.equals(constructor);
+        }
+
+        @Override
+        public int hashCode() {
+            return constructor.hashCode() * 31;
+        }
+    }
+
+    List<String> unusedColumns()
+    {
+        List<String> unused = new ArrayList<>();
+        for (int i = used.nextClearBit(0); i < columns.size(); i = used.nextClearBit(i + 1)) {
+            unused.add(columns.get(i));
+        }
+        return unused;
+    }
+
+    List<Type> getMapperTypes() {
+        return mapperTypes;
+    }
+}
@@ -0,0 +1,156 @@
+package mapper.generated;
+
+import org.jdbi.v3.core.mapper.ColumnMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.lang.invoke.MethodHandle;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds one object of a row from a fixed list of values, resolved once per column layout.
+ */
+abstract class ObjectReader {
+    static final byte INT = 0;
+    static final byte LONG = 1;
+    static final byte DOUBLE = 2;
+    static final byte BOOLEAN = 3;
+    static final byte STRING = 4;
+    static final byte MAPPED = 5;
+    static final byte NESTED = 6;
+
+    /**
+     * Where one value comes from: a column read by kind, the ColumnMapper in a slot, or a nested object.
+     */
+    static final class Value {
+        final byte kind;
+        final int column;
+        final int slot;
+        final ObjectReader nested;
+
+        Value(byte kind, int column, int slot, ObjectReader nested) {
+            this.kind = kind;
+            this.column = column;
+            this.slot = slot;
+            this.nested = nested;
+        }
+
+        static Value nested(ObjectReader nested)
+        {
+            return new Value(NESTED, -1, -1, nested);
+        }
+    }
+
+    final byte[] kinds;
+    final int[] columns;
+    final int[] slots;
+    final ObjectReader[] nested;
+
+    ObjectReader(List<Value> values) {
+        kinds = new byte[values.size()];
+        columns = new int[values.size()];
+        slots = new int[values.size()];
+        nested = new ObjectReader[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            Value value = values.get(i);
+            kinds[i] = value.kind;
+            columns[i] = value.column;
+            slots[i] = value.slot;
+            nested[i] = value.nested;
+        }
+    }
+
+    abstract Object read(ResultSet rs, StatementContext ctx, ColumnMapper<?>[] mappers) throws SQLException;
+
+    final Object value(int i, ResultSet rs, StatementContext ctx, ColumnMapper<?>[] mappers) throws SQLException
+    {
+        switch (kinds[i]) {
+            case INT:
+                return rs.getInt(columns[i]);
+            case LONG:
+                return rs.getLong(columns[i]);
+            case DOUBLE:
+                return rs.getDouble(columns[i]);
+            case BOOLEAN:
+                return rs.getBoolean(columns[i]);
+            case STRING:
+                return rs.getString(columns[i]);
+            case MAPPED:
+                return mappers[slots[i]].map(rs, columns[i], ctx);
+            default:
+                return nested[i].read(rs, ctx, mappers);
+        }
+    }
+
+    /**
+     * No-arg constructor, then one setter call per value. Used for beans and fields.
+     */
+    static final class Setters extends ObjectReader {
+        private final Supplier<?> constructor;
+        private final Object[] setters;
+
+        Setters(Supplier<?> constructor, List<Value> values, List<Object> setters) {
+            super(values);
+            this.constructor = constructor;
+            this.setters = setters.toArray();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object read(ResultSet rs, StatementContext ctx, ColumnMapper<?>[] mappers) throws SQLException
+        {
+            Object instance = constructor.get();
+            for (int i = 0; i < kinds.length; i++) {
+                switch (kinds[i]) {
+                    case INT:
+                        ((ObjIntConsumer<Object>) setters[i]).accept(instance, rs.getInt(columns[i]));
+                        break;
+                    case LONG:
+                        ((ObjLongConsumer<Object>) setters[i]).accept(instance, rs.getLong(columns[i]));
+                        break;
+                    case DOUBLE:
+                        ((ObjDoubleConsumer<Object>) setters[i]).accept(instance, rs.getDouble(columns[i]));
+                        break;
+                    default:
+                        ((BiConsumer<Object, Object>) setters[i]).accept(instance, value(i, rs, ctx, mappers));
+                }
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * One constructor call with every value as an argument.
+     * The values are boxed into an Object[] for the spreader, primitive columns included.
+     */
+    static final class Arguments extends ObjectReader {
+        private final MethodHandle constructor;
+
+        Arguments(MethodHandle constructor, List<Value> values) {
+            super(values);
+            this.constructor = constructor;
+        }
+
+        @Override
+        Object read(ResultSet rs, StatementContext ctx, ColumnMapper<?>[] mappers) throws SQLException
+        {
+            Object[] arguments = new Object[kinds.length];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = value(i, rs, ctx, mappers);
+            }
+            try {
+                return (Object) constructor.invokeExact(arguments);
+            } catch (SQLException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw MapperCodegen.propagate(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package mapper.generated;
+
+import org.jdbi.v3.sqlobject.config.ConfiguringAnnotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The generated counterpart of @RegisterBeanMapper, @RegisterFieldMapper and @RegisterConstructorMapper.
+ */
+@ConfiguringAnnotation(RegisterGeneratedMapperImpl.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Repeatable(RegisterGeneratedMappers.class)
+public @interface RegisterGeneratedMapper {
+    enum Kind { BEAN, FIELD, CONSTRUCTOR }
+
+    Class<?> value();
+
+    String prefix() default "";
+
+    Kind kind() default Kind.BEAN;
+}
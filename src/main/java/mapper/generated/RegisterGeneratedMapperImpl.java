@@ -0,0 +1,45 @@
+package mapper.generated;
+
+import org.jdbi.v3.core.config.ConfigRegistry;
+import org.jdbi.v3.core.mapper.RowMapperFactory;
+import org.jdbi.v3.core.mapper.RowMappers;
+import org.jdbi.v3.sqlobject.config.Configurer;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Registers the mappers of @RegisterGeneratedMapper and @RegisterGeneratedMappers.
+ */
+public class RegisterGeneratedMapperImpl implements Configurer {
+    @Override
+    public void configureForType(ConfigRegistry registry, Annotation annotation, Class<?> sqlObjectType)
+    {
+        RowMappers mappers = registry.get(RowMappers.class);
+        if (annotation instanceof RegisterGeneratedMappers) {
+            for (RegisterGeneratedMapper mapper : ((RegisterGeneratedMappers) annotation).value()) {
+                mappers.register(factory(mapper));
+            }
+        } else {
+            mappers.register(factory((RegisterGeneratedMapper) annotation));
+        }
+    }
+
+    @Override
+    public void configureForMethod(ConfigRegistry registry, Annotation annotation, Class<?> sqlObjectType, Method method)
+    {
+        configureForType(registry, annotation, sqlObjectType);
+    }
+
+    private static RowMapperFactory factory(RegisterGeneratedMapper mapper)
+    {
+        switch (mapper.kind()) {
+            case FIELD:
+                return GeneratedFieldMapper.factory(mapper.value(), mapper.prefix());
+            case CONSTRUCTOR:
+                return GeneratedConstructorMapper.factory(mapper.value(), mapper.prefix());
+            default:
+                return GeneratedBeanMapper.factory(mapper.value(), mapper.prefix());
+        }
+    }
+}
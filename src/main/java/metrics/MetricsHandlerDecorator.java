@@ -0,0 +1,110 @@
+package metrics;
+
+import org.jdbi.v3.sqlobject.Handler;
+import org.jdbi.v3.sqlobject.HandlerDecorator;
+import org.jdbi.v3.sqlobject.SqlOperation;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+
+/**
+ * Times every SqlObject method that runs SQL, including mapping its result,
+ * and counts what the method returned:
+ *
+ * - a query returning a collection, map, array or Optional counts its elements as rows returned,
+ *   any other non null result counts as one row. Streams and iterators are not consumed, so they are not counted.
+ * - a batch (or any operation returning int[]) records its length as the batch size, and the sum of the counts as rows affected.
+ * - an update returning a number records it as rows affected.
+ */
+class MetricsHandlerDecorator implements HandlerDecorator {
+    private final StatementMetrics metrics;
+
+    MetricsHandlerDecorator(StatementMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Handler decorateHandler(Handler base, Class<?> sqlObjectType, Method method)
+    {
+        Annotation operation = sqlOperation(method);
+        if (operation == null) {
+            return base;
+        }
+        String name = StatementMetrics.methodName(sqlObjectType, method.getName());
+        boolean query = operation instanceof SqlQuery;
+        boolean update = operation instanceof SqlUpdate;
+
+        return (target, args, handle) -> {
+            StatementStats stats = metrics.method(name);
+            long start = System.nanoTime();
+            try {
+                Object result = base.invoke(target, args, handle);
+                stats.recordLatency(System.nanoTime() - start);
+                if (result instanceof int[]) {
+                    recordBatch(stats, (int[]) result);
+                } else if (query) {
+                    stats.recordRowsReturned(count(result));
+                } else if (update && result instanceof Number) {
+                    stats.recordRowsAffected(((Number) result).longValue());
+                }
+                return result;
+            } catch (Exception | Error e) {
+                stats.recordLatency(System.nanoTime() - start);
+                stats.recordError();
+                throw e;
+            }
+        };
+    }
+
+    private static Annotation sqlOperation(Method method)
+    {
+        for (Annotation annotation : method.getAnnotations()) {
+            if (annotation.annotationType().isAnnotationPresent(SqlOperation.class)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static void recordBatch(StatementStats stats, int[] counts)
+    {
+        stats.recordBatchSize(counts.length);
+        long affected = 0;
+        for (int count : counts) {
+            //Statement.SUCCESS_NO_INFO is negative
+            affected += Math.max(count, 0);
+        }
+        stats.recordRowsAffected(affected);
+    }
+
+    private static long count(Object result)
+    {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result.getClass().isArray()) {
+            return Array.getLength(result);
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Iterable || result instanceof Iterator || result instanceof BaseStream) {
+            return 0;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,64 @@
+package metrics;
+
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Records the execution time of every statement, from the moments Jdbi stamps on the StatementContext,
+ * then hands the statement on to the SqlLogger that was configured before.
+ *
+ * The time covers execute() only. Fetching and mapping the rows happens later, in the caller,
+ * which is why SqlObject methods are timed as a whole by the MetricsHandlerDecorator.
+ */
+class MetricsSqlLogger implements SqlLogger {
+    private final StatementMetrics metrics;
+    private final SqlLogger next;
+
+    MetricsSqlLogger(StatementMetrics metrics, SqlLogger next) {
+        this.metrics = metrics;
+        this.next = next;
+    }
+
+    @Override
+    public void logBeforeExecution(StatementContext ctx)
+    {
+        next.logBeforeExecution(ctx);
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext ctx)
+    {
+        StatementStats stats = metrics.recordStatement(ctx, elapsedNanos(ctx, ctx.getCompletionMoment()), false);
+        //the update count of the statement just executed, -1 when it returned a result set
+        PreparedStatement statement = ctx.getStatement();
+        if (statement != null) {
+            try {
+                int updateCount = statement.getUpdateCount();
+                if (updateCount > 0) {
+                    stats.recordRowsAffected(updateCount);
+                }
+            } catch (SQLException ignored) {
+                //not every driver answers after executeBatch(), the count is just not recorded
+            }
+        }
+        next.logAfterExecution(ctx);
+    }
+
+    @Override
+    public void logException(StatementContext ctx, SQLException ex)
+    {
+        metrics.recordStatement(ctx, elapsedNanos(ctx, ctx.getExceptionMoment()), true);
+        next.logException(ctx, ex);
+    }
+
+    private static long elapsedNanos(StatementContext ctx, Instant end)
+    {
+        Instant start = ctx.getExecutionMoment();
+        return start == null || end == null ? 0 : Duration.between(start, end).toNanos();
+    }
+}
@@ -0,0 +1,67 @@
+package metrics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement that ran longer than the slow query threshold.
+ * It carries the fingerprint and the names of the bound parameters, never the SQL literals or the bound values.
+ */
+public class SlowQuery {
+    private final String fingerprint;
+    private final String method;
+    private final List<String> parameters;
+    private final long elapsedMicros;
+    private final Instant start;
+    private final boolean failed;
+
+    SlowQuery(String fingerprint, String method, List<String> parameters, long elapsedMicros, Instant start, boolean failed) {
+        this.fingerprint = fingerprint;
+        this.method = method;
+        this.parameters = parameters;
+        this.elapsedMicros = elapsedMicros;
+        this.start = start;
+        this.failed = failed;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * The SqlObject method that ran the statement as Type.method, or null for the fluent API.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * The bound parameters as :name or ?position, their values are redacted.
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(SlowQuery elapsed:" + elapsedMicros / 1000.0 + "ms" +
+                (method == null ? "" : ", method:" + method) +
+                ", sql:" + fingerprint +
+                ", binds:" + parameters + "=<redacted>" +
+                (failed ? ", failed" : "") +
+                ")";
+    }
+}
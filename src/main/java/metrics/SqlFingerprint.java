@@ -0,0 +1,143 @@
+package metrics;
+
+import cache.BoundedCache;
+
+/**
+ * Normalizes SQL text into the shape of the statement, so executions that only differ in their values share one set of stats:
+ *
+ *     SELECT * FROM user WHERE id IN (1, 2, 3) AND name = 'Bob'
+ *     -> select * from user where id in (?...) and name = ?
+ *
+ * String and number literals and named parameters become ?, lists of ? collapse to ?...,
+ * comments are dropped, whitespace is collapsed and everything outside double quotes is lower cased.
+ * The fingerprint holds no literal values, so it is safe to log.
+ */
+public final class SqlFingerprint {
+    private static final BoundedCache<String, String> FINGERPRINTS = new BoundedCache<>(10_000);
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql)
+    {
+        return FINGERPRINTS.get(sql, SqlFingerprint::normalize);
+    }
+
+    static String normalize(String sql)
+    {
+        StringBuilder out = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                placeholder(out);
+            } else if (c == '"') {
+                int end = skipQuoted(sql, i, '"');
+                out.append(sql, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end;
+            } else if (c == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else if (Character.isWhitespace(c)) {
+                if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+                    out.append(' ');
+                }
+                i++;
+            } else if (c == ':' && i + 1 < sql.length() && sql.charAt(i + 1) == ':') {
+                //a cast like ::text, not a parameter
+                out.append("::");
+                i += 2;
+            } else if (c == ':' && i + 1 < sql.length() && Character.isJavaIdentifierStart(sql.charAt(i + 1))) {
+                i += 2;
+                while (i < sql.length() && (Character.isJavaIdentifierPart(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                placeholder(out);
+            } else if (c == '?') {
+                placeholder(out);
+                i++;
+            } else if (Character.isDigit(c) && !inIdentifier(out)) {
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                placeholder(out);
+            } else if (Character.isJavaIdentifierPart(c)) {
+                int end = i;
+                while (end < sql.length() && Character.isJavaIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                out.append(sql.substring(i, end).toLowerCase());
+                i = end;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ' ' || out.charAt(end - 1) == ';')) {
+            end--;
+        }
+        out.setLength(end);
+        return out.toString();
+    }
+
+    /*
+    Appends a ?, unless it continues a list "?, ?", which is then written as "?...".
+    IN lists and multi-row VALUES of any length end up with the same fingerprint.
+     */
+    private static void placeholder(StringBuilder out)
+    {
+        int end = out.length();
+        int i = end;
+        while (i > 0 && out.charAt(i - 1) == ' ') {
+            i--;
+        }
+        if (i > 0 && out.charAt(i - 1) == ',') {
+            int j = i - 1;
+            while (j > 0 && out.charAt(j - 1) == ' ') {
+                j--;
+            }
+            if (endsWith(out, j, "?...")) {
+                out.setLength(j);
+                return;
+            }
+            if (endsWith(out, j, "?")) {
+                out.setLength(j);
+                out.append("...");
+                return;
+            }
+        }
+        out.append('?');
+    }
+
+    private static boolean endsWith(StringBuilder out, int end, String suffix)
+    {
+        return end >= suffix.length() && out.substring(end - suffix.length(), end).equals(suffix);
+    }
+
+    private static boolean inIdentifier(StringBuilder out)
+    {
+        return out.length() > 0 && Character.isJavaIdentifierPart(out.charAt(out.length() - 1));
+    }
+
+    private static int skipQuoted(String sql, int start, char quote)
+    {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                //a doubled quote is an escaped quote
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+}
@@ -0,0 +1,193 @@
+package metrics;
+
+import org.jdbi.v3.core.extension.ExtensionMethod;
+import org.jdbi.v3.core.statement.ParsedParameters;
+import org.jdbi.v3.core.statement.ParsedSql;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The stats recorded by a StatementMetricsPlugin: one StatementStats per SQL fingerprint,
+ * and one per SqlObject method, which also includes mapping the result.
+ *
+ * Statements slower than the slow query threshold are passed to the slow query log,
+ * which by default logs them as warnings to the "metrics.slow" logger.
+ *
+ * The number of fingerprints is capped, statements beyond the cap are recorded under OTHER,
+ * so SQL built from unbounded input cannot grow the stats forever.
+ */
+public class StatementMetrics {
+    public static final String OTHER = "(other)";
+
+    private static final Logger SLOW_LOG = LoggerFactory.getLogger("metrics.slow");
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> methods = new ConcurrentHashMap<>();
+    private final int maxStatements;
+    private volatile long slowThresholdNanos = Duration.ofMillis(500).toNanos();
+    private volatile Consumer<SlowQuery> slowQueryLog = slowQuery -> SLOW_LOG.warn("{}", slowQuery);
+
+    public StatementMetrics() {
+        this(1000);
+    }
+
+    public StatementMetrics(int maxStatements) {
+        if (maxStatements < 1) {
+            throw new IllegalArgumentException("maxStatements must be at least 1, was " + maxStatements);
+        }
+        this.maxStatements = maxStatements;
+    }
+
+    public Duration getSlowThreshold() {
+        return Duration.ofNanos(slowThresholdNanos);
+    }
+
+    public StatementMetrics setSlowThreshold(Duration slowThreshold) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        return this;
+    }
+
+    public StatementMetrics setSlowQueryLog(Consumer<SlowQuery> slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+        return this;
+    }
+
+    /**
+     * The stats of a fingerprint, see SqlFingerprint.of(sql), or null if it has not run.
+     */
+    public StatementStats getStatement(String fingerprint)
+    {
+        return statements.get(fingerprint);
+    }
+
+    /**
+     * The stats of a SqlObject method, named Type.method, or null if it has not run.
+     */
+    public StatementStats getMethod(String method)
+    {
+        return methods.get(method);
+    }
+
+    /**
+     * All statement stats, slowest p99 first.
+     */
+    public List<StatementStats> getStatements()
+    {
+        return sortedByP99(statements);
+    }
+
+    /**
+     * All SqlObject method stats, slowest p99 first.
+     */
+    public List<StatementStats> getMethods()
+    {
+        return sortedByP99(methods);
+    }
+
+    public void reset()
+    {
+        statements.values().forEach(StatementStats::reset);
+        methods.values().forEach(StatementStats::reset);
+    }
+
+    /**
+     * A table of counts and latency percentiles, methods first, then statements.
+     */
+    public String report()
+    {
+        StringBuilder report = new StringBuilder();
+        appendTable(report, "method", getMethods());
+        appendTable(report, "statement", getStatements());
+        return report.toString();
+    }
+
+    /**
+     * @return the stats the statement was recorded in
+     */
+    StatementStats recordStatement(StatementContext ctx, long nanos, boolean failed)
+    {
+        String fingerprint = SqlFingerprint.of(ctx.getRawSql());
+        StatementStats stats = statements.get(fingerprint);
+        if (stats == null) {
+            stats = statements.size() < maxStatements
+                    ? statements.computeIfAbsent(fingerprint, StatementStats::new)
+                    : statements.computeIfAbsent(OTHER, StatementStats::new);
+        }
+        stats.recordLatency(nanos);
+        if (failed) {
+            stats.recordError();
+        }
+
+        if (nanos >= slowThresholdNanos) {
+            slowQueryLog.accept(new SlowQuery(fingerprint, methodName(ctx.getExtensionMethod()), parameters(ctx.getParsedSql()),
+                    nanos / 1000, ctx.getExecutionMoment(), failed));
+        }
+        return stats;
+    }
+
+    StatementStats method(String name)
+    {
+        return methods.computeIfAbsent(name, StatementStats::new);
+    }
+
+    static String methodName(ExtensionMethod method)
+    {
+        return method == null ? null : methodName(method.getType(), method.getMethod().getName());
+    }
+
+    static String methodName(Class<?> type, String method)
+    {
+        return type.getSimpleName() + "." + method;
+    }
+
+    private static List<String> parameters(ParsedSql parsedSql)
+    {
+        if (parsedSql == null) {
+            return Collections.emptyList();
+        }
+        ParsedParameters parameters = parsedSql.getParameters();
+        List<String> names = new ArrayList<>();
+        if (parameters.isPositional()) {
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                names.add("?" + i);
+            }
+        } else {
+            for (String name : parameters.getParameterNames()) {
+                names.add(":" + name);
+            }
+        }
+        return names;
+    }
+
+    private static List<StatementStats> sortedByP99(Map<String, StatementStats> stats)
+    {
+        List<StatementStats> sorted = new ArrayList<>(stats.values());
+        sorted.sort(Comparator.comparingLong((StatementStats s) -> s.getLatencyMicros(99)).reversed());
+        return sorted;
+    }
+
+    private static void appendTable(StringBuilder report, String title, List<StatementStats> rows)
+    {
+        if (rows.isEmpty()) {
+            return;
+        }
+        report.append(String.format("%8s %6s %9s %9s %9s %9s %10s %10s  %s%n",
+                "count", "errors", "p50 us", "p99 us", "p99.9 us", "max us", "returned", "affected", title));
+        for (StatementStats stats : rows) {
+            report.append(String.format("%8d %6d %9d %9d %9d %9d %10d %10d  %s%n",
+                    stats.getCount(), stats.getErrors(),
+                    stats.getLatencyMicros(50), stats.getLatencyMicros(99), stats.getLatencyMicros(99.9),
+                    stats.getMaxLatencyMicros(), stats.getRowsReturned(), stats.getRowsAffected(), stats.getName()));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package metrics;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.spi.JdbiPlugin;
+import org.jdbi.v3.core.statement.SqlStatements;
+import org.jdbi.v3.sqlobject.HandlerDecorators;
+
+/**
+ * Records latency histograms, row counts and slow queries for every statement run through the Jdbi:
+ *
+ *     StatementMetrics metrics = new StatementMetrics().setSlowThreshold(Duration.ofMillis(100));
+ *     jdbi.installPlugin(new StatementMetricsPlugin(metrics));
+ *     ...
+ *     System.out.println(metrics.report());
+ *
+ * Statements are grouped by their SqlFingerprint, and SqlObject methods by Type.method.
+ * The plugin wraps the SqlLogger configured at install time, so install it after any other SqlLogger,
+ * and before the first SqlObject is attached, as SqlObject handlers are decorated when they are built.
+ */
+public class StatementMetricsPlugin implements JdbiPlugin {
+    private final StatementMetrics metrics;
+
+    public StatementMetricsPlugin() {
+        this(new StatementMetrics());
+    }
+
+    public StatementMetricsPlugin(StatementMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void customizeJdbi(Jdbi jdbi)
+    {
+        SqlStatements statements = jdbi.getConfig(SqlStatements.class);
+        statements.setSqlLogger(new MetricsSqlLogger(metrics, statements.getSqlLogger()));
+        jdbi.getConfig(HandlerDecorators.class).register(new MetricsHandlerDecorator(metrics));
+    }
+
+    public StatementMetrics getMetrics() {
+        return metrics;
+    }
+}
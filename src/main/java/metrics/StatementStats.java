@@ -0,0 +1,131 @@
+package metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and row counters of one statement fingerprint, or of one SqlObject method.
+ *
+ * Latencies are recorded in microseconds into an HdrHistogram with 2 significant digits,
+ * so a percentile is off by at most 1%, and the histogram stays at a few kilobytes whatever the range.
+ * Recording is wait-free, statements on any number of threads record into the same stats.
+ */
+public class StatementStats {
+    private final String name;
+    private final ConcurrentHistogram latencyMicros = new ConcurrentHistogram(2);
+    //3 digits, so batch sizes below 2048 are recorded exactly
+    private final ConcurrentHistogram batchSizes = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rowsReturned = new LongAdder();
+    private final LongAdder rowsAffected = new LongAdder();
+
+    StatementStats(String name) {
+        this.name = name;
+    }
+
+    void recordLatency(long nanos)
+    {
+        latencyMicros.recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0));
+    }
+
+    void recordError()
+    {
+        errors.increment();
+    }
+
+    void recordRowsReturned(long rows)
+    {
+        rowsReturned.add(rows);
+    }
+
+    void recordRowsAffected(long rows)
+    {
+        rowsAffected.add(rows);
+    }
+
+    void recordBatchSize(int size)
+    {
+        batchSizes.recordValue(size);
+    }
+
+    /**
+     * The SQL fingerprint, or the SqlObject method as Type.method.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return latencyMicros.getTotalCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    public long getRowsAffected() {
+        return rowsAffected.sum();
+    }
+
+    /**
+     * @param percentile from 0 to 100, e.g. 99.9
+     */
+    public long getLatencyMicros(double percentile)
+    {
+        return latencyMicros.getValueAtPercentile(percentile);
+    }
+
+    public long getMaxLatencyMicros() {
+        return latencyMicros.getMaxValue();
+    }
+
+    public double getMeanLatencyMicros() {
+        return latencyMicros.getMean();
+    }
+
+    /**
+     * A copy of the latency histogram in microseconds, e.g. for outputPercentileDistribution().
+     */
+    public Histogram getLatencyHistogram()
+    {
+        return latencyMicros.copy();
+    }
+
+    /**
+     * A copy of the histogram of batch sizes, empty for statements that are not batches.
+     */
+    public Histogram getBatchSizeHistogram()
+    {
+        return batchSizes.copy();
+    }
+
+    void reset()
+    {
+        latencyMicros.reset();
+        batchSizes.reset();
+        errors.reset();
+        rowsReturned.reset();
+        rowsAffected.reset();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(StatementStats name:" + name +
+                ", count:" + getCount() +
+                ", errors:" + getErrors() +
+                ", p50:" + getLatencyMicros(50) + "us" +
+                ", p99:" + getLatencyMicros(99) + "us" +
+                ", max:" + getMaxLatencyMicros() + "us" +
+                ", rowsReturned:" + getRowsReturned() +
+                ", rowsAffected:" + getRowsAffected() +
+                ")";
+    }
+}
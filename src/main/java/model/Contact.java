@@ -1,10 +1,14 @@
 package model;
 
 import java.beans.ConstructorProperties;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Contact {
     public int id;
     public String name;
+    //Filled by join.OneToManyReducer, not mapped from a column
+    private final List<Phone> phones = new ArrayList<>();
 
     public Contact(){}
 
@@ -35,4 +39,12 @@ public class Contact {
     public void setName(String name) {
         this.name = name;
     }
+
+    public List<Phone> getPhones() {
+        return phones;
+    }
+
+    public void addPhone(Phone phone) {
+        phones.add(phone);
+    }
 }
@@ -0,0 +1,217 @@
+package paging;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.mapper.ColumnMapper;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.Query;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Pages through a query by its ordering key (keyset or seek pagination), instead of with OFFSET.
+ *
+ * Page n with OFFSET makes the database read and skip every row of the pages before it,
+ * so the deeper the page the slower the query. A keyset page asks for the rows after the last key seen,
+ * "where id > :lastKey order by id limit :pageSize", which is an index range scan of one page whatever its depth.
+ * The key must be unique and indexed, e.g. the primary key.
+ *
+ * On a plain query, the paginator adds the key condition, the order by and the limit:
+ *
+ *     KeysetPaginator<User, Integer> users = KeysetPaginator.forQuery(handle,
+ *             "select id, name from user where <keyset>", "id", Integer.class, ConstructorMapper.of(User.class), 100);
+ *     users.pages().forEach(page -> ...);
+ *
+ * On a SqlObject method, the method has the condition, the order by and the limit itself:
+ *
+ *     @SqlQuery("select * from users where id > :after order by id limit :limit")
+ *     List<User> listAfter(@Bind("after") int after, @Bind("limit") int limit);
+ *
+ *     KeysetPaginator.of(dao::listAfter, User::getId, 0, 100)
+ *
+ * Pages and streams are fetched lazily on the handle they were created with, so consume them before it is closed.
+ */
+public class KeysetPaginator<T, K> {
+    public enum Order {
+        ASC(" > "),
+        DESC(" < ");
+
+        private final String operator;
+
+        Order(String operator) {
+            this.operator = operator;
+        }
+    }
+
+    /**
+     * Fetches at most limit rows whose key comes after the given key, in key order.
+     */
+    @FunctionalInterface
+    public interface PageQuery<T, K> {
+        List<T> fetch(K after, int limit);
+    }
+
+    @FunctionalInterface
+    interface PageFetcher<T, K> {
+        Page<T, K> fetch(K after, int pageSize);
+    }
+
+    private final PageFetcher<T, K> fetcher;
+    private final K start;
+    private final int pageSize;
+
+    private KeysetPaginator(PageFetcher<T, K> fetcher, K start, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1, was " + pageSize);
+        }
+        this.fetcher = fetcher;
+        this.start = start;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Pages through a query that takes the key to start after, e.g. a SqlObject method.
+     *
+     * @param start the key the first page starts after, e.g. 0 for positive ids
+     */
+    public static <T, K> KeysetPaginator<T, K> of(PageQuery<T, K> query, Function<? super T, ? extends K> keyOf,
+                                                  K start, int pageSize)
+    {
+        return new KeysetPaginator<>((after, size) -> {
+            List<T> rows = new ArrayList<>(query.fetch(after, size + 1));
+            boolean hasNext = rows.size() > size;
+            if (hasNext) {
+                rows.subList(size, rows.size()).clear();
+            }
+            K lastKey = rows.isEmpty() ? after : keyOf.apply(rows.get(rows.size() - 1));
+            return new Page<>(rows, lastKey, hasNext);
+        }, start, pageSize);
+    }
+
+    public static <T, K> KeysetPaginator<T, K> forQuery(Handle handle, String sql, String keyColumn, Class<K> keyType,
+                                                        RowMapper<T> mapper, int pageSize)
+    {
+        return forQuery(handle, sql, keyColumn, keyType, mapper, Order.ASC, pageSize);
+    }
+
+    /**
+     * Pages through a select whose where clause has a {@code <keyset>} placeholder.
+     * The paginator defines it as the key condition (1 = 1 on the first page) and appends the order by and the limit,
+     * so the sql must not have an order by or limit of its own. The limit clause is the one H2, PostgreSQL and MySQL share.
+     *
+     * @param keyColumn the column to order by, as written in the sql, e.g. u.id.
+     *                  Its value is read from the result set column of the same name, without the table alias.
+     */
+    public static <T, K> KeysetPaginator<T, K> forQuery(Handle handle, String sql, String keyColumn, Class<K> keyType,
+                                                        RowMapper<T> mapper, Order order, int pageSize)
+    {
+        if (!sql.contains("<keyset>")) {
+            throw new IllegalArgumentException("The sql has no <keyset> placeholder for the key condition: " + sql);
+        }
+        String pagedSql = sql + " order by " + keyColumn + (order == Order.DESC ? " desc" : "") + " limit :keyset_limit";
+        String condition = keyColumn + order.operator + ":keyset_after";
+        String label = keyColumn.substring(keyColumn.lastIndexOf('.') + 1);
+
+        return new KeysetPaginator<>((after, size) -> {
+            Query query = handle.createQuery(pagedSql)
+                    .define("keyset", after == null ? "1 = 1" : condition)
+                    .bind("keyset_limit", size + 1);
+            if (after != null) {
+                query.bindByType("keyset_after", after, keyType);
+            }
+            return query.scanResultSet((supplier, ctx) -> {
+                try {
+                    ResultSet rs = supplier.get();
+                    ColumnMapper<K> keyMapper = ctx.findColumnMapperFor(keyType)
+                            .orElseThrow(() -> new IllegalArgumentException("No column mapper for key type " + keyType));
+                    int keyIndex = rs.findColumn(label);
+                    RowMapper<T> rowMapper = mapper.specialize(rs, ctx);
+
+                    List<T> rows = new ArrayList<>(size);
+                    K lastKey = after;
+                    boolean hasNext = false;
+                    while (rs.next()) {
+                        if (rows.size() == size) {
+                            hasNext = true;
+                            break;
+                        }
+                        rows.add(rowMapper.map(rs, ctx));
+                        lastKey = keyMapper.map(rs, keyIndex, ctx);
+                    }
+                    return new Page<>(rows, lastKey, hasNext);
+                } finally {
+                    ctx.close();
+                }
+            });
+        }, null, pageSize);
+    }
+
+    public Page<T, K> firstPage()
+    {
+        return page(start);
+    }
+
+    /**
+     * The page of rows after the given key, e.g. the last key a client was handed with the previous page.
+     */
+    public Page<T, K> page(K after)
+    {
+        return fetcher.fetch(after, pageSize);
+    }
+
+    public Page<T, K> next(Page<T, K> page)
+    {
+        if (!page.hasNext()) {
+            throw new IllegalStateException("There is no page after " + page);
+        }
+        return page(page.getLastKey());
+    }
+
+    /**
+     * Every page from the first one, each fetched when the stream gets to it.
+     */
+    public Stream<Page<T, K>> pages()
+    {
+        Iterator<Page<T, K>> iterator = new Iterator<Page<T, K>>() {
+            private Page<T, K> previous;
+
+            @Override
+            public boolean hasNext()
+            {
+                return previous == null || previous.hasNext();
+            }
+
+            @Override
+            public Page<T, K> next()
+            {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                previous = previous == null ? firstPage() : page(previous.getLastKey());
+                return previous;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Every row, fetched a page at a time.
+     */
+    public Stream<T> stream()
+    {
+        return pages().flatMap(page -> page.getItems().stream());
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+}
@@ -0,0 +1,51 @@
+package paging;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a KeysetPaginator: its rows, and the key of the last row, which the next page starts after.
+ * Hand the last key to a client, and KeysetPaginator.page(lastKey) returns the next page without any server state.
+ */
+public class Page<T, K> {
+    private final List<T> items;
+    private final K lastKey;
+    private final boolean hasNext;
+
+    Page(List<T> items, K lastKey, boolean hasNext) {
+        this.items = Collections.unmodifiableList(items);
+        this.lastKey = lastKey;
+        this.hasNext = hasNext;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * The key of the last row, or the key this page started after when it is empty.
+     */
+    public K getLastKey() {
+        return lastKey;
+    }
+
+    /**
+     * Whether there is at least one row after this page, the paginator fetches one row more than the page size to know.
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(Page items:" + items.size() +
+                ", lastKey:" + lastKey +
+                ", hasNext:" + hasNext +
+                ")";
+    }
+}
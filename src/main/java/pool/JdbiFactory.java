@@ -0,0 +1,143 @@
+package pool;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.jdbi.v3.core.Jdbi;
+import statement.CachingStatementBuilderFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out one Jdbi per database, each backed by a bounded HikariCP connection pool.
+ *
+ * Jdbi.create(url) opens a new DriverManager connection for every handle.
+ * A pooled Jdbi pays the connection setup once, and caps the connections per database at maximumPoolSize.
+ *
+ * The pools are configured once through PoolSettings:
+ * they are warmed up to minimumIdle connections when created,
+ * connections are validated with Connection.isValid() when borrowed after being idle,
+ * and connections held longer than the leak detection threshold are logged with the stack trace of the borrower.
+ * Each handle keeps up to statementCacheSize prepared statements open, see CachingStatementBuilderFactory.
+ */
+public class JdbiFactory implements AutoCloseable {
+    private static final JdbiFactory SHARED = new JdbiFactory(new PoolSettings());
+    private static final AtomicInteger POOLS = new AtomicInteger();
+
+    private final PoolSettings settings;
+    private final Map<String, Jdbi> jdbis = new ConcurrentHashMap<>();
+    private final Map<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+
+    public JdbiFactory(PoolSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * The factory used by the demos, configured with the default PoolSettings.
+     */
+    public static JdbiFactory shared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * A pooled Jdbi for the in-memory H2 database with the given name.
+     * The database lives as long as its pool holds at least one connection.
+     */
+    public Jdbi forDatabase(String name)
+    {
+        return forUrl("jdbc:h2:mem:" + name);
+    }
+
+    /**
+     * The same url always returns the same Jdbi, so the pool is created only on first use.
+     */
+    public Jdbi forUrl(String jdbcUrl)
+    {
+        return jdbis.computeIfAbsent(jdbcUrl, this::createJdbi);
+    }
+
+    public HikariDataSource dataSource(String jdbcUrl)
+    {
+        return dataSources.computeIfAbsent(jdbcUrl, this::createDataSource);
+    }
+
+    public PoolSettings getSettings() {
+        return settings;
+    }
+
+    public int getMaximumPoolSize() {
+        return settings.getMaximumPoolSize();
+    }
+
+    private Jdbi createJdbi(String jdbcUrl)
+    {
+        Jdbi jdbi = Jdbi.create(dataSource(jdbcUrl));
+        if (settings.getStatementCacheSize() > 0) {
+            jdbi.setStatementBuilderFactory(new CachingStatementBuilderFactory(settings.getStatementCacheSize()));
+        }
+        return jdbi;
+    }
+
+    private HikariDataSource createDataSource(String jdbcUrl)
+    {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jdbi-" + POOLS.incrementAndGet());
+        config.setJdbcUrl(jdbcUrl);
+        config.setMaximumPoolSize(settings.getMaximumPoolSize());
+        config.setMinimumIdle(settings.getMinimumIdle());
+        config.setConnectionTimeout(settings.getConnectionTimeoutMs());
+        config.setValidationTimeout(settings.getValidationTimeoutMs());
+        config.setLeakDetectionThreshold(settings.getLeakDetectionThresholdMs());
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        try {
+            warmUp(dataSource);
+        } catch (RuntimeException | Error e) {
+            //it is not stored in dataSources, so nothing else would close its pool and housekeeping thread
+            dataSource.close();
+            throw e;
+        }
+        return dataSource;
+    }
+
+    /*
+    Hikari fills the pool up to minimumIdle in the background.
+    Borrowing the connections here makes sure they exist before the first caller needs one.
+     */
+    private void warmUp(HikariDataSource dataSource)
+    {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < settings.getMinimumIdle(); i++) {
+                connections.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to warm up pool " + dataSource.getPoolName(), e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    //the connection is evicted from the pool
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes every pool, which also drops the in-memory databases behind them.
+     */
+    @Override
+    public void close()
+    {
+        jdbis.clear();
+        dataSources.values().forEach(HikariDataSource::close);
+        dataSources.clear();
+    }
+}
@@ -0,0 +1,78 @@
+package pool;
+
+/**
+ * Connection pool settings shared by every pool a JdbiFactory creates.
+ */
+public class PoolSettings {
+    //Hard cap on connections per database, borrowers wait up to connectionTimeoutMs once it is reached
+    private int maximumPoolSize = 10;
+    //Connections opened up front when the pool is created, and kept open while idle
+    private int minimumIdle = 2;
+    private long connectionTimeoutMs = 30_000;
+    //Time allowed for Connection.isValid() when a connection is validated on borrow
+    private long validationTimeoutMs = 1_000;
+    //A connection held longer than this is reported as a possible leak, 0 disables the check
+    private long leakDetectionThresholdMs = 10_000;
+    //Prepared statements each handle keeps open for reuse, 0 prepares every statement again
+    private int statementCacheSize = 64;
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public long getValidationTimeoutMs() {
+        return validationTimeoutMs;
+    }
+
+    public void setValidationTimeoutMs(long validationTimeoutMs) {
+        this.validationTimeoutMs = validationTimeoutMs;
+    }
+
+    public long getLeakDetectionThresholdMs() {
+        return leakDetectionThresholdMs;
+    }
+
+    public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) {
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(PoolSettings maximumPoolSize:" + maximumPoolSize +
+                ", minimumIdle:" + minimumIdle +
+                ", connectionTimeoutMs:" + connectionTimeoutMs +
+                ", validationTimeoutMs:" + validationTimeoutMs +
+                ", leakDetectionThresholdMs:" + leakDetectionThresholdMs +
+                ", statementCacheSize:" + statementCacheSize +
+                ")";
+    }
+}
@@ -0,0 +1,30 @@
+package routing;
+
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.transaction.Transaction;
+
+import java.lang.reflect.Method;
+
+/**
+ * Where a RoutingJdbi sends a SqlObject method.
+ */
+public enum Route {
+    /**
+     * @SqlQuery methods, and methods annotated @Transaction(readOnly = true), may run on a replica.
+     */
+    READ,
+    /**
+     * Everything else runs on the primary: @SqlUpdate, @SqlBatch, @SqlScript, @SqlCall,
+     * and default methods, which may call write methods themselves.
+     */
+    WRITE;
+
+    static Route of(Method method)
+    {
+        Transaction transaction = method.getAnnotation(Transaction.class);
+        if (transaction != null) {
+            return transaction.readOnly() ? READ : WRITE;
+        }
+        return method.isAnnotationPresent(SqlQuery.class) ? READ : WRITE;
+    }
+}
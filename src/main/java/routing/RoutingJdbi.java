@@ -0,0 +1,230 @@
+package routing;
+
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.HandleConsumer;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.spi.JdbiPlugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends reads to replicas and writes to the primary, each of them a Jdbi with its own connection pool:
+ *
+ *     RoutingJdbi routing = new RoutingJdbi(jdbiFactory.forUrl(primaryUrl),
+ *             Arrays.asList(jdbiFactory.forUrl(replicaUrl1), jdbiFactory.forUrl(replicaUrl2)))
+ *             .installPlugin(new SqlObjectPlugin());
+ *     UserDao dao = routing.onDemand(UserDao.class);
+ *
+ * A handle is bound to one connection when it is opened, before it is known what will run on it,
+ * so the routing is done per call: per method of an on-demand SqlObject, see Route,
+ * and per withReadHandle() or inReadOnlyTransaction() against withHandle() or inTransaction().
+ * Replicas are taken round robin.
+ *
+ * Replicas lag behind the primary, so after a write, reads from the same thread go to the primary
+ * for the pin window, and see their own writes. Reads from other threads may still see older data,
+ * as they would from any replica. Pass the window you expect the replication lag to stay under.
+ */
+public class RoutingJdbi {
+    private final Jdbi primary;
+    private final List<Jdbi> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<long[]> lastWrite = ThreadLocal.withInitial(() -> new long[]{Long.MIN_VALUE});
+    private final RoutingStats stats = new RoutingStats();
+    private volatile long pinWindowNanos = Duration.ofSeconds(1).toNanos();
+
+    public RoutingJdbi(Jdbi primary, List<Jdbi> replicas) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+    }
+
+    /**
+     * Installs the plugin on the primary and every replica.
+     */
+    public RoutingJdbi installPlugin(JdbiPlugin plugin)
+    {
+        primary.installPlugin(plugin);
+        replicas.forEach(replica -> replica.installPlugin(plugin));
+        return this;
+    }
+
+    public Duration getPinWindow() {
+        return Duration.ofNanos(pinWindowNanos);
+    }
+
+    public RoutingJdbi setPinWindow(Duration pinWindow) {
+        if (pinWindow.isNegative()) {
+            throw new IllegalArgumentException("pinWindow must not be negative, was " + pinWindow);
+        }
+        this.pinWindowNanos = pinWindow.toNanos();
+        return this;
+    }
+
+    /**
+     * The Jdbi the next read of this thread goes to: a replica, or the primary within the pin window.
+     */
+    public Jdbi reader()
+    {
+        int replica = nextReplica();
+        return replica < 0 ? primary : replicas.get(replica);
+    }
+
+    /**
+     * The primary, starting the pin window of this thread.
+     */
+    public Jdbi writer()
+    {
+        stats.write();
+        wrote();
+        return primary;
+    }
+
+    /**
+     * @return the index of the replica to read from, or -1 for the primary
+     */
+    private int nextReplica()
+    {
+        if (replicas.isEmpty() || isPinned()) {
+            stats.pinnedRead();
+            return -1;
+        }
+        stats.replicaRead();
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    //called when a write starts and again when it ends, so a slow write does not use up the window
+    private void wrote()
+    {
+        lastWrite.get()[0] = System.nanoTime();
+    }
+
+    /**
+     * True while reads of this thread go to the primary, after a write.
+     */
+    public boolean isPinned()
+    {
+        long last = lastWrite.get()[0];
+        return last != Long.MIN_VALUE && System.nanoTime() - last < pinWindowNanos;
+    }
+
+    public <R, X extends Exception> R withReadHandle(HandleCallback<R, X> callback) throws X
+    {
+        return reader().withHandle(callback);
+    }
+
+    /**
+     * Runs the callback in a transaction on a read-only connection,
+     * so a write in it fails instead of going to a replica.
+     */
+    public <R, X extends Exception> R inReadOnlyTransaction(HandleCallback<R, X> callback) throws X
+    {
+        return reader().withHandle(handle -> {
+            //the pool resets the flag when the connection is returned
+            handle.setReadOnly(true);
+            return handle.inTransaction(callback);
+        });
+    }
+
+    /**
+     * Runs the callback on the primary, every handle on the primary counts as a write.
+     */
+    public <R, X extends Exception> R withHandle(HandleCallback<R, X> callback) throws X
+    {
+        try {
+            return writer().withHandle(callback);
+        } finally {
+            wrote();
+        }
+    }
+
+    public <X extends Exception> void useHandle(HandleConsumer<X> consumer) throws X
+    {
+        withHandle(consumer.asCallback());
+    }
+
+    public <R, X extends Exception> R inTransaction(HandleCallback<R, X> callback) throws X
+    {
+        try {
+            return writer().inTransaction(callback);
+        } finally {
+            wrote();
+        }
+    }
+
+    public <X extends Exception> void useTransaction(HandleConsumer<X> consumer) throws X
+    {
+        inTransaction(consumer.asCallback());
+    }
+
+    /**
+     * An on-demand SqlObject whose methods each run on the primary or a replica, see Route.
+     * Every call opens and closes a handle, so a default method runs all its calls on the Jdbi it was routed to.
+     */
+    public <E> E onDemand(Class<E> extensionType)
+    {
+        E onPrimary = primary.onDemand(extensionType);
+        List<E> onReplicas = new ArrayList<>();
+        for (Jdbi replica : replicas) {
+            onReplicas.add(replica.onDemand(extensionType));
+        }
+        Map<Method, Route> routes = new ConcurrentHashMap<>();
+
+        Object proxy = Proxy.newProxyInstance(extensionType.getClassLoader(), new Class<?>[]{extensionType},
+                (self, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return objectMethod(extensionType, self, method, args);
+                    }
+                    boolean write = routes.computeIfAbsent(method, Route::of) == Route.WRITE;
+                    Object target;
+                    if (write) {
+                        writer();
+                        target = onPrimary;
+                    } else {
+                        int replica = nextReplica();
+                        target = replica < 0 ? onPrimary : onReplicas.get(replica);
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (write) {
+                            wrote();
+                        }
+                    }
+                });
+        return extensionType.cast(proxy);
+    }
+
+    private static Object objectMethod(Class<?> extensionType, Object self, Method method, Object[] args)
+    {
+        switch (method.getName()) {
+            case "equals":
+                return self == args[0];
+            case "hashCode":
+                return System.identityHashCode(self);
+            default:
+                return "RoutingJdbi on demand " + extensionType.getName();
+        }
+    }
+
+    public Jdbi getPrimary() {
+        return primary;
+    }
+
+    public List<Jdbi> getReplicas() {
+        return replicas;
+    }
+
+    public RoutingStats getStats() {
+        return stats;
+    }
+}
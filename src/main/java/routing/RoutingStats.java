@@ -0,0 +1,51 @@
+package routing;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a RoutingJdbi.
+ */
+public class RoutingStats {
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder pinnedReads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    void replicaRead()
+    {
+        replicaReads.increment();
+    }
+
+    void pinnedRead()
+    {
+        pinnedReads.increment();
+    }
+
+    void write()
+    {
+        writes.increment();
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    /**
+     * Reads sent to the primary, because the thread wrote within the pin window, or there are no replicas.
+     */
+    public long getPinnedReads() {
+        return pinnedReads.sum();
+    }
+
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(RoutingStats replicaReads:" + getReplicaReads() +
+                ", pinnedReads:" + getPinnedReads() +
+                ", writes:" + getWrites() +
+                ")";
+    }
+}
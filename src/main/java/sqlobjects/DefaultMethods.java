@@ -1,5 +1,6 @@
 package sqlobjects;
 
+import attach.AttachmentCache;
 import model.Contact;
 import model.Phone;
 import org.jdbi.v3.core.Handle;
@@ -72,8 +73,39 @@ public class DefaultMethods {
         }
     }
 
+    /**
+     * The AttachmentCache builds the ContactPhoneDao once, at startup,
+     * and every handle after that only gets a small proxy bound to it.
+     */
+    public void attachmentCache()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_attachmentCache;DB_CLOSE_DELAY=-1");
+        jdbi.installPlugin(new SqlObjectPlugin());
+        AttachmentCache daos = new AttachmentCache(jdbi).warm(ContactPhoneDao.class);
+
+        daos.onDemand(ContactPhoneDao.class).createTables();
+
+        for (int id = 1; id <= 3; id++) {
+            try (Handle handle = jdbi.open()) {
+                ContactPhoneDao contactPhoneDao = daos.attach(ContactPhoneDao.class, handle);
+                contactPhoneDao.insertFullContact(new Contact(id, "Contact " + id),
+                        Arrays.asList(new Phone(id, "home", "100" + id), new Phone(id, "work", "200" + id)));
+            }
+        }
+
+        //the default method runs its calls on the single handle the on-demand call opened
+        ContactPhoneDao onDemand = daos.onDemand(ContactPhoneDao.class);
+        onDemand.insertFullContact(new Contact(4, "Contact 4"), Arrays.asList(new Phone(4, "home", "1004")));
+        int phones = onDemand.withHandle(handle -> handle.createQuery("select count(*) from phones")
+                .mapTo(int.class)
+                .one());
+        System.out.println(phones + " phones, " + daos.getCachedTypes());
+    }
+
     public static void main(String[] args) {
         DefaultMethods defaultMethods = new DefaultMethods();
         defaultMethods.test();
+
+        defaultMethods.attachmentCache();
     }
 }
@@ -1,5 +1,6 @@
 package sqlobjects;
 
+import batch.SqlMultiRowInsert;
 import com.google.common.collect.ImmutableList;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
@@ -77,6 +78,22 @@ public class SqlBatchAnno {
         void bulkInsert(@Bind("tenantId") long tenantId,
                         @BindBean("user") User... users);
 
+        /**
+         * @SqlMultiRowInsert takes the same parameters, but sends the rows as
+         * insert into users (id, name, email) values (?, ?, ?), (?, ?, ?), ...
+         */
+        @SqlMultiRowInsert(value = "insert into users (id, name, email) values (?, ?, ?)", width = 2)
+        int[] multiRowInsert(List<Integer> ids,
+                             Iterator<String> names,
+                             String... emails);
+
+        /**
+         * The constant is bound once per statement, and shared by all of its rows.
+         */
+        @SqlMultiRowInsert("insert into contacts (tenant_id, id, name) values (:tenantId, :user.id, :user.name)")
+        int[] multiRowInsert(@Bind("tenantId") long tenantId,
+                             @BindBean("user") User... users);
+
         @SqlQuery("select name from users")
         List<String> listUserNames();
 
@@ -132,9 +149,42 @@ public class SqlBatchAnno {
         }
 
     }
+
+    public void multiRow()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_multiRow");
+        jdbi.installPlugin(new SqlObjectPlugin());
+
+        try (Handle handle = jdbi.open()) {
+            UserDao userDao = handle.attach(UserDao.class);
+
+            userDao.createTable();
+            handle.execute("create table contacts (id int primary key, name varchar(100), tenant_id int)");
+
+            /**
+             * With width 2, this would execute:
+             * insert into users (id, name, email) values (1, 'foo', 'a@example.com'), (2, 'bar', 'b@example.com');
+             * insert into users (id, name, email) values (3, 'baz', 'c@fake.com');
+             */
+            int[] counts = userDao.multiRowInsert(
+                    ImmutableList.of(1, 2, 3),
+                    ImmutableList.of("foo", "bar", "baz").iterator(),
+                    "a@example.com", "b@example.com", "c@fake.com");
+            System.out.println(counts.length + ": " + userDao.listUserNames());
+
+            /**
+             * This would execute:
+             * insert into contacts (tenant_id, id, name) values (1, 1, 'Bob'), (1, 2, 'Jan');
+             */
+            userDao.multiRowInsert(1, new User(1, "Bob"), new User(2, "Jan"));
+            System.out.println(userDao.listContactNames());
+        }
+    }
+
     public static void main(String[] args) {
         SqlBatchAnno sqlBatchAnno = new SqlBatchAnno();
         sqlBatchAnno.test();
         sqlBatchAnno.test2();
+        sqlBatchAnno.multiRow();
     }
 }
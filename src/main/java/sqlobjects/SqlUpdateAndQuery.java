@@ -1,5 +1,9 @@
 package sqlobjects;
 
+import binding.BindInList;
+import cache.Cached;
+import cache.ResultCache;
+import cache.ResultCachePlugin;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.result.ResultIterable;
@@ -7,7 +11,10 @@ import org.jdbi.v3.core.result.ResultIterator;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import streaming.Streaming;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -51,6 +58,7 @@ public class SqlUpdateAndQuery {
          * @return
          */
         @SqlQuery("select name from users where id = ?")
+        @Cached
         String getName(long id);
 
         /**
@@ -63,8 +71,16 @@ public class SqlUpdateAndQuery {
          * @return
          */
         @SqlQuery("select name from users where id = ?")
+        @Cached
         Optional<String> findName(long id);
 
+        @SqlUpdate("update users set name = ? where id = ?")
+        int rename(String name, long id);
+
+        //lists are padded to power of two lengths, so the statement text only takes a few shapes
+        @SqlQuery("select name from users where id in (<ids>) order by id")
+        List<String> getNames(@BindInList("ids") List<Long> ids);
+
         @SqlQuery("select name from users")
         ResultIterable<String> getNamesAsIterable();
 
@@ -73,6 +89,17 @@ public class SqlUpdateAndQuery {
 
         @SqlQuery("select name from users")
         Stream<String> getNamesAsStream();
+
+        /**
+         * Fetches the rows 1000 at a time while the stream is consumed, so exports of any size run in constant memory.
+         */
+        @SqlQuery("select name from users")
+        @Streaming(fetchSize = 1000)
+        Stream<String> streamNames();
+
+        @SqlQuery("select name from users")
+        @Streaming
+        ResultIterator<String> streamNamesAsIterator();
     }
 
     public void test()
@@ -90,7 +117,47 @@ public class SqlUpdateAndQuery {
             System.out.println(userDao.getName(1));
             System.out.println(userDao.findName(10)); //Expect Optional.empty()
             System.out.println(userDao.listNames().size());
+            System.out.println(userDao.getNames(Arrays.asList(1L, 2L, 3L)));
+
+        }
+    }
+
+    /**
+     * With the ResultCachePlugin installed, @Cached methods are served from the cache by their arguments,
+     * until a statement writes to the users table, or the time to live runs out.
+     */
+    public void cachedQueries()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_cachedQueries");
+        ResultCache cache = new ResultCache(1000, Duration.ofMinutes(1));
+        jdbi.installPlugin(new SqlObjectPlugin());
+        jdbi.installPlugin(new ResultCachePlugin(cache));
 
+        try (Handle handle = jdbi.open()) {
+            UserDao userDao = handle.attach(UserDao.class);
+
+            userDao.createTable();
+            userDao.insert(1, "Bob");
+            userDao.insert(2, "Jan");
+
+            for (int i = 0; i < 100; i++) {
+                userDao.getName(1);
+                userDao.findName(2);
+            }
+            System.out.println(userDao.getName(1)); //Bob, from the cache
+
+            //the update invalidates every cached result that reads from users
+            userDao.rename("Alice", 1);
+            System.out.println(userDao.getName(1)); //Alice
+
+            handle.useTransaction(h -> {
+                h.execute("update users set name = ? where id = ?", "Eve", 1);
+                //inside the transaction the cache is bypassed, so the uncommitted name is never cached
+                System.out.println(h.attach(UserDao.class).getName(1)); //Eve
+            });
+            System.out.println(userDao.getName(1)); //Eve
+
+            System.out.println(cache.report());
         }
     }
 
@@ -124,6 +191,14 @@ public class SqlUpdateAndQuery {
             try (Stream<String> names3 = userDao.getNamesAsStream()) {
                 names3.forEach(name -> System.out.println(name));
             }
+
+            try (Stream<String> names4 = userDao.streamNames()) {
+                names4.forEach(name -> System.out.println(name));
+            }
+
+            try (ResultIterator<String> names5 = userDao.streamNamesAsIterator()) {
+                names5.forEachRemaining(name -> System.out.println(name));
+            }
         }
     }
 
@@ -132,5 +207,7 @@ public class SqlUpdateAndQuery {
         sqlUpdateAndQuery.test();
 
         sqlUpdateAndQuery.interationOrStream();
+
+        sqlUpdateAndQuery.cachedQueries();
     }
 }
@@ -1,11 +1,16 @@
 package sqlobjects;
 
+import mapper.generated.ColumnPlanCache;
+import mapper.generated.RegisterGeneratedMapper;
 import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import paging.KeysetPaginator;
+import paging.Page;
 
 import java.util.List;
 import java.util.Map;
@@ -22,11 +27,28 @@ public class UseRegisterBeanMapper {
         @RegisterBeanMapper(User.class)
         List<User> list();
 
+        //One page of users after the given id, an index range scan however deep the page is
+        @SqlQuery("select * from users where id > :after order by id limit :limit")
+        @RegisterBeanMapper(User.class)
+        List<User> listAfter(@Bind("after") int after, @Bind("limit") int limit);
+
+        default KeysetPaginator<User, Integer> pages(int pageSize)
+        {
+            return KeysetPaginator.of(this::listAfter, User::getId, 0, pageSize);
+        }
+
         @SqlQuery("select u.id u_id, u.name u_name, r.id r_id, r.name r_name " +
                 "from users u left join roles r on u.role_id = r.id")
         @RegisterBeanMapper(value = User.class, prefix = "u")
         @RegisterBeanMapper(value = Role.class, prefix = "r")
         Map<User,Role> getRolesPerUser();
+
+        //Same join, mapped by generated mappers whose column plans are cached per query
+        @SqlQuery("select u.id u_id, u.name u_name, r.id r_id, r.name r_name " +
+                "from users u left join roles r on u.role_id = r.id")
+        @RegisterGeneratedMapper(value = User.class, prefix = "u")
+        @RegisterGeneratedMapper(value = Role.class, prefix = "r")
+        Map<User,Role> getRolesPerUserGenerated();
     }
 
     public static class User {
@@ -122,13 +144,43 @@ public class UseRegisterBeanMapper {
             userRoleMap.entrySet()
                     .forEach(entry -> System.out.println(entry.getKey() + ", " + entry.getValue()));
 
+            //The first call builds the plans of User and Role, the next ones find them in the cache
+            for (int i = 0; i < 3; i++) {
+                userRoleMap = userDao.getRolesPerUserGenerated();
+            }
+            System.out.println(userRoleMap);
+            System.out.println(ColumnPlanCache.getCache());
         }
 
     }
 
+    public void testKeysetPagination()
+    {
+        Jdbi jdbi = Jdbi.create("jdbc:h2:mem:test_testKeysetPagination");
+        jdbi.installPlugin(new SqlObjectPlugin());
+
+        try (Handle handle = jdbi.open()) {
+            UserDao userDao = handle.attach(UserDao.class);
+
+            userDao.createTable();
+            for (int i = 1; i <= 10; i++) {
+                userDao.insert(i, "User:" + i, 1);
+            }
+
+            KeysetPaginator<User, Integer> paginator = userDao.pages(4);
+            Page<User, Integer> first = paginator.firstPage();
+            System.out.println(first + " " + first.getItems());
+            //a client hands back the last key, and gets the next page without any state on the server
+            System.out.println(paginator.page(first.getLastKey()).getItems());
+
+            paginator.pages().forEach(page -> System.out.println(page));
+        }
+    }
+
     public static void main(String[] args) {
         UseRegisterBeanMapper mapper = new UseRegisterBeanMapper();
         mapper.testBeanMapper();
         mapper.testPrefixBeanMapper();
+        mapper.testKeysetPagination();
     }
 }
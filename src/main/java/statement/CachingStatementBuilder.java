@@ -0,0 +1,269 @@
+package statement;
+
+import org.jdbi.v3.core.statement.StatementBuilder;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the prepared statements of one handle open after use, least recently used first out,
+ * so running the same SQL again skips the prepare round trip.
+ *
+ * A statement is reused only once it is closed by Jdbi, two open queries with the same SQL get a statement each.
+ * Parameters, batches and the limits customizers may set (fetch size, max rows, query timeout)
+ * are reset when it comes back. Calls are not cached.
+ *
+ * DDL may change what a prepared statement refers to, so a create, alter, drop, truncate or rename
+ * closes the cached statements of every handle of the factory. So does creating a plain Statement,
+ * which scripts and batches (@SqlScript) use to run SQL the builder does not see.
+ */
+class CachingStatementBuilder implements StatementBuilder {
+    private final StatementBuilder delegate;
+    private final int maximumSize;
+    private final StatementCacheStats stats;
+    private final AtomicLong generation;
+    private long seenGeneration;
+
+    private final LinkedHashMap<Key, Entry> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Statement, Entry> checkedOut = new IdentityHashMap<>();
+
+    CachingStatementBuilder(StatementBuilder delegate, int maximumSize, StatementCacheStats stats, AtomicLong generation) {
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.stats = stats;
+        this.generation = generation;
+        this.seenGeneration = generation.get();
+    }
+
+    @Override
+    public Statement create(Connection conn, StatementContext ctx) throws SQLException
+    {
+        invalidate();
+        return delegate.create(conn, ctx);
+    }
+
+    @Override
+    public PreparedStatement create(Connection conn, String sql, StatementContext ctx) throws SQLException
+    {
+        if (isDdl(sql)) {
+            invalidate();
+            return delegate.create(conn, sql, ctx);
+        }
+        closeIfInvalidated();
+
+        Key key = new Key(sql, ctx);
+        Entry entry = idle.remove(key);
+        if (entry != null && !entry.statement.isClosed()) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+            entry = new Entry(key, delegate.create(conn, sql, ctx), seenGeneration);
+        }
+        checkedOut.put(entry.statement, entry);
+        return entry.statement;
+    }
+
+    @Override
+    public CallableStatement createCall(Connection conn, String sql, StatementContext ctx) throws SQLException
+    {
+        return delegate.createCall(conn, sql, ctx);
+    }
+
+    /**
+     * Jdbi passes the SQL before rendering here, so the statement is looked up by identity.
+     */
+    @Override
+    public void close(Connection conn, String sql, Statement stmt) throws SQLException
+    {
+        Entry entry = checkedOut.remove(stmt);
+        if (entry == null) {
+            delegate.close(conn, sql, stmt);
+            return;
+        }
+        //Jdbi closes a statement itself when it fails to execute
+        if (stmt.isClosed()) {
+            return;
+        }
+        closeIfInvalidated();
+        if (entry.generation != seenGeneration) {
+            stats.recordInvalidation();
+            stmt.close();
+            return;
+        }
+        try {
+            entry.reset();
+        } catch (SQLException e) {
+            stmt.close();
+            return;
+        }
+
+        Entry previous = idle.put(entry.key, entry);
+        if (previous != null) {
+            //the same SQL was open twice, the one returned last is kept
+            previous.statement.close();
+        }
+        if (idle.size() > maximumSize) {
+            Iterator<Entry> eldest = idle.values().iterator();
+            Entry evicted = eldest.next();
+            eldest.remove();
+            stats.recordEviction();
+            evicted.statement.close();
+        }
+    }
+
+    /**
+     * Closes the cached statements when the handle closes.
+     */
+    @Override
+    public void close(Connection conn)
+    {
+        closeIdle(false);
+        delegate.close(conn);
+    }
+
+    private void invalidate()
+    {
+        generation.incrementAndGet();
+        closeIfInvalidated();
+    }
+
+    private void closeIfInvalidated()
+    {
+        long current = generation.get();
+        if (current != seenGeneration) {
+            seenGeneration = current;
+            closeIdle(true);
+        }
+    }
+
+    private void closeIdle(boolean invalidated)
+    {
+        for (Entry entry : idle.values()) {
+            if (invalidated) {
+                stats.recordInvalidation();
+            }
+            try {
+                entry.statement.close();
+            } catch (SQLException ignored) {
+                //closing is best effort, the connection closes what is left
+            }
+        }
+        idle.clear();
+    }
+
+    static boolean isDdl(String sql)
+    {
+        int start = 0;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        int end = start;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        switch (sql.substring(start, end).toLowerCase(Locale.ROOT)) {
+            case "create":
+            case "alter":
+            case "drop":
+            case "truncate":
+            case "rename":
+            case "comment":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The SQL, and the options it was prepared with.
+     */
+    private static final class Key {
+        private final String sql;
+        private final boolean generatedKeys;
+        private final String[] generatedKeyColumns;
+        private final boolean updatable;
+        private final int hash;
+
+        Key(String sql, StatementContext ctx) {
+            this.sql = sql;
+            this.generatedKeys = ctx.isReturningGeneratedKeys();
+            this.generatedKeyColumns = generatedKeys ? ctx.getGeneratedKeysColumnNames() : null;
+            this.updatable = ctx.isConcurrentUpdatable();
+            this.hash = Objects.hash(sql, generatedKeys, updatable) * 31 + Arrays.hashCode(generatedKeyColumns);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return generatedKeys == that.generatedKeys && updatable == that.updatable
+                    && sql.equals(that.sql) && Arrays.equals(generatedKeyColumns, that.generatedKeyColumns);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final PreparedStatement statement;
+        private final long generation;
+        private final int fetchSize;
+        private final int maxRows;
+        private final int queryTimeout;
+        private final int fetchDirection;
+
+        Entry(Key key, PreparedStatement statement, long generation) throws SQLException {
+            this.key = key;
+            this.statement = statement;
+            this.generation = generation;
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+            this.fetchDirection = statement.getFetchDirection();
+        }
+
+        /**
+         * Back to the state it was prepared in.
+         */
+        void reset() throws SQLException
+        {
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            if (statement.getFetchSize() != fetchSize) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (statement.getMaxRows() != maxRows) {
+                statement.setMaxRows(maxRows);
+            }
+            if (statement.getQueryTimeout() != queryTimeout) {
+                statement.setQueryTimeout(queryTimeout);
+            }
+            if (statement.getFetchDirection() != fetchDirection) {
+                statement.setFetchDirection(fetchDirection);
+            }
+        }
+    }
+}
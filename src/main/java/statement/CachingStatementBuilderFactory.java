@@ -0,0 +1,52 @@
+package statement;
+
+import org.jdbi.v3.core.statement.DefaultStatementBuilder;
+import org.jdbi.v3.core.statement.StatementBuilder;
+import org.jdbi.v3.core.statement.StatementBuilderFactory;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives every handle a CachingStatementBuilder, which keeps up to maximumSize prepared statements open for reuse:
+ *
+ *     jdbi.setStatementBuilderFactory(new CachingStatementBuilderFactory(64));
+ *
+ * The caches are per handle, as a pooled connection closes its statements when it goes back to the pool.
+ * DDL run on any handle, or invalidateAll(), makes every handle close its cached statements.
+ */
+public class CachingStatementBuilderFactory implements StatementBuilderFactory {
+    private final int maximumSize;
+    private final StatementCacheStats stats = new StatementCacheStats();
+    private final AtomicLong generation = new AtomicLong();
+
+    public CachingStatementBuilderFactory(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1, was " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public StatementBuilder createStatementBuilder(Connection connection)
+    {
+        return new CachingStatementBuilder(new DefaultStatementBuilder(), maximumSize, stats, generation);
+    }
+
+    /**
+     * Makes every handle close its cached statements before its next statement, e.g. after a schema migration
+     * run outside of this Jdbi.
+     */
+    public void invalidateAll()
+    {
+        generation.incrementAndGet();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public StatementCacheStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,75 @@
+package statement;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the prepared statement caches of every handle of one CachingStatementBuilderFactory.
+ */
+public class StatementCacheStats {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    void recordHit()
+    {
+        hits.increment();
+    }
+
+    void recordMiss()
+    {
+        misses.increment();
+    }
+
+    void recordEviction()
+    {
+        evictions.increment();
+    }
+
+    void recordInvalidation()
+    {
+        invalidations.increment();
+    }
+
+    /**
+     * Statements taken from the cache instead of being prepared.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Statements closed because the cache of their handle was full.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Statements closed because DDL may have changed what they refer to.
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public double getHitRate()
+    {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(StatementCacheStats hits:" + getHits() +
+                ", misses:" + getMisses() +
+                ", evictions:" + getEvictions() +
+                ", invalidations:" + getInvalidations() +
+                ")";
+    }
+}
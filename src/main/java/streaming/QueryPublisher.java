@@ -0,0 +1,87 @@
+package streaming;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.result.ResultIterable;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A Reactive Streams Publisher of the mapped rows of a query, emitted as the subscriber requests them:
+ *
+ *     Publisher<User> users = QueryPublisher.of(jdbi, handle -> handle.createQuery("select * from users")
+ *             .addCustomizer(StreamingCustomizer.streaming())
+ *             .mapTo(User.class));
+ *
+ * On Java 9+ FlowAdapters.toFlowPublisher(users) turns it into a java.util.concurrent.Flow.Publisher.
+ *
+ * Every subscription opens its own handle and runs the query on the first request(),
+ * and keeps the handle and the cursor open until the last row is emitted, or it is cancelled, or fails.
+ * The query runs in a transaction of the subscription, so it streams on PostgreSQL too, which is rolled back on close.
+ * Rows are emitted on the executor, and only while there is outstanding demand:
+ * a subscriber that stops requesting holds the connection, but no thread.
+ * Add the StreamingCustomizer, as shown above, so the cursor fetches rows as they are requested,
+ * rather than reading the whole result on execute().
+ */
+public class QueryPublisher<T> implements Publisher<T> {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    //idle threads exit after a minute, a subscription only takes one while it has demand
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "jdbi-publisher-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Jdbi jdbi;
+    private final Function<Handle, ? extends Iterator<T>> rows;
+    private final Executor executor;
+
+    private QueryPublisher(Jdbi jdbi, Function<Handle, ? extends Iterator<T>> rows, Executor executor) {
+        this.jdbi = jdbi;
+        this.rows = rows;
+        this.executor = executor;
+    }
+
+    public static <T> QueryPublisher<T> of(Jdbi jdbi, Function<Handle, ResultIterable<T>> query)
+    {
+        return of(jdbi, query, DEFAULT_EXECUTOR);
+    }
+
+    public static <T> QueryPublisher<T> of(Jdbi jdbi, Function<Handle, ResultIterable<T>> query, Executor executor)
+    {
+        return new QueryPublisher<>(jdbi, handle -> query.apply(handle).iterator(), executor);
+    }
+
+    /**
+     * Publishes the rows of a SqlObject method returning a ResultIterator,
+     * e.g. ofExtension(jdbi, UserDao.class, UserDao::streamNamesAsIterator).
+     * The SqlObject is attached to the handle of the subscription, and the iterator is closed with it.
+     */
+    public static <T, E> QueryPublisher<T> ofExtension(Jdbi jdbi, Class<E> extensionType,
+                                                       Function<E, ? extends Iterator<T>> query)
+    {
+        return ofExtension(jdbi, extensionType, query, DEFAULT_EXECUTOR);
+    }
+
+    public static <T, E> QueryPublisher<T> ofExtension(Jdbi jdbi, Class<E> extensionType,
+                                                       Function<E, ? extends Iterator<T>> query, Executor executor)
+    {
+        return new QueryPublisher<>(jdbi, handle -> query.apply(handle.attach(extensionType)), executor);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber)
+    {
+        Objects.requireNonNull(subscriber, "subscriber");
+        QuerySubscription<T> subscription = new QuerySubscription<>(jdbi, rows, subscriber, executor);
+        subscriber.onSubscribe(subscription);
+    }
+}
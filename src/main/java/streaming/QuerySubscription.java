@@ -0,0 +1,208 @@
+package streaming;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The subscription of one subscriber to a QueryPublisher, owning its handle and cursor.
+ *
+ * request() and cancel() may be called from any thread, they only record the demand and schedule a drain.
+ * The work counter makes sure one drain runs at a time, so the handle is only ever used by one thread at a time,
+ * and the subscriber is signalled serially, as the Reactive Streams spec requires.
+ */
+final class QuerySubscription<T> implements Subscription, Runnable {
+    private final Jdbi jdbi;
+    private final Function<Handle, ? extends Iterator<T>> query;
+    private final Subscriber<? super T> subscriber;
+    private final Executor executor;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger work = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException invalidRequest;
+
+    //only touched by the drain
+    private Handle handle;
+    private Iterator<T> rows;
+    private boolean done;
+
+    QuerySubscription(Jdbi jdbi, Function<Handle, ? extends Iterator<T>> query,
+                      Subscriber<? super T> subscriber, Executor executor) {
+        this.jdbi = jdbi;
+        this.query = query;
+        this.subscriber = subscriber;
+        this.executor = executor;
+    }
+
+    @Override
+    public void request(long n)
+    {
+        if (n <= 0) {
+            //rule 3.9
+            invalidRequest = new IllegalArgumentException("request must be positive, was " + n);
+        } else {
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+        }
+        schedule();
+    }
+
+    @Override
+    public void cancel()
+    {
+        cancelled = true;
+        schedule();
+    }
+
+    private void schedule()
+    {
+        if (work.getAndIncrement() == 0) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                //this thread now owns the drain, as the counter is still above 0
+                done = true;
+                close();
+                subscriber.onError(e);
+            }
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        int missed = 1;
+        do {
+            drain();
+            missed = work.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drain()
+    {
+        if (done) {
+            return;
+        }
+        if (cancelled) {
+            done = true;
+            close();
+            return;
+        }
+        if (invalidRequest != null) {
+            fail(invalidRequest);
+            return;
+        }
+
+        long wanted = requested.get();
+        long emitted = 0;
+        try {
+            if (rows == null && wanted > 0) {
+                handle = jdbi.open();
+                //drivers like PostgreSQL only stream inside a transaction, it holds the cursor and is rolled back
+                handle.begin();
+                rows = query.apply(handle);
+            }
+            while (emitted < wanted) {
+                if (cancelled) {
+                    done = true;
+                    close();
+                    return;
+                }
+                if (!rows.hasNext()) {
+                    complete();
+                    return;
+                }
+                emit(rows.next());
+                emitted++;
+            }
+        } catch (RuntimeException e) {
+            if (done) {
+                //thrown by the subscriber, left to the uncaught exception handler of the executor
+                throw e;
+            }
+            fail(e);
+            return;
+        }
+        //later requests increment the work counter, so run() drains again for them
+        if (emitted > 0 && wanted != Long.MAX_VALUE) {
+            requested.addAndGet(-emitted);
+        }
+    }
+
+    private void emit(T row)
+    {
+        try {
+            subscriber.onNext(row);
+        } catch (RuntimeException e) {
+            //rule 2.13, a throwing subscriber cancels its subscription
+            done = true;
+            close();
+            throw new IllegalStateException("Subscriber threw from onNext, the subscription is cancelled", e);
+        }
+    }
+
+    private void complete()
+    {
+        done = true;
+        //closing rolls back the read transaction of the subscription and closes the handle, which can still fail
+        RuntimeException closeFailure = close();
+        if (closeFailure != null) {
+            subscriber.onError(closeFailure);
+        } else {
+            subscriber.onComplete();
+        }
+    }
+
+    private void fail(Throwable e)
+    {
+        done = true;
+        close();
+        subscriber.onError(e);
+    }
+
+    /*
+    The cursor is closed before the handle, so the cleanables of the query,
+    like restoring auto-commit, run while the connection is still open.
+     */
+    private RuntimeException close()
+    {
+        RuntimeException failure = null;
+        if (rows instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) rows).close();
+            } catch (Exception e) {
+                failure = e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+            }
+        }
+        rows = null;
+        if (handle != null) {
+            try {
+                if (handle.isInTransaction()) {
+                    handle.rollback();
+                }
+                handle.close();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            handle = null;
+        }
+        return failure;
+    }
+}
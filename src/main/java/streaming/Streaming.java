@@ -0,0 +1,54 @@
+package streaming;
+
+import org.jdbi.v3.core.statement.SqlStatement;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizer;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizerFactory;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizingAnnotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+
+/**
+ * Streams the result of a SqlObject query, see StreamingCustomizer.
+ * Meant for methods returning a Stream, Iterator or ResultIterable, which hold the result set open while it is consumed.
+ * On PostgreSQL call it inside handle.inTransaction() or a @Transaction method, it fails in auto-commit mode.
+ *
+ *     @SqlQuery("select name from users")
+ *     @Streaming(fetchSize = 1000)
+ *     Stream<String> getNamesAsStream();
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@SqlStatementCustomizingAnnotation(Streaming.Factory.class)
+public @interface Streaming {
+    /**
+     * The rows fetched per round trip, 0 uses the default fetch size of the StreamingConfig.
+     */
+    int fetchSize() default 0;
+
+    class Factory implements SqlStatementCustomizerFactory {
+        @Override
+        public SqlStatementCustomizer createForType(Annotation annotation, Class<?> sqlObjectType)
+        {
+            return customizer((Streaming) annotation);
+        }
+
+        @Override
+        public SqlStatementCustomizer createForMethod(Annotation annotation, Class<?> sqlObjectType, Method method)
+        {
+            return customizer((Streaming) annotation);
+        }
+
+        private static SqlStatementCustomizer customizer(Streaming streaming)
+        {
+            StreamingCustomizer customizer = streaming.fetchSize() > 0
+                    ? StreamingCustomizer.withFetchSize(streaming.fetchSize())
+                    : StreamingCustomizer.streaming();
+            return (SqlStatement<?> statement) -> statement.addCustomizer(customizer);
+        }
+    }
+}
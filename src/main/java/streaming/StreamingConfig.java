@@ -0,0 +1,66 @@
+package streaming;
+
+import org.jdbi.v3.core.config.JdbiConfig;
+
+/**
+ * The default fetch size of streaming statements, and the stats they report to.
+ * Every copy of the config shares the stats of the Jdbi it was copied from.
+ * Jdbi creates a config the first time it is asked for, so get it from the Jdbi (or the Handle)
+ * before running statements, or each statement counts into stats of its own.
+ */
+public class StreamingConfig implements JdbiConfig<StreamingConfig> {
+    private int defaultFetchSize;
+    private StreamingStats stats;
+    private boolean lazyQueryExecution;
+
+    public StreamingConfig() {
+        defaultFetchSize = 1000;
+        stats = new StreamingStats();
+    }
+
+    private StreamingConfig(StreamingConfig that) {
+        this.defaultFetchSize = that.defaultFetchSize;
+        this.stats = that.stats;
+        this.lazyQueryExecution = that.lazyQueryExecution;
+    }
+
+    public int getDefaultFetchSize() {
+        return defaultFetchSize;
+    }
+
+    public StreamingConfig setDefaultFetchSize(int defaultFetchSize) {
+        if (defaultFetchSize < 1) {
+            throw new IllegalArgumentException("defaultFetchSize must be at least 1, was " + defaultFetchSize);
+        }
+        this.defaultFetchSize = defaultFetchSize;
+        return this;
+    }
+
+    public StreamingStats getStats() {
+        return stats;
+    }
+
+    public StreamingConfig setStats(StreamingStats stats) {
+        this.stats = stats;
+        return this;
+    }
+
+    public boolean isLazyQueryExecution() {
+        return lazyQueryExecution;
+    }
+
+    /**
+     * Set when the H2 connections already have LAZY_QUERY_EXECUTION on, e.g. from ;LAZY_QUERY_EXECUTION=1 in the url.
+     * Otherwise streaming turns it on for each query and off again after, as H2 does not tell what the session had.
+     */
+    public StreamingConfig setLazyQueryExecution(boolean lazyQueryExecution) {
+        this.lazyQueryExecution = lazyQueryExecution;
+        return this;
+    }
+
+    @Override
+    public StreamingConfig createCopy()
+    {
+        return new StreamingConfig(this);
+    }
+}
@@ -0,0 +1,89 @@
+package streaming;
+
+import org.jdbi.v3.core.statement.StatementContext;
+import org.jdbi.v3.core.statement.StatementCustomizer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Makes a query fetch its rows in batches while they are consumed, instead of reading the whole result on execute():
+ *
+ *     try (Stream<User> users = handle.createQuery("select * from users")
+ *             .addCustomizer(StreamingCustomizer.withFetchSize(1000))
+ *             .mapTo(User.class)
+ *             .stream()) {
+ *         ...
+ *     }
+ *
+ * or @Streaming on a SqlObject method returning a Stream, Iterator or ResultIterable.
+ *
+ * The settings each driver needs are applied by its StreamingDriver.
+ * PostgreSQL only streams inside a transaction, so there the query must run in handle.inTransaction(),
+ * and the stream be closed before it returns. A query in auto-commit mode fails with an IllegalStateException,
+ * rather than quietly reading the whole result into memory.
+ */
+public class StreamingCustomizer implements StatementCustomizer {
+    private final int fetchSize;
+
+    private StreamingCustomizer(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Streams with the default fetch size of the StreamingConfig.
+     */
+    public static StreamingCustomizer streaming()
+    {
+        return new StreamingCustomizer(0);
+    }
+
+    public static StreamingCustomizer withFetchSize(int fetchSize)
+    {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be at least 1, was " + fetchSize);
+        }
+        return new StreamingCustomizer(fetchSize);
+    }
+
+    @Override
+    public void beforeExecution(PreparedStatement statement, StatementContext ctx) throws SQLException
+    {
+        if (statement.getResultSetType() != ResultSet.TYPE_FORWARD_ONLY
+                || statement.getResultSetConcurrency() != ResultSet.CONCUR_READ_ONLY) {
+            throw new IllegalStateException("Streaming needs a forward-only, read-only result set: " + ctx.getRawSql());
+        }
+
+        StreamingConfig config = ctx.getConfig(StreamingConfig.class);
+        int size = fetchSize > 0 ? fetchSize : config.getDefaultFetchSize();
+        Connection connection = ctx.getConnection();
+        StreamingDriver driver = StreamingDriver.of(connection);
+
+        if (driver.requiresTransaction() && connection.getAutoCommit()) {
+            throw new IllegalStateException(driver + " only streams inside a transaction, " +
+                    "run the query in handle.inTransaction(): " + ctx.getRawSql());
+        }
+        statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+        int bufferedRows = driver.prepare(connection, statement, size);
+        boolean restoreSession = driver.prepareSession(connection, config);
+
+        StreamingStats stats = config.getStats();
+        stats.opened(bufferedRows);
+        //cleanables run in reverse order, so this runs after the result set is closed
+        ctx.addCleanable(() -> {
+            try {
+                if (restoreSession) {
+                    driver.restore(connection);
+                }
+            } finally {
+                stats.closed(bufferedRows);
+            }
+        });
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+}
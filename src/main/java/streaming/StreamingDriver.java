@@ -0,0 +1,138 @@
+package streaming;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * What each driver needs before it fetches a result set in batches of fetchSize rows,
+ * instead of reading the whole result into memory on execute().
+ */
+public enum StreamingDriver {
+    /**
+     * The PostgreSQL driver only uses a cursor when auto-commit is off and the fetch size is positive,
+     * otherwise it reads every row on execute().
+     */
+    POSTGRESQL(true) {
+        @Override
+        int prepare(Connection connection, PreparedStatement statement, int fetchSize) throws SQLException
+        {
+            statement.setFetchSize(fetchSize);
+            return fetchSize;
+        }
+    },
+    /**
+     * MySQL Connector/J streams row by row with a fetch size of Integer.MIN_VALUE,
+     * unless the url has useCursorFetch=true, then it fetches fetchSize rows at a time through a server side cursor.
+     */
+    MYSQL(false) {
+        @Override
+        int prepare(Connection connection, PreparedStatement statement, int fetchSize) throws SQLException
+        {
+            String url = connection.getMetaData().getURL();
+            boolean cursorFetch = url != null && url.toLowerCase().contains("usecursorfetch=true");
+            statement.setFetchSize(cursorFetch ? fetchSize : Integer.MIN_VALUE);
+            return cursorFetch ? fetchSize : 1;
+        }
+    },
+    /**
+     * Embedded H2 materializes the result of a query unless LAZY_QUERY_EXECUTION is on for the session,
+     * the fetch size only matters in server mode.
+     * Sessions that already have it on are left as they are, see StreamingConfig.setLazyQueryExecution().
+     */
+    H2(false) {
+        @Override
+        int prepare(Connection connection, PreparedStatement statement, int fetchSize) throws SQLException
+        {
+            statement.setFetchSize(fetchSize);
+            return fetchSize;
+        }
+
+        @Override
+        boolean prepareSession(Connection connection, StreamingConfig config) throws SQLException
+        {
+            if (config.isLazyQueryExecution()) {
+                return false;
+            }
+            setLazy(connection, true);
+            return true;
+        }
+
+        @Override
+        void restore(Connection connection) throws SQLException
+        {
+            setLazy(connection, false);
+        }
+
+        private void setLazy(Connection connection, boolean lazy) throws SQLException
+        {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? 1 : 0));
+            }
+        }
+    },
+    /**
+     * Oracle, SQL Server, Derby and the rest honor the fetch size as it is.
+     */
+    OTHER(false) {
+        @Override
+        int prepare(Connection connection, PreparedStatement statement, int fetchSize) throws SQLException
+        {
+            statement.setFetchSize(fetchSize);
+            return fetchSize;
+        }
+    };
+
+    private final boolean requiresTransaction;
+
+    StreamingDriver(boolean requiresTransaction) {
+        this.requiresTransaction = requiresTransaction;
+    }
+
+    /**
+     * @return the most rows the driver buffers at once with these settings
+     */
+    abstract int prepare(Connection connection, PreparedStatement statement, int fetchSize) throws SQLException;
+
+    /**
+     * Turns on the session settings the driver needs to stream.
+     *
+     * @return true if any were changed, then restore() is called once the result set is closed
+     */
+    boolean prepareSession(Connection connection, StreamingConfig config) throws SQLException
+    {
+        return false;
+    }
+
+    /**
+     * Undoes the session settings changed by prepareSession(), once the result set is closed.
+     */
+    void restore(Connection connection) throws SQLException
+    {
+    }
+
+    /**
+     * True if the driver only streams inside a transaction, i.e. with auto-commit off.
+     */
+    public boolean requiresTransaction() {
+        return requiresTransaction;
+    }
+
+    public static StreamingDriver of(Connection connection) throws SQLException
+    {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String product = metaData.getDatabaseProductName().toLowerCase();
+        if (product.contains("postgresql")) {
+            return POSTGRESQL;
+        }
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            return MYSQL;
+        }
+        if (product.equals("h2")) {
+            return H2;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,62 @@
+package streaming;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the streaming result sets, and the rows they can hold in memory at once.
+ *
+ * A streaming result set buffers at most fetchSize rows on the client,
+ * so the rows in flight, the sum of the fetch sizes of the open streams,
+ * is the bound on the memory used by exports however many rows they read.
+ * (MySQL without useCursorFetch buffers one row at a time, it is counted as 1.)
+ */
+public class StreamingStats {
+    private final AtomicLong openStreams = new AtomicLong();
+    private final AtomicLong rowsInFlight = new AtomicLong();
+    private final AtomicLong maxRowsInFlight = new AtomicLong();
+    private final LongAdder streamsOpened = new LongAdder();
+
+    void opened(int bufferedRows)
+    {
+        openStreams.incrementAndGet();
+        streamsOpened.increment();
+        long inFlight = rowsInFlight.addAndGet(bufferedRows);
+        maxRowsInFlight.accumulateAndGet(inFlight, Math::max);
+    }
+
+    void closed(int bufferedRows)
+    {
+        openStreams.decrementAndGet();
+        rowsInFlight.addAndGet(-bufferedRows);
+    }
+
+    public long getOpenStreams() {
+        return openStreams.get();
+    }
+
+    /**
+     * The most rows the open streams may hold in memory right now.
+     */
+    public long getRowsInFlight() {
+        return rowsInFlight.get();
+    }
+
+    public long getMaxRowsInFlight() {
+        return maxRowsInFlight.get();
+    }
+
+    public long getStreamsOpened() {
+        return streamsOpened.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(StreamingStats openStreams:" + getOpenStreams() +
+                ", rowsInFlight:" + getRowsInFlight() +
+                ", maxRowsInFlight:" + getMaxRowsInFlight() +
+                ", streamsOpened:" + getStreamsOpened() +
+                ")";
+    }
+}
@@ -0,0 +1,317 @@
+package transaction;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.HandleConsumer;
+import org.jdbi.v3.core.Jdbi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs small transactions submitted from many threads together, one physical transaction per group:
+ *
+ *     GroupCommitter committer = new GroupCommitter(jdbi, 100, 0, TimeUnit.MILLISECONDS);
+ *     committer.useTransaction(handle -> handle.execute("insert into events (id) values (?)", id));
+ *
+ * A group is flushed when it reaches maxGroupSize members, or maxDelay after its first member arrived,
+ * whichever comes first. With a maxDelay of 0, a group is the members that queued while the previous group
+ * was committing, which already batches well under load. A longer delay makes bigger groups,
+ * but every member waits for it whenever fewer than maxGroupSize callers are waiting.
+ *
+ * Every member runs under its own savepoint. A member that throws is rolled back to its savepoint
+ * and fails alone, the other members of the group still commit.
+ * A member only completes once the group is committed, and if the commit fails, every member fails with it.
+ *
+ * The members of a group share one connection and run one after the other on the committer thread,
+ * so they see the writes of the members before them, and their locks are held until the group commits.
+ * Keep them short, and never call commit() or rollback() on the handle from a member.
+ */
+public class GroupCommitter implements AutoCloseable {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private final Jdbi jdbi;
+    private final int maxGroupSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Member<?>> queue = new LinkedBlockingQueue<>();
+    private final Member<?> stop = new Member<>(null);
+    private final Thread committer;
+    //guards closed and the enqueue, so no member can be queued after the stop marker
+    private final Object lock = new Object();
+    private boolean closed;
+
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public GroupCommitter(Jdbi jdbi, int maxGroupSize, long maxDelay, TimeUnit unit) {
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException("maxGroupSize must be at least 1, was " + maxGroupSize);
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("maxDelay must not be negative, was " + maxDelay);
+        }
+        this.jdbi = jdbi;
+        this.maxGroupSize = maxGroupSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.committer = new Thread(this::run, "jdbi-group-commit-" + THREADS.incrementAndGet());
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Queues the callback for the next group, the future completes when its group is committed.
+     */
+    public <T, X extends Exception> CompletableFuture<T> submit(HandleCallback<T, X> callback)
+    {
+        Member<T> member = new Member<>(callback);
+        synchronized (lock) {
+            if (closed) {
+                member.future.completeExceptionally(new IllegalStateException("GroupCommitter is closed"));
+                return member.future;
+            }
+            queue.add(member);
+        }
+        return member.future;
+    }
+
+    /**
+     * Runs the callback in the next group, and waits for the group to commit.
+     */
+    public <T, X extends Exception> T inTransaction(HandleCallback<T, X> callback) throws X
+    {
+        return await(submit(callback));
+    }
+
+    public <X extends Exception> void useTransaction(HandleConsumer<X> consumer) throws X
+    {
+        await(submit(handle -> {
+            consumer.useHandle(handle);
+            return null;
+        }));
+    }
+
+    /*
+    A member can only throw what its callback declares, or an unchecked exception,
+    so any checked exception in the future is an X.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, X extends Exception> T await(CompletableFuture<T> future) throws X
+    {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (X) cause;
+        }
+    }
+
+    private void run()
+    {
+        List<Member<?>> group = new ArrayList<>(maxGroupSize);
+        boolean stopping = false;
+        while (!stopping) {
+            Member<?> first = take();
+            if (first == stop) {
+                break;
+            }
+            group.add(first);
+            stopping = collect(group);
+            commit(group);
+            group.clear();
+        }
+
+        //submit() queues nothing after the stop marker, so this only guards against leaving a caller waiting forever
+        Member<?> member;
+        while ((member = queue.poll()) != null) {
+            member.future.completeExceptionally(new IllegalStateException("GroupCommitter is closed"));
+        }
+    }
+
+    private Member<?> take()
+    {
+        while (true) {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                //only close() stops the committer, members may still be waiting on it
+            }
+        }
+    }
+
+    /**
+     * Adds members to the group until it is full or the window is over.
+     * @return true when the stop marker was reached, after this group is committed the committer stops
+     */
+    private boolean collect(List<Member<?>> group)
+    {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (group.size() < maxGroupSize) {
+            Member<?> next;
+            try {
+                next = queue.poll(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+            if (next == null) {
+                return false;
+            }
+            if (next == stop) {
+                return true;
+            }
+            group.add(next);
+        }
+        return false;
+    }
+
+    private void commit(List<Member<?>> group)
+    {
+        groups.incrementAndGet();
+        Handle handle = null;
+        try {
+            handle = jdbi.open();
+            handle.begin();
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).runIn(handle, "group_member_" + i);
+            }
+            handle.commit();
+        } catch (Throwable e) {
+            rollback(handle, e);
+            for (Member<?> member : group) {
+                if (member.failure == null) {
+                    member.failure = e;
+                }
+            }
+        } finally {
+            if (handle != null) {
+                handle.close();
+            }
+        }
+
+        for (Member<?> member : group) {
+            if (member.failure == null) {
+                committed.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+            member.complete();
+        }
+    }
+
+    private static void rollback(Handle handle, Throwable cause)
+    {
+        if (handle == null) {
+            return;
+        }
+        try {
+            handle.rollback();
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Commits the members already submitted, then stops the committer thread.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(stop);
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getMaxGroupSize() {
+        return maxGroupSize;
+    }
+
+    public long getGroups() {
+        return groups.get();
+    }
+
+    public long getCommitted() {
+        return committed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Members per physical transaction, the number of commits saved is members - groups.
+     */
+    public double getAverageGroupSize()
+    {
+        long count = groups.get();
+        return count == 0 ? 0 : (double) (committed.get() + failed.get()) / count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(GroupCommitter groups:" + getGroups() +
+                ", committed:" + getCommitted() +
+                ", failed:" + getFailed() +
+                ", averageGroupSize:" + String.format("%.1f", getAverageGroupSize()) +
+                ")";
+    }
+
+    private static class Member<T> {
+        private final HandleCallback<T, ?> callback;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable failure;
+
+        Member(HandleCallback<T, ?> callback) {
+            this.callback = callback;
+        }
+
+        /*
+        Failing to set or roll back to the savepoint fails the whole group,
+        only an exception from the callback itself is isolated.
+         */
+        void runIn(Handle handle, String savepoint)
+        {
+            handle.savepoint(savepoint);
+            try {
+                result = callback.withHandle(handle);
+            } catch (Exception e) {
+                handle.rollbackToSavepoint(savepoint);
+                failure = e;
+                return;
+            }
+            handle.release(savepoint);
+        }
+
+        void complete()
+        {
+            if (failure == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package transaction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries to a share of the transactions, so a database that is failing for good is not hit with
+ * maxAttempts times the load, the retry storm that makes contention worse.
+ *
+ * Every transaction deposits retryRatio tokens, up to maxTokens, and every retry takes one token.
+ * A burst of up to maxTokens retries is always allowed, after that retries are limited to retryRatio
+ * of the transactions run, e.g. 0.1 for at most one retry per ten transactions.
+ * Share one budget between all the handles of a connection pool.
+ */
+public class RetryBudget {
+    //tokens are counted in thousandths, so the ratio does not need a floating point CAS
+    private static final long SCALE = 1000;
+
+    private final long retryRatio;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    public RetryBudget() {
+        this(0.2, 100);
+    }
+
+    public RetryBudget(double retryRatio, int maxTokens) {
+        if (retryRatio < 0) {
+            throw new IllegalArgumentException("retryRatio must not be negative, was " + retryRatio);
+        }
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("maxTokens must be at least 1, was " + maxTokens);
+        }
+        this.retryRatio = Math.round(retryRatio * SCALE);
+        this.maxTokens = maxTokens * SCALE;
+        this.tokens = new AtomicLong(this.maxTokens);
+    }
+
+    void deposit()
+    {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(current + retryRatio, maxTokens)));
+    }
+
+    boolean tryWithdraw()
+    {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Retries allowed right now.
+     */
+    public long getAvailable() {
+        return tokens.get() / SCALE;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(RetryBudget retryRatio:" + (double) retryRatio / SCALE +
+                ", maxTokens:" + maxTokens / SCALE +
+                ", available:" + getAvailable() +
+                ")";
+    }
+}
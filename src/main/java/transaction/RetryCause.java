@@ -0,0 +1,73 @@
+package transaction;
+
+import java.sql.SQLException;
+
+/**
+ * The transient failures a RetryingTransactionHandler retries.
+ * In all of them the database has rolled back the transaction, or at least the failed statement,
+ * so running the whole transaction again is safe.
+ */
+public enum RetryCause {
+    SERIALIZATION_FAILURE,
+    DEADLOCK,
+    LOCK_TIMEOUT;
+
+    /**
+     * Classifies the first SQLException in the cause chain, and in the next exceptions of each SQLException.
+     * @return null when the failure is not transient, e.g. a constraint violation or a lost connection,
+     * where the outcome of a commit is unknown
+     */
+    public static RetryCause classify(Throwable failure)
+    {
+        for (Throwable e = failure; e != null; e = e.getCause()) {
+            if (e instanceof SQLException) {
+                for (SQLException next = (SQLException) e; next != null; next = next.getNextException()) {
+                    RetryCause cause = classify(next.getSQLState(), next.getErrorCode());
+                    if (cause != null) {
+                        return cause;
+                    }
+                }
+            }
+            if (e.getCause() == e) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    static RetryCause classify(String sqlState, int errorCode)
+    {
+        if (sqlState == null) {
+            return null;
+        }
+        switch (sqlState) {
+            case "40001":
+                //the standard serialization failure, which MySQL (1213), SQL Server (1205) and H2 also use for deadlocks,
+                //MySQL's 1205 lock wait timeout lands here as well, and is retried all the same
+                return errorCode == 1213 || errorCode == 1205 || errorCode == 40001 ? DEADLOCK : SERIALIZATION_FAILURE;
+            case "40P01":
+                //PostgreSQL deadlock_detected
+                return DEADLOCK;
+            case "55P03":
+                //PostgreSQL lock_not_available
+                return LOCK_TIMEOUT;
+            case "HY000":
+                //MySQL lock wait timeout, from drivers that do not map it to 40001
+                return errorCode == 1205 ? LOCK_TIMEOUT : null;
+            case "HYT00":
+                //H2 lock timeout, but not other timeouts with the same state
+                return errorCode == 50200 ? LOCK_TIMEOUT : null;
+            case "90131":
+                //H2 concurrent update of the same row
+                return SERIALIZATION_FAILURE;
+            case "72000":
+                //Oracle ORA-08177, can't serialize access
+                return errorCode == 8177 ? SERIALIZATION_FAILURE : null;
+            case "61000":
+                //Oracle ORA-00060, deadlock detected
+                return errorCode == 60 ? DEADLOCK : null;
+            default:
+                return null;
+        }
+    }
+}
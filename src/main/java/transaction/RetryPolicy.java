@@ -0,0 +1,78 @@
+package transaction;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How often and how long a RetryingTransactionHandler waits before running a failed transaction again.
+ *
+ * The backoff before retry n is drawn uniformly between 0 and min(maxBackoff, initialBackoff * 2^(n-1)),
+ * "full jitter", so transactions that failed on the same conflict spread out instead of colliding again.
+ */
+public class RetryPolicy {
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofMillis(10);
+    private Duration maxBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Attempts in total, including the first one.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public RetryPolicy setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1, was " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public RetryPolicy setInitialBackoff(Duration initialBackoff) {
+        if (initialBackoff.isNegative()) {
+            throw new IllegalArgumentException("initialBackoff must not be negative, was " + initialBackoff);
+        }
+        this.initialBackoff = initialBackoff;
+        return this;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public RetryPolicy setMaxBackoff(Duration maxBackoff) {
+        if (maxBackoff.isNegative()) {
+            throw new IllegalArgumentException("maxBackoff must not be negative, was " + maxBackoff);
+        }
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    /**
+     * @param retry 1 for the first retry
+     */
+    long backoffNanos(int retry)
+    {
+        long cap = maxBackoff.toNanos();
+        long initial = initialBackoff.toNanos();
+        int shift = Math.min(retry - 1, 62);
+        long exponential = initial << shift;
+        //an overflowing shift has long passed the cap
+        long ceiling = exponential >> shift != initial ? cap : Math.min(cap, exponential);
+        return ceiling == 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(RetryPolicy maxAttempts:" + maxAttempts +
+                ", initialBackoff:" + initialBackoff.toMillis() + "ms" +
+                ", maxBackoff:" + maxBackoff.toMillis() + "ms" +
+                ")";
+    }
+}
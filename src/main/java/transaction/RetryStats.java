@@ -0,0 +1,98 @@
+package transaction;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a RetryingTransactionHandler, shared by every handle of its Jdbi.
+ */
+public class RetryStats {
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetRejected = new LongAdder();
+    private final Map<RetryCause, LongAdder> retries = new EnumMap<>(RetryCause.class);
+
+    RetryStats() {
+        for (RetryCause cause : RetryCause.values()) {
+            retries.put(cause, new LongAdder());
+        }
+    }
+
+    void transaction()
+    {
+        transactions.increment();
+    }
+
+    void retried(RetryCause cause)
+    {
+        retries.get(cause).increment();
+    }
+
+    void recovered()
+    {
+        recovered.increment();
+    }
+
+    void exhausted()
+    {
+        exhausted.increment();
+    }
+
+    void budgetRejected()
+    {
+        budgetRejected.increment();
+    }
+
+    /**
+     * Outermost transactions run, retries not included.
+     */
+    public long getTransactions() {
+        return transactions.sum();
+    }
+
+    public long getRetries(RetryCause cause)
+    {
+        return retries.get(cause).sum();
+    }
+
+    public long getRetries()
+    {
+        return retries.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Transactions that failed at least once, and then committed.
+     */
+    public long getRecovered() {
+        return recovered.sum();
+    }
+
+    /**
+     * Transactions that failed transiently on every one of maxAttempts attempts.
+     */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * Transient failures that were not retried, because the RetryBudget was used up.
+     */
+    public long getBudgetRejected() {
+        return budgetRejected.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "(RetryStats transactions:" + getTransactions() +
+                ", serializationFailures:" + getRetries(RetryCause.SERIALIZATION_FAILURE) +
+                ", deadlocks:" + getRetries(RetryCause.DEADLOCK) +
+                ", lockTimeouts:" + getRetries(RetryCause.LOCK_TIMEOUT) +
+                ", recovered:" + getRecovered() +
+                ", exhausted:" + getExhausted() +
+                ", budgetRejected:" + getBudgetRejected() +
+                ")";
+    }
+}
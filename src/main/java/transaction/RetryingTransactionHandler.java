@@ -0,0 +1,134 @@
+package transaction;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.HandleCallback;
+import org.jdbi.v3.core.transaction.DelegatingTransactionHandler;
+import org.jdbi.v3.core.transaction.TransactionHandler;
+import org.jdbi.v3.core.transaction.TransactionIsolationLevel;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs inTransaction() and useTransaction() again when they fail on a serialization failure, a deadlock
+ * or a lock timeout, see RetryCause, with the backoff of the RetryPolicy:
+ *
+ *     jdbi.setTransactionHandler(new RetryingTransactionHandler(jdbi.getTransactionHandler(), new RetryPolicy()));
+ *
+ * Only the outermost transaction is retried, as a whole, after the delegate has rolled it back.
+ * Nested inTransaction() calls and statements run outside of inTransaction() are not retried.
+ * Failures where the outcome of the commit is unknown, like a lost connection, are never retried.
+ * The callback may still run more than once, so it must not have side effects outside the transaction,
+ * like sending a message, or it must make them idempotent.
+ *
+ * The RetryBudget and RetryStats are shared by every handle of the Jdbi, so by its whole connection pool.
+ * Works like jdbi's SerializableTransactionRunner, which retries serialization failures without backoff.
+ */
+public class RetryingTransactionHandler extends DelegatingTransactionHandler {
+    private final RetryPolicy policy;
+    private final RetryBudget budget;
+    private final RetryStats stats;
+
+    public RetryingTransactionHandler(TransactionHandler delegate, RetryPolicy policy) {
+        this(delegate, policy, new RetryBudget());
+    }
+
+    public RetryingTransactionHandler(TransactionHandler delegate, RetryPolicy policy, RetryBudget budget) {
+        this(delegate, policy, budget, new RetryStats());
+    }
+
+    private RetryingTransactionHandler(TransactionHandler delegate, RetryPolicy policy, RetryBudget budget,
+                                       RetryStats stats) {
+        super(delegate);
+        this.policy = policy;
+        this.budget = budget;
+        this.stats = stats;
+    }
+
+    @Override
+    public <R, X extends Exception> R inTransaction(Handle handle, HandleCallback<R, X> callback) throws X
+    {
+        if (isInTransaction(handle)) {
+            return getDelegate().inTransaction(handle, callback);
+        }
+        return withRetries(() -> getDelegate().inTransaction(handle, callback));
+    }
+
+    @Override
+    public <R, X extends Exception> R inTransaction(Handle handle, TransactionIsolationLevel level,
+                                                    HandleCallback<R, X> callback) throws X
+    {
+        if (isInTransaction(handle)) {
+            return getDelegate().inTransaction(handle, level, callback);
+        }
+        return withRetries(() -> getDelegate().inTransaction(handle, level, callback));
+    }
+
+    private <R, X extends Exception> R withRetries(Attempt<R, X> attempt) throws X
+    {
+        stats.transaction();
+        budget.deposit();
+        int attempts = 1;
+        while (true) {
+            try {
+                R result = attempt.run();
+                if (attempts > 1) {
+                    stats.recovered();
+                }
+                return result;
+            } catch (Exception e) {
+                RetryCause cause = RetryCause.classify(e);
+                if (cause == null) {
+                    throw e;
+                }
+                if (attempts >= policy.getMaxAttempts()) {
+                    stats.exhausted();
+                    throw e;
+                }
+                if (!budget.tryWithdraw()) {
+                    stats.budgetRejected();
+                    throw e;
+                }
+                stats.retried(cause);
+                if (!sleep(policy.backoffNanos(attempts))) {
+                    throw e;
+                }
+                attempts++;
+            }
+        }
+    }
+
+    private static boolean sleep(long nanos)
+    {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public TransactionHandler specialize(Handle handle) throws SQLException
+    {
+        return new RetryingTransactionHandler(getDelegate().specialize(handle), policy, budget, stats);
+    }
+
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    public RetryStats getStats() {
+        return stats;
+    }
+
+    @FunctionalInterface
+    private interface Attempt<R, X extends Exception> {
+        R run() throws X;
+    }
+}
@@ -0,0 +1,16 @@
+package async;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The JDK 21 version of VirtualThreads, packaged under META-INF/versions/21 by the jdk21 profile.
+ */
+final class VirtualThreads {
+    private VirtualThreads() {}
+
+    static ExecutorService newExecutor()
+    {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}